@@ -0,0 +1,274 @@
+package benchmarks;
+
+import models.EmployeeGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Reproducible input of any size, in the same column layout as the src/data/*.xlsx extracts,
+// for benchmarking beyond the sample files (e.g. 1M users, 50k roles, hierarchies 32 levels deep).
+//
+// Roles are laid out in chains of `hierarchyDepth` levels, each level the parent of the one
+// below it; about one role in ten gets a second parent further up, and about one chain in a
+// hundred is closed into a cycle. Users get `rolesPerUser` distinct roles at random.
+public final class SyntheticDataset {
+    private static final String START_DATE = "1970-01-01T00:00:00.000+00:00";
+    private static final String END_DATE = "2025-03-13T04:52:59.000+00:00";
+
+    private final int users;
+    private final int roles;
+    private final int privileges;
+    private final int[][] userRoles;        // user -> role ids
+    private final int[][] roleParents;      // child role -> parent role ids
+    private final int[][] rolePrivileges;   // role -> direct privilege ids
+
+    private SyntheticDataset(int users, int roles, int privileges,
+                             int[][] userRoles, int[][] roleParents, int[][] rolePrivileges) {
+        this.users = users;
+        this.roles = roles;
+        this.privileges = privileges;
+        this.userRoles = userRoles;
+        this.roleParents = roleParents;
+        this.rolePrivileges = rolePrivileges;
+    }
+
+    // ✅ Generate a dataset; the same arguments always give the same rows
+    public static SyntheticDataset generate(int users, int roles, int privileges, int hierarchyDepth,
+                                            int rolesPerUser, int privilegesPerRole, long seed) {
+        return generate(users, roles, privileges, hierarchyDepth, rolesPerUser, privilegesPerRole, 0, seed);
+    }
+
+    // ✅ Same, with every user holding one of `roleSets` role combinations (listed in an order of
+    // their own), as in tenants where most users share a few job profiles; 0 draws roles per user
+    public static SyntheticDataset generate(int users, int roles, int privileges, int hierarchyDepth,
+                                            int rolesPerUser, int privilegesPerRole, int roleSets, long seed) {
+        if (users < 1 || roles < 1 || privileges < 1 || hierarchyDepth < 1 || roleSets < 0) {
+            throw new IllegalArgumentException("Dataset sizes and hierarchy depth must be positive");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+
+        int[][] roleParents = new int[roles][];
+        for (int role = 0; role < roles; role++) {
+            int level = role % hierarchyDepth;
+            int chainStart = role - level;
+            boolean lastInChain = level == hierarchyDepth - 1 || role == roles - 1;
+            List<Integer> parents = new ArrayList<>(2);
+            if (level > 0) {
+                parents.add(role - 1);
+            }
+            if (level > 1 && random.nextInt(10) == 0) {
+                parents.add(chainStart + random.nextInt(level - 1));
+            }
+            if (lastInChain && role > chainStart && random.nextInt(100) == 0) {
+                // The chain's top role becomes a child of its bottom role
+                roleParents[chainStart] = new int[]{role};
+            }
+            roleParents[role] = concat(roleParents[role], parents);
+        }
+
+        int[][] rolePrivileges = new int[roles][];
+        for (int role = 0; role < roles; role++) {
+            rolePrivileges[role] = distinct(random, Math.min(privilegesPerRole, privileges), privileges);
+        }
+
+        int[][] userRoles = new int[users][];
+        int[][] combinations = new int[roleSets][];
+        for (int set = 0; set < roleSets; set++) {
+            combinations[set] = distinct(random, Math.min(rolesPerUser, roles), roles);
+        }
+        for (int user = 0; user < users; user++) {
+            if (roleSets == 0) {
+                userRoles[user] = distinct(random, Math.min(rolesPerUser, roles), roles);
+                continue;
+            }
+            int[] held = combinations[random.nextInt(roleSets)].clone();
+            for (int i = held.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = held[i];
+                held[i] = held[j];
+                held[j] = swap;
+            }
+            userRoles[user] = held;
+        }
+        return new SyntheticDataset(users, roles, privileges, userRoles, roleParents, rolePrivileges);
+    }
+
+    // ✅ Same sizes as a realistic large tenant
+    public static SyntheticDataset largeTenant(long seed) {
+        return generate(1_000_000, 50_000, 100_000, 32, 4, 8, seed);
+    }
+
+    // ---- Tables, header row first, as ExcelReader would return them ----
+
+    // HCM_EMP_PERSON_ID, USER_DESCRIPTION, USER_DISPLAY_NAME, EFFECTIVE_END_DATE, EFFECTIVE_START_DATE, USER_ID
+    public List<String[]> userDetails() {
+        List<String[]> rows = new ArrayList<>(users + 1);
+        rows.add(new String[]{"HCM_EMP_PERSON_ID", "USER_DESCRIPTION", "USER_DISPLAY_NAME",
+                              "EFFECTIVE_END_DATE", "EFFECTIVE_START_DATE", "USER_ID"});
+        for (int user = 0; user < users; user++) {
+            String name = userName(user);
+            rows.add(new String[]{String.valueOf(user), name, name, "", START_DATE, userId(user)});
+        }
+        return rows;
+    }
+
+    // ROLE_ID, MEMBERSHIP_ID, USER_ID, EFFECTIVE_START_DATE, EFFECTIVE_END_DATE
+    public List<String[]> userRoleMapping() {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"ROLE_ID", "MEMBERSHIP_ID", "USER_ID", "EFFECTIVE_START_DATE", "EFFECTIVE_END_DATE"});
+        int membership = 0;
+        for (int user = 0; user < users; user++) {
+            for (int role : userRoles[user]) {
+                rows.add(new String[]{roleId(role), String.valueOf(membership++), userId(user), START_DATE, END_DATE});
+            }
+        }
+        return rows;
+    }
+
+    // ROLE_ID, ROLE_NAME
+    public List<String[]> roleMasterDetails() {
+        List<String[]> rows = new ArrayList<>(roles + 1);
+        rows.add(new String[]{"ROLE_ID", "ROLE_NAME"});
+        for (int role = 0; role < roles; role++) {
+            rows.add(new String[]{roleId(role), roleName(role)});
+        }
+        return rows;
+    }
+
+    // MEMBERSHIP_ID, CHILD_ROLE_ID, PARENT_ROLE_ID, EFFECTIVE_START_DATE, EFFECTIVE_END_DATE
+    public List<String[]> roleToRole() {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"MEMBERSHIP_ID", "CHILD_ROLE_ID", "PARENT_ROLE_ID", "EFFECTIVE_START_DATE", "EFFECTIVE_END_DATE"});
+        int membership = 0;
+        for (int role = 0; role < roles; role++) {
+            for (int parent : roleParents[role]) {
+                rows.add(new String[]{String.valueOf(membership++), roleId(role), roleId(parent), START_DATE, END_DATE});
+            }
+        }
+        return rows;
+    }
+
+    // DESCRIPTION, NAME, PRIVILEGE_ID
+    public List<String[]> privilegeMaster() {
+        List<String[]> rows = new ArrayList<>(privileges + 1);
+        rows.add(new String[]{"DESCRIPTION", "NAME", "PRIVILEGE_ID"});
+        for (int privilege = 0; privilege < privileges; privilege++) {
+            rows.add(new String[]{"", privilegeName(privilege), privilegeId(privilege)});
+        }
+        return rows;
+    }
+
+    // MEMBERSHIP_ID, PRIVILEGE_ID, ROLE_ID, EFFECTIVE_START_DATE, EFFECTIVE_END_DATE
+    public List<String[]> privilegeRoleRelation() {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"MEMBERSHIP_ID", "PRIVILEGE_ID", "ROLE_ID", "EFFECTIVE_START_DATE", "EFFECTIVE_END_DATE"});
+        int membership = 0;
+        for (int role = 0; role < roles; role++) {
+            for (int privilege : rolePrivileges[role]) {
+                rows.add(new String[]{String.valueOf(membership++), privilegeId(privilege), roleId(role), START_DATE, END_DATE});
+            }
+        }
+        return rows;
+    }
+
+    // ✅ The graph SoDChecker would build from these tables, filled directly without the ID joins
+    public EmployeeGraph toGraph() {
+        EmployeeGraph graph = new EmployeeGraph();
+        for (int user = 0; user < users; user++) {
+            for (int role : userRoles[user]) {
+                graph.addRole(userName(user), roleName(role));
+            }
+        }
+        for (int role = 0; role < roles; role++) {
+            for (int parent : roleParents[role]) {
+                graph.addHierarchy(roleName(role), roleName(parent));
+            }
+        }
+        for (int role = 0; role < roles; role++) {
+            for (int privilege : rolePrivileges[role]) {
+                graph.addRolePrivilege(roleName(role), privilegeName(privilege));
+            }
+        }
+        return graph;
+    }
+
+    // ✅ SoD ruleset rows (RULE_NAME, LEG, ACCESS_POINT) with `rules` rules over random privileges,
+    // 1 to `maxPointsPerLeg` access points per leg
+    public List<String[]> ruleRows(int rules, int maxPointsPerLeg, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"RULE_NAME", "LEG", "ACCESS_POINT"});
+        for (int rule = 0; rule < rules; rule++) {
+            for (int leg = 1; leg <= 2; leg++) {
+                int points = 1 + random.nextInt(maxPointsPerLeg);
+                for (int point = 0; point < points; point++) {
+                    rows.add(new String[]{"Synthetic Rule " + rule, String.valueOf(leg),
+                                          privilegeName(random.nextInt(privileges))});
+                }
+            }
+        }
+        return rows;
+    }
+
+    public int getUserCount() {
+        return users;
+    }
+
+    public int getRoleCount() {
+        return roles;
+    }
+
+    public String roleName(int role) {
+        return "Synthetic Role " + role;
+    }
+
+    private static String userName(int user) {
+        return "USER." + user;
+    }
+
+    private static String userId(int user) {
+        return user + ".0";
+    }
+
+    private static String roleId(int role) {
+        return role + ".0";
+    }
+
+    private static String privilegeName(int privilege) {
+        return "Synthetic Privilege " + privilege;
+    }
+
+    private static String privilegeId(int privilege) {
+        return privilege + ".0";
+    }
+
+    // `count` distinct values from [0, bound), by rejection (count is small next to bound)
+    private static int[] distinct(SplittableRandom random, int count, int bound) {
+        int[] values = new int[count];
+        int filled = 0;
+        while (filled < count) {
+            int candidate = random.nextInt(bound);
+            boolean seen = false;
+            for (int i = 0; i < filled && !seen; i++) {
+                seen = values[i] == candidate;
+            }
+            if (!seen) {
+                values[filled++] = candidate;
+            }
+        }
+        return values;
+    }
+
+    private static int[] concat(int[] existing, List<Integer> more) {
+        int offset = existing == null ? 0 : existing.length;
+        int[] values = new int[offset + more.size()];
+        if (existing != null) {
+            System.arraycopy(existing, 0, values, 0, offset);
+        }
+        for (int i = 0; i < more.size(); i++) {
+            values[offset + i] = more.get(i);
+        }
+        return values;
+    }
+}
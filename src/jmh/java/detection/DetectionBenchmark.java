@@ -0,0 +1,84 @@
+package detection;
+
+import benchmarks.SyntheticDataset;
+import models.EmployeeGraph;
+import org.openjdk.jmh.annotations.*;
+import utils.CountingViolationSink;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Full detectConflicts() over a synthetic graph, sequential and sharded over the pool, with and
+// without a synthetic SoD ruleset, and with users holding roles of their own or sharing a few
+// thousand role sets. The privilege closure and the compiled rules are built once in setup, so
+// this measures detection alone.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class DetectionBenchmark {
+
+    @Param({"100000"})
+    public int users;
+
+    @Param({"10000"})
+    public int roles;
+
+    @Param({"8"})
+    public int depth;
+
+    @Param({"4"})
+    public int parallelism;
+
+    @Param({"5000"})
+    public int rules;
+
+    // Distinct role combinations the users share; 0 gives every user their own
+    @Param({"0", "4000"})
+    public int roleSets;
+
+    private ForkJoinPool pool;
+    private SoDViolationDetector detector;
+    private SoDViolationDetector ruleDetector;
+
+    @Setup(Level.Trial)
+    public void build() {
+        pool = new ForkJoinPool(parallelism);
+        SyntheticDataset dataset = SyntheticDataset.generate(users, roles, roles * 2, depth, 4, 8, roleSets, 42L);
+        EmployeeGraph graph = dataset.toGraph();
+        graph.getPrivilegeClosure();
+        detector = new SoDViolationDetector(graph);
+        SoDRuleSet ruleSet = SoDRuleSet.of(dataset.ruleRows(rules, 4, 42L), "synthetic");
+        ruleDetector = new SoDViolationDetector(graph, CompiledRuleSet.compile(ruleSet, graph));
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<String[]> detectSequential() {
+        return detector.detectConflicts();
+    }
+
+    @Benchmark
+    public List<String[]> detectParallel() {
+        return detector.detectConflicts(pool);
+    }
+
+    // Streams into a counting sink, so no violation list is kept
+    @Benchmark
+    public long detectParallelStreaming() {
+        return detector.detectConflicts(pool, new CountingViolationSink());
+    }
+
+    // All rules evaluated per employee through the compiled privilege -> (rule, leg) index
+    @Benchmark
+    public long detectRulesParallelStreaming() {
+        return ruleDetector.detectConflicts(pool, new CountingViolationSink());
+    }
+}
@@ -0,0 +1,54 @@
+package models;
+
+import benchmarks.SyntheticDataset;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of the role -> effective privileges closure: rebuilding it from the hierarchy,
+// and serving getRolePrivileges() lookups from the cached one.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class PrivilegeClosureBenchmark {
+    // Role names looked up per getRolePrivileges invocation
+    private static final int LOOKUPS = 1024;
+
+    @Param({"10000", "50000"})
+    public int roles;
+
+    @Param({"8", "32"})
+    public int depth;
+
+    private EmployeeGraph graph;
+    private String[] roleNames;
+
+    @Setup(Level.Trial)
+    public void build() {
+        SyntheticDataset dataset = SyntheticDataset.generate(10_000, roles, roles * 2, depth, 4, 8, 42L);
+        graph = dataset.toGraph();
+        graph.getPrivilegeClosure();
+
+        roleNames = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            roleNames[i] = dataset.roleName((int) ((long) i * roles / LOOKUPS));
+        }
+    }
+
+    @Benchmark
+    public PrivilegeClosure computeClosure() {
+        return graph.computePrivilegeClosure();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void getRolePrivileges(Blackhole blackhole) {
+        for (String role : roleNames) {
+            blackhole.consume(graph.getRolePrivileges(role));
+        }
+    }
+}
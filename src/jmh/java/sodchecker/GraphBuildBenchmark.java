@@ -0,0 +1,90 @@
+package sodchecker;
+
+import benchmarks.SyntheticDataset;
+import models.EmployeeGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// SoDChecker's graph build phases over synthetic tables. Scale up with e.g.
+// -p users=1000000 -p roles=50000 -p depth=32 (and a larger -Xmx via -jvmArgsAppend).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class GraphBuildBenchmark {
+
+    @Param({"100000"})
+    public int users;
+
+    @Param({"10000"})
+    public int roles;
+
+    @Param({"8"})
+    public int depth;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private List<String[]> userDetails;
+    private List<String[]> userRoleMapping;
+    private List<String[]> roleMasterDetails;
+    private List<String[]> roleToRole;
+    private List<String[]> privilegeMaster;
+    private List<String[]> privilegeRoleRelation;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SoDChecker.configureLogging(null);
+        pool = new ForkJoinPool(parallelism);
+
+        SyntheticDataset dataset = SyntheticDataset.generate(users, roles, roles * 2, depth, 4, 8, 42L);
+        userDetails = dataset.userDetails();
+        userRoleMapping = dataset.userRoleMapping();
+        roleMasterDetails = dataset.roleMasterDetails();
+        roleToRole = dataset.roleToRole();
+        privilegeMaster = dataset.privilegeMaster();
+        privilegeRoleRelation = dataset.privilegeRoleRelation();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public EmployeeGraph employeeRoles() throws InterruptedException, ExecutionException {
+        EmployeeGraph graph = new EmployeeGraph();
+        SoDChecker.buildEmployeeRoleGraph(graph, pool, userDetails, userRoleMapping, roleMasterDetails);
+        return graph;
+    }
+
+    @Benchmark
+    public EmployeeGraph roleHierarchy() throws InterruptedException, ExecutionException {
+        EmployeeGraph graph = new EmployeeGraph();
+        SoDChecker.buildRoleHierarchy(graph, pool, roleToRole, roleMasterDetails);
+        return graph;
+    }
+
+    @Benchmark
+    public EmployeeGraph rolePrivileges() throws InterruptedException, ExecutionException {
+        EmployeeGraph graph = new EmployeeGraph();
+        SoDChecker.buildRolePrivilegeRelationships(graph, pool, privilegeRoleRelation, privilegeMaster, roleMasterDetails);
+        return graph;
+    }
+
+    @Benchmark
+    public EmployeeGraph fullGraph() throws InterruptedException, ExecutionException {
+        EmployeeGraph graph = new EmployeeGraph();
+        SoDChecker.buildEmployeeRoleGraph(graph, pool, userDetails, userRoleMapping, roleMasterDetails);
+        SoDChecker.buildRoleHierarchy(graph, pool, roleToRole, roleMasterDetails);
+        SoDChecker.buildRolePrivilegeRelationships(graph, pool, privilegeRoleRelation, privilegeMaster, roleMasterDetails);
+        return graph;
+    }
+}
@@ -0,0 +1,41 @@
+package utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Reads each sample extract in src/data (override the directory with -Dsod.dataDir=...).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class ExcelReaderBenchmark {
+
+    @Param({"userDetails", "userRoleMapping", "roleMasterDetails", "roleToRole", "pvlgsMaster", "pvgRoleRelation"})
+    public String file;
+
+    private String path;
+
+    @Setup(Level.Trial)
+    public void locateFile() {
+        File input = new File(System.getProperty("sod.dataDir", "src/data"), file + ".xlsx");
+        if (!input.isFile()) {
+            throw new IllegalStateException("Missing benchmark input: " + input.getAbsolutePath());
+        }
+        path = input.getPath();
+    }
+
+    @Benchmark
+    public List<String[]> readStreaming() {
+        return ExcelReader.readExcelFileStreaming(path);
+    }
+
+    @Benchmark
+    public List<String[]> readWorkbook() {
+        return ExcelReader.readExcelFile(path);
+    }
+}
@@ -0,0 +1,96 @@
+package detection;
+
+import models.EmployeeGraph;
+
+import java.util.*;
+
+// Works out which employees an edge change can affect. A role's effective privileges and
+// cycle membership only change when something below it changes, so every role that reaches a
+// changed role through the hierarchy (its ancestors) is affected, and with it every employee
+// holding one of those roles. Call addRolesWithAncestors() on the graph before the change (for
+// removed edges) and after it (for added ones); the union covers both.
+public class ChangeImpact {
+    private final Set<String> roles = new HashSet<>();
+    private final Set<String> employees = new HashSet<>();
+
+    // ✅ The employee's own role assignments changed
+    public void addEmployee(String employee) {
+        employees.add(employee.trim());
+    }
+
+    // ✅ The roles' direct privileges or child roles changed: mark them and all their ancestors
+    public void addRolesWithAncestors(EmployeeGraph graph, Collection<String> changedRoles) {
+        int[][] parents = parentIndex(graph);
+        boolean[] visited = new boolean[graph.getRoleCount()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (String role : changedRoles) {
+            roles.add(role.trim());
+            int roleId = graph.getRoleId(role);
+            if (roleId >= 0 && !visited[roleId]) {
+                visited[roleId] = true;
+                queue.add(roleId);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int role = queue.poll();
+            roles.add(graph.getRoleName(role));
+            for (int parent : parents[role]) {
+                if (!visited[parent]) {
+                    visited[parent] = true;
+                    queue.add(parent);
+                }
+            }
+        }
+    }
+
+    public int getAffectedRoleCount() {
+        return roles.size();
+    }
+
+    // ✅ Ids of the affected employees in the graph, ascending (report order)
+    public int[] affectedEmployeeIds(EmployeeGraph graph) {
+        boolean[] affectedRole = new boolean[graph.getRoleCount()];
+        for (String role : roles) {
+            int roleId = graph.getRoleId(role);
+            if (roleId >= 0) {
+                affectedRole[roleId] = true;
+            }
+        }
+
+        int[] affected = new int[graph.getEmployeeCount()];
+        int count = 0;
+        for (int employee = 0; employee < graph.getEmployeeCount(); employee++) {
+            boolean hit = employees.contains(graph.getEmployeeName(employee));
+            for (int role : graph.getRoleIds(employee)) {
+                hit |= affectedRole[role];
+            }
+            if (hit) {
+                affected[count++] = employee;
+            }
+        }
+        return Arrays.copyOf(affected, count);
+    }
+
+    // Child role -> parent roles, inverted from the graph's parent -> children adjacency
+    private static int[][] parentIndex(EmployeeGraph graph) {
+        int roleCount = graph.getRoleCount();
+        int[] degrees = new int[roleCount];
+        for (int parent = 0; parent < roleCount; parent++) {
+            for (int child : graph.getChildRoleIds(parent)) {
+                degrees[child]++;
+            }
+        }
+        int[][] parents = new int[roleCount][];
+        for (int role = 0; role < roleCount; role++) {
+            parents[role] = new int[degrees[role]];
+        }
+        int[] filled = new int[roleCount];
+        for (int parent = 0; parent < roleCount; parent++) {
+            for (int child : graph.getChildRoleIds(parent)) {
+                parents[child][filled[child]++] = parent;
+            }
+        }
+        return parents;
+    }
+}
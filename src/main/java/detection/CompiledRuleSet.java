@@ -0,0 +1,201 @@
+package detection;
+
+import models.EmployeeGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.DiagnosticCounter;
+
+import java.util.*;
+
+// A ruleset resolved against one graph. Every access point becomes the privilege ids that grant
+// it (a privilege is itself; an entitlement is every privilege carrying it), and the rules are
+// inverted into privilege -> (rule, leg) postings, so an employee is matched against all rules in
+// one pass over their effective privileges instead of rule by rule.
+public class CompiledRuleSet {
+    private static final Logger log = LoggerFactory.getLogger(CompiledRuleSet.class);
+    private static final int[] NONE = new int[0];
+
+    private final String[] ruleNames;
+    private final String[][] legLabels;         // [rule][leg]
+    private final String[][][] itemNames;       // [rule][leg][item] access point names
+    private final int[][][][] itemPrivileges;   // [rule][leg][item] privilege ids granting the access point
+    private final int[] postingOffsets;         // privilege -> slice of postings
+    private final int[] postings;               // rule << 1 | leg
+    private final long[] ruledPrivileges;       // privileges that appear in at least one rule
+
+    private CompiledRuleSet(String[] ruleNames, String[][] legLabels, String[][][] itemNames,
+                            int[][][][] itemPrivileges, int[] postingOffsets, int[] postings,
+                            long[] ruledPrivileges) {
+        this.ruleNames = ruleNames;
+        this.legLabels = legLabels;
+        this.itemNames = itemNames;
+        this.itemPrivileges = itemPrivileges;
+        this.postingOffsets = postingOffsets;
+        this.postings = postings;
+        this.ruledPrivileges = ruledPrivileges;
+    }
+
+    // ✅ Resolve the access point names against the graph and build the inverted index.
+    // Names the graph does not know are counted and dropped; a leg left empty never matches.
+    public static CompiledRuleSet compile(SoDRuleSet ruleSet, EmployeeGraph graph) {
+        int privilegeCount = graph.getPrivilegeCount();
+        int[][] privilegesByEntitlement = privilegesByEntitlement(graph);
+        DiagnosticCounter unknown = new DiagnosticCounter("rule access points not found in the graph");
+        DiagnosticCounter emptyLegs = new DiagnosticCounter("rules with a leg that no privilege grants");
+
+        List<SoDRuleSet.Rule> rules = ruleSet.getRules();
+        String[] ruleNames = new String[rules.size()];
+        String[][] legLabels = new String[rules.size()][2];
+        String[][][] itemNames = new String[rules.size()][2][];
+        int[][][][] itemPrivileges = new int[rules.size()][2][][];
+        int[] postingCounts = new int[privilegeCount + 1];
+        int[] lastPosting = new int[privilegeCount];
+        Arrays.fill(lastPosting, -1);
+        long position = 0;
+
+        for (int rule = 0; rule < rules.size(); rule++) {
+            SoDRuleSet.Rule source = rules.get(rule);
+            ruleNames[rule] = source.getName();
+            for (int leg = 0; leg < 2; leg++) {
+                SoDRuleSet.Leg sourceLeg = source.getLeg(leg);
+                legLabels[rule][leg] = sourceLeg.getLabel();
+                List<String> names = new ArrayList<>();
+                List<int[]> privileges = new ArrayList<>();
+                for (int item = 0; item < sourceLeg.getAccessPoints().size(); item++) {
+                    String name = sourceLeg.getAccessPoints().get(item);
+                    int[] granting = resolve(graph, privilegesByEntitlement, name, sourceLeg.getTypes().get(item));
+                    position++;
+                    if (granting.length == 0) {
+                        unknown.record(position, name);
+                        continue;
+                    }
+                    names.add(name);
+                    privileges.add(granting);
+                    int posting = rule << 1 | leg;
+                    for (int privilege : granting) {
+                        // One posting per (privilege, rule, leg), however many items share it
+                        if (lastPosting[privilege] != posting) {
+                            lastPosting[privilege] = posting;
+                            postingCounts[privilege + 1]++;
+                        }
+                    }
+                }
+                if (names.isEmpty()) {
+                    emptyLegs.record(rule, source.getName());
+                }
+                itemNames[rule][leg] = names.toArray(new String[0]);
+                itemPrivileges[rule][leg] = privileges.toArray(new int[0][]);
+            }
+        }
+
+        // Counting sort of the postings by privilege; within a privilege they stay in rule order
+        int[] offsets = new int[privilegeCount + 1];
+        for (int p = 0; p < privilegeCount; p++) {
+            offsets[p + 1] = offsets[p] + postingCounts[p + 1];
+        }
+        int[] postings = new int[offsets[privilegeCount]];
+        int[] filled = Arrays.copyOf(offsets, privilegeCount);
+        long[] ruled = new long[(privilegeCount + 63) >>> 6];
+        for (int rule = 0; rule < rules.size(); rule++) {
+            for (int leg = 0; leg < 2; leg++) {
+                int posting = rule << 1 | leg;
+                for (int[] granting : itemPrivileges[rule][leg]) {
+                    for (int privilege : granting) {
+                        int end = filled[privilege];
+                        if (end == offsets[privilege] || postings[end - 1] != posting) {
+                            postings[filled[privilege]++] = posting;
+                            ruled[privilege >>> 6] |= 1L << privilege;
+                        }
+                    }
+                }
+            }
+        }
+
+        unknown.report(log);
+        emptyLegs.report(log);
+        int ruledCount = 0;
+        for (long word : ruled) {
+            ruledCount += Long.bitCount(word);
+        }
+        log.info("Compiled " + rules.size() + " SoD rules over " + ruledCount + " privileges");
+        return new CompiledRuleSet(ruleNames, legLabels, itemNames, itemPrivileges, offsets, postings, ruled);
+    }
+
+    public int getRuleCount() {
+        return ruleNames.length;
+    }
+
+    public String getRuleName(int rule) {
+        return ruleNames[rule];
+    }
+
+    public String getLegLabel(int rule, int leg) {
+        return legLabels[rule][leg];
+    }
+
+    public int getItemCount(int rule, int leg) {
+        return itemNames[rule][leg].length;
+    }
+
+    public String getItemName(int rule, int leg, int item) {
+        return itemNames[rule][leg][item];
+    }
+
+    // Privilege ids granting one access point of a leg
+    int[] itemPrivileges(int rule, int leg, int item) {
+        return itemPrivileges[rule][leg][item];
+    }
+
+    // Words of the mask of privileges referenced by any rule
+    long ruledWord(int index) {
+        return index < ruledPrivileges.length ? ruledPrivileges[index] : 0L;
+    }
+
+    int ruledWordCount() {
+        return ruledPrivileges.length;
+    }
+
+    int postingStart(int privilege) {
+        return postingOffsets[privilege];
+    }
+
+    int postingEnd(int privilege) {
+        return postingOffsets[privilege + 1];
+    }
+
+    int posting(int index) {
+        return postings[index];
+    }
+
+    private static int[] resolve(EmployeeGraph graph, int[][] privilegesByEntitlement,
+                                 String name, SoDRuleSet.AccessPointType type) {
+        if (type == SoDRuleSet.AccessPointType.PRIVILEGE) {
+            int privilege = graph.getPrivilegeId(name);
+            return privilege < 0 ? NONE : new int[]{privilege};
+        }
+        int entitlement = graph.getEntitlementId(name);
+        return entitlement < 0 ? NONE : privilegesByEntitlement[entitlement];
+    }
+
+    // Entitlement -> privileges carrying it, inverted from the graph's privilege -> entitlements edges
+    private static int[][] privilegesByEntitlement(EmployeeGraph graph) {
+        int entitlementCount = graph.getEntitlementCount();
+        int[] degrees = new int[entitlementCount];
+        for (int privilege = 0; privilege < graph.getPrivilegeCount(); privilege++) {
+            for (int entitlement : graph.getEntitlementIds(privilege)) {
+                degrees[entitlement]++;
+            }
+        }
+        int[][] privileges = new int[entitlementCount][];
+        for (int entitlement = 0; entitlement < entitlementCount; entitlement++) {
+            privileges[entitlement] = new int[degrees[entitlement]];
+        }
+        int[] filled = new int[entitlementCount];
+        for (int privilege = 0; privilege < graph.getPrivilegeCount(); privilege++) {
+            for (int entitlement : graph.getEntitlementIds(privilege)) {
+                privileges[entitlement][filled[entitlement]++] = privilege;
+            }
+        }
+        return privileges;
+    }
+}
@@ -0,0 +1,64 @@
+package detection;
+
+import models.BitmapAccumulator;
+import models.CompressedBitmap;
+import models.EmployeeGraph;
+import models.EntitlementClosure;
+
+import java.util.Arrays;
+
+// Entitlement-level counterpart of PrivilegeOverlapChecker: ORs the roles' compressed
+// entitlement bitmaps into a seen accumulator, collecting the entitlements that were already
+// there into an overlap accumulator. Only the 16-bit containers a role actually touches are
+// visited, so the cost follows the roles' entitlement counts, not the size of the catalogue.
+// The conflict's overlapping ids are entitlement ids. Not thread-safe: use one checker per thread.
+public class EntitlementOverlapChecker implements OverlapChecker {
+    private final EmployeeGraph employeeGraph;
+    private final BitmapAccumulator seen = new BitmapAccumulator();     // entitlements of any role so far
+    private final BitmapAccumulator overlap = new BitmapAccumulator();  // entitlements of at least two roles
+
+    public EntitlementOverlapChecker(EmployeeGraph employeeGraph) {
+        this.employeeGraph = employeeGraph;
+    }
+
+    // ✅ The overlapping entitlements and role pairs, or null when there is no conflict
+    @Override
+    public PrivilegeConflict findConflict(int[] roles) {
+        return findConflict(roles, 0);
+    }
+
+    // ✅ The entitlements roles[from..] share with an earlier role, and those role pairs, or null when there are none
+    @Override
+    public PrivilegeConflict findConflict(int[] roles, int from) {
+        EntitlementClosure closure = employeeGraph.getEntitlementClosure();
+        seen.clear();
+        overlap.clear();
+        boolean any = false;
+        for (int r = 0; r < roles.length; r++) {
+            if (r < from) {
+                seen.or(closure.get(roles[r]));
+            } else {
+                any |= seen.orTrackingOverlap(closure.get(roles[r]), overlap);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+
+        int[] pairs = new int[8];
+        int pairValues = 0;
+        for (int a = 0; a < roles.length; a++) {
+            CompressedBitmap first = closure.get(roles[a]);
+            for (int b = Math.max(a + 1, from); b < roles.length; b++) {
+                if (first.intersects(closure.get(roles[b]))) {
+                    if (pairValues == pairs.length) {
+                        pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                    }
+                    pairs[pairValues++] = roles[a];
+                    pairs[pairValues++] = roles[b];
+                }
+            }
+        }
+        return new PrivilegeConflict(overlap.toArray(), Arrays.copyOf(pairs, pairValues));
+    }
+}
@@ -0,0 +1,12 @@
+package detection;
+
+// Finds what an employee reaches through more than one of their roles, at one granularity.
+// Implementations keep per-call scratch: use one checker per thread.
+interface OverlapChecker {
+    // The overlapping ids and role pairs, or null when there is no conflict
+    PrivilegeConflict findConflict(int[] roles);
+
+    // Only the overlaps that roles[from..] add: ids each of them shares with an earlier role in
+    // the array, and those role pairs; null when there are none. from = 0 is findConflict(roles).
+    PrivilegeConflict findConflict(int[] roles, int from);
+}
@@ -0,0 +1,30 @@
+package detection;
+
+// Privileges an employee reaches through more than one of their roles,
+// and every pair of their roles whose effective privileges overlap.
+// In entitlement granularity the overlapping ids are entitlement ids.
+public class PrivilegeConflict {
+    private final int[] overlappingPrivileges;
+    private final int[] rolePairs; // flattened (roleA, roleB) pairs
+
+    PrivilegeConflict(int[] overlappingPrivileges, int[] rolePairs) {
+        this.overlappingPrivileges = overlappingPrivileges;
+        this.rolePairs = rolePairs;
+    }
+
+    public int[] getOverlappingPrivileges() {
+        return overlappingPrivileges.clone();
+    }
+
+    public int getRolePairCount() {
+        return rolePairs.length / 2;
+    }
+
+    public int getFirstRole(int pair) {
+        return rolePairs[pair * 2];
+    }
+
+    public int getSecondRole(int pair) {
+        return rolePairs[pair * 2 + 1];
+    }
+}
@@ -0,0 +1,95 @@
+package detection;
+
+import models.EmployeeGraph;
+import models.ImmutableBitSet;
+import models.PrivilegeClosure;
+
+import java.util.Arrays;
+
+// Finds privileges reached through more than one role by OR/AND-accumulating the roles'
+// closure bitsets word by word. The two accumulators are reused across employees,
+// so an employee without a conflict costs no allocation.
+// Not thread-safe: use one checker per thread.
+public class PrivilegeOverlapChecker implements OverlapChecker {
+    private final EmployeeGraph employeeGraph;
+    private long[] seen = new long[0];     // privileges granted by any role so far
+    private long[] overlap = new long[0];  // privileges granted by at least two roles
+    private int usedWords;
+
+    public PrivilegeOverlapChecker(EmployeeGraph employeeGraph) {
+        this.employeeGraph = employeeGraph;
+    }
+
+    // ✅ The overlapping privileges and role pairs, or null when there is no conflict
+    @Override
+    public PrivilegeConflict findConflict(int[] roles) {
+        return findConflict(roles, 0);
+    }
+
+    // ✅ The privileges roles[from..] share with an earlier role, and those role pairs (e.g. what
+    // granting them on top of roles[0..from) would add), or null when there are none
+    @Override
+    public PrivilegeConflict findConflict(int[] roles, int from) {
+        PrivilegeClosure closure = employeeGraph.getPrivilegeClosure();
+        if (!accumulate(closure, roles, from)) {
+            return null;
+        }
+
+        int privilegeCount = 0;
+        for (int i = 0; i < usedWords; i++) {
+            privilegeCount += Long.bitCount(overlap[i]);
+        }
+        int[] privileges = new int[privilegeCount];
+        int next = 0;
+        for (int i = 0; i < usedWords; i++) {
+            long word = overlap[i];
+            while (word != 0) {
+                privileges[next++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+
+        int[] pairs = new int[8];
+        int pairValues = 0;
+        for (int a = 0; a < roles.length; a++) {
+            ImmutableBitSet first = closure.get(roles[a]);
+            for (int b = Math.max(a + 1, from); b < roles.length; b++) {
+                if (first.intersects(closure.get(roles[b]))) {
+                    if (pairValues == pairs.length) {
+                        pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                    }
+                    pairs[pairValues++] = roles[a];
+                    pairs[pairValues++] = roles[b];
+                }
+            }
+        }
+        return new PrivilegeConflict(privileges, Arrays.copyOf(pairs, pairValues));
+    }
+
+    // Overlaps are only collected for roles[from..]; earlier roles just fill `seen`
+    private boolean accumulate(PrivilegeClosure closure, int[] roles, int from) {
+        Arrays.fill(seen, 0, usedWords, 0L);
+        Arrays.fill(overlap, 0, usedWords, 0L);
+        usedWords = 0;
+
+        long any = 0L;
+        for (int r = 0; r < roles.length; r++) {
+            ImmutableBitSet privileges = closure.get(roles[r]);
+            long collect = r >= from ? -1L : 0L;
+            int words = privileges.wordCount();
+            if (words > seen.length) {
+                seen = Arrays.copyOf(seen, Math.max(words, seen.length * 2));
+                overlap = Arrays.copyOf(overlap, seen.length);
+            }
+            for (int i = 0; i < words; i++) {
+                long word = privileges.word(i);
+                long both = seen[i] & word & collect;
+                overlap[i] |= both;
+                seen[i] |= word;
+                any |= both;
+            }
+            usedWords = Math.max(usedWords, words);
+        }
+        return any != 0L;
+    }
+}
@@ -0,0 +1,118 @@
+package detection;
+
+import models.EmployeeGraph;
+import models.StronglyConnectedComponents;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cycles in the role hierarchy, found in one linear pass over the hierarchy's strongly
+// connected components. A role is on a cycle exactly when its component has more than
+// one role or the role contains itself, so flagging an employee's role is an O(1) lookup.
+public class RoleCycleAnalysis {
+    private final EmployeeGraph employeeGraph;
+    private final StronglyConnectedComponents components;
+    private final boolean[] cyclicComponent;
+    private final int[] cyclicComponents;
+    private final Map<Integer, int[]> cycleByRole = new ConcurrentHashMap<>();
+
+    private RoleCycleAnalysis(EmployeeGraph employeeGraph, StronglyConnectedComponents components) {
+        this.employeeGraph = employeeGraph;
+        this.components = components;
+        this.cyclicComponent = new boolean[components.componentCount()];
+
+        int[] cyclic = new int[components.componentCount()];
+        int cyclicCount = 0;
+        for (int component = 0; component < components.componentCount(); component++) {
+            int first = components.member(component, 0);
+            if (components.componentSize(component) > 1 || employeeGraph.hasChildRole(first, first)) {
+                cyclicComponent[component] = true;
+                cyclic[cyclicCount++] = component;
+            }
+        }
+        this.cyclicComponents = Arrays.copyOf(cyclic, cyclicCount);
+    }
+
+    // ✅ Analyse the graph's current role hierarchy
+    public static RoleCycleAnalysis analyze(EmployeeGraph graph) {
+        return new RoleCycleAnalysis(graph, graph.getPrivilegeClosure().getComponents());
+    }
+
+    // ✅ True if the role lies on at least one hierarchy cycle
+    public boolean isInCycle(int role) {
+        return role < components.nodeCount() && cyclicComponent[components.componentOf(role)];
+    }
+
+    // Number of independent cycle groups (non-trivial components) in the hierarchy
+    public int getCycleCount() {
+        return cyclicComponents.length;
+    }
+
+    // ✅ One concrete cycle for each group, starting and ending at the group's alphabetically first role
+    public int[] getCycle(int index) {
+        int component = cyclicComponents[index];
+        int start = components.member(component, 0);
+        for (int i = 1; i < components.componentSize(component); i++) {
+            int role = components.member(component, i);
+            if (employeeGraph.getRoleName(role).compareTo(employeeGraph.getRoleName(start)) < 0) {
+                start = role;
+            }
+        }
+        return getCycleThrough(start);
+    }
+
+    // ✅ Shortest cycle through the role (first element == last element), or null if it has none
+    public int[] getCycleThrough(int role) {
+        if (!isInCycle(role)) {
+            return null;
+        }
+        return cycleByRole.computeIfAbsent(role, this::shortestCycle).clone();
+    }
+
+    // ✅ Render a cycle as "Role A -> Role B -> Role A"
+    public String describe(int[] cycle) {
+        StringJoiner path = new StringJoiner(" -> ");
+        for (int role : cycle) {
+            path.add(employeeGraph.getRoleName(role));
+        }
+        return path.toString();
+    }
+
+    // Breadth-first search from the role back to itself, staying inside its component
+    private int[] shortestCycle(int start) {
+        int component = components.componentOf(start);
+        Map<Integer, Integer> parent = new HashMap<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            int role = queue.poll();
+            for (int child : employeeGraph.getChildRoleIds(role)) {
+                if (child == start) {
+                    return pathBack(parent, start, role);
+                }
+                if (child < components.nodeCount() && components.componentOf(child) == component
+                        && !parent.containsKey(child)) {
+                    parent.put(child, role);
+                    queue.add(child);
+                }
+            }
+        }
+        throw new IllegalStateException("No cycle through role " + employeeGraph.getRoleName(start));
+    }
+
+    private static int[] pathBack(Map<Integer, Integer> parent, int start, int last) {
+        List<Integer> reversed = new ArrayList<>();
+        reversed.add(start);
+        for (int role = last; role != start; role = parent.get(role)) {
+            reversed.add(role);
+        }
+        reversed.add(start);
+
+        int[] cycle = new int[reversed.size()];
+        for (int i = 0; i < cycle.length; i++) {
+            cycle[i] = reversed.get(cycle.length - 1 - i);
+        }
+        return cycle;
+    }
+}
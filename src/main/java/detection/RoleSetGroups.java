@@ -0,0 +1,88 @@
+package detection;
+
+import models.EmployeeGraph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Employees grouped by the set of roles they hold. Each employee's role ids are sorted into a
+// signature, and employees with equal signatures share a group, so a check that only depends on
+// the role set runs once per group instead of once per employee. Groups are numbered in the order
+// their first employee appears, and keep that employee's roles in the order they hold them.
+final class RoleSetGroups {
+    private final int[] groupOf;      // per position in the employee list
+    private final int[][] roleSets;   // per group: the role ids of its first employee
+
+    private RoleSetGroups(int[] groupOf, int[][] roleSets) {
+        this.groupOf = groupOf;
+        this.roleSets = roleSets;
+    }
+
+    // Every employee of the graph; positions are employee ids
+    static RoleSetGroups of(EmployeeGraph graph) {
+        int[] employees = new int[graph.getEmployeeCount()];
+        Arrays.setAll(employees, employee -> employee);
+        return of(graph, employees);
+    }
+
+    // The given employees; positions index into `employees`
+    static RoleSetGroups of(EmployeeGraph graph, int[] employees) {
+        Map<Signature, Integer> groups = new HashMap<>();
+        int[] groupOf = new int[employees.length];
+        int[][] roleSets = new int[16][];
+        for (int i = 0; i < employees.length; i++) {
+            int[] roles = graph.getRoleIds(employees[i]);
+            int[] sorted = roles.clone();
+            Arrays.sort(sorted);
+            Signature signature = new Signature(sorted);
+            Integer group = groups.get(signature);
+            if (group == null) {
+                group = groups.size();
+                groups.put(signature, group);
+                if (group == roleSets.length) {
+                    roleSets = Arrays.copyOf(roleSets, group * 2);
+                }
+                roleSets[group] = roles;
+            }
+            groupOf[i] = group;
+        }
+        return new RoleSetGroups(groupOf, Arrays.copyOf(roleSets, groups.size()));
+    }
+
+    int groupCount() {
+        return roleSets.length;
+    }
+
+    // Group of the employee at this position
+    int groupOf(int position) {
+        return groupOf[position];
+    }
+
+    // The role ids of the group's first employee, in their order; not to be modified
+    int[] roles(int group) {
+        return roleSets[group];
+    }
+
+    // Sorted role ids with their hash computed once; equal only when the ids are
+    private static final class Signature {
+        private final int[] roles;
+        private final int hash;
+
+        Signature(int[] roles) {
+            this.roles = roles;
+            this.hash = Arrays.hashCode(roles);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Signature && ((Signature) other).hash == hash
+                    && Arrays.equals(((Signature) other).roles, roles);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package detection;
+
+import models.EmployeeGraph;
+import models.ImmutableBitSet;
+import models.PrivilegeClosure;
+
+import java.util.Arrays;
+
+// Matches one employee against every compiled rule at once. The roles' closure bitsets are
+// OR-ed and masked down to the privileges any rule mentions; each remaining privilege's postings
+// mark (rule, leg) hits, and a rule fires once both of its legs are hit. The scratch arrays are
+// reused across employees, so an employee without a violation costs no allocation.
+// Not thread-safe: use one matcher per thread.
+public class RuleMatcher {
+    private static final int[] NO_RULES = new int[0];
+
+    private final EmployeeGraph employeeGraph;
+    private final CompiledRuleSet rules;
+    private final byte[] legHits;          // per rule: bit 0 = leg 1 hit, bit 1 = leg 2 hit
+    private int[] touched = new int[16];   // rules with any hit for the current employee
+    private int touchedCount;
+    private long[] held = new long[0];     // ruled privileges the current employee holds
+    private int usedWords;
+
+    public RuleMatcher(EmployeeGraph employeeGraph, CompiledRuleSet rules) {
+        this.employeeGraph = employeeGraph;
+        this.rules = rules;
+        this.legHits = new byte[rules.getRuleCount()];
+    }
+
+    // ✅ Rules whose two legs are both granted through the given roles, ascending
+    public int[] match(int[] roles) {
+        collectHeld(employeeGraph.getPrivilegeClosure(), roles);
+
+        touchedCount = 0;
+        for (int i = 0; i < usedWords; i++) {
+            long word = held[i];
+            while (word != 0) {
+                int privilege = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                for (int p = rules.postingStart(privilege); p < rules.postingEnd(privilege); p++) {
+                    int posting = rules.posting(p);
+                    int rule = posting >>> 1;
+                    if (legHits[rule] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = rule;
+                    }
+                    legHits[rule] |= (byte) (1 << (posting & 1));
+                }
+            }
+        }
+
+        int matched = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int rule = touched[i];
+            if (legHits[rule] == 3) {
+                touched[matched++] = rule;
+            }
+            legHits[rule] = 0;
+        }
+        if (matched == 0) {
+            return NO_RULES;
+        }
+        int[] result = Arrays.copyOf(touched, matched);
+        Arrays.sort(result);
+        return result;
+    }
+
+    // ✅ After match(): the first privilege granting the access point that the employee holds, or -1
+    public int heldPrivilege(int rule, int leg, int item) {
+        for (int privilege : rules.itemPrivileges(rule, leg, item)) {
+            if (holds(privilege)) {
+                return privilege;
+            }
+        }
+        return -1;
+    }
+
+    private boolean holds(int privilege) {
+        int word = privilege >>> 6;
+        return word < usedWords && (held[word] & (1L << privilege)) != 0;
+    }
+
+    private void collectHeld(PrivilegeClosure closure, int[] roles) {
+        Arrays.fill(held, 0, usedWords, 0L);
+        usedWords = 0;
+
+        int ruledWords = rules.ruledWordCount();
+        if (held.length < ruledWords) {
+            held = new long[ruledWords];
+        }
+        for (int role : roles) {
+            ImmutableBitSet privileges = closure.get(role);
+            int words = Math.min(privileges.wordCount(), ruledWords);
+            for (int i = 0; i < words; i++) {
+                held[i] |= privileges.word(i) & rules.ruledWord(i);
+            }
+            usedWords = Math.max(usedWords, words);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package detection;
+
+import utils.TableReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Named SoD rules, each with two legs of conflicting access points. A ruleset file (.xlsx, or an
+// RFC 4180 .csv/.tsv export, read like any other input) has one row per access point:
+//   RULE_NAME, LEG, ACCESS_POINT[, ACCESS_POINT_TYPE]
+// LEG is a label (e.g. "1"/"2" or "Create Supplier"/"Pay Supplier"); the first label seen for a
+// rule becomes leg 1 and the second leg 2. ACCESS_POINT is a privilege name (pvlgsMaster NAME)
+// unless ACCESS_POINT_TYPE is "entitlement". A RULE_NAME header row is skipped.
+public class SoDRuleSet {
+    public enum AccessPointType { PRIVILEGE, ENTITLEMENT }
+
+    // One side of a rule: holding any of its access points satisfies the leg
+    public static class Leg {
+        private final String label;
+        private final List<String> accessPoints = new ArrayList<>();
+        private final List<AccessPointType> types = new ArrayList<>();
+
+        Leg(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public List<String> getAccessPoints() {
+            return accessPoints;
+        }
+
+        public List<AccessPointType> getTypes() {
+            return types;
+        }
+    }
+
+    public static class Rule {
+        private final String name;
+        private final Leg[] legs = new Leg[2];
+
+        Rule(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // ✅ Leg 0 or 1
+        public Leg getLeg(int leg) {
+            return legs[leg];
+        }
+    }
+
+    private final List<Rule> rules;
+
+    private SoDRuleSet(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    // ✅ Read a ruleset file; throws IllegalArgumentException naming the row of a malformed entry
+    public static SoDRuleSet read(String path) throws IOException {
+        if (!Files.exists(Paths.get(path))) {
+            throw new IOException("Ruleset not found: " + path);
+        }
+        return of(TableReader.readRows(path), path);
+    }
+
+    // ✅ Build a ruleset from rows already in memory (source is only used in error messages)
+    public static SoDRuleSet of(List<String[]> rows, String source) {
+        Map<String, Rule> rulesByName = new LinkedHashMap<>();
+        for (int row = 0; row < rows.size(); row++) {
+            String[] entry = rows.get(row);
+            if (entry.length == 0 || (entry.length == 1 && entry[0].trim().isEmpty())
+                    || entry[0].trim().startsWith("#")
+                    || (row == 0 && entry[0].trim().equalsIgnoreCase("RULE_NAME"))) {
+                continue;
+            }
+            if (entry.length < 3) {
+                throw malformed(source, row, "expected RULE_NAME, LEG, ACCESS_POINT[, ACCESS_POINT_TYPE]");
+            }
+
+            String ruleName = entry[0].trim();
+            String legLabel = entry[1].trim();
+            String accessPoint = entry[2].trim();
+            if (ruleName.isEmpty() || legLabel.isEmpty() || accessPoint.isEmpty()) {
+                throw malformed(source, row, "empty rule name, leg or access point");
+            }
+
+            Rule rule = rulesByName.computeIfAbsent(ruleName, Rule::new);
+            Leg leg = legOf(rule, legLabel, source, row);
+            leg.accessPoints.add(accessPoint);
+            leg.types.add(entry.length > 3 ? parseType(entry[3].trim(), source, row) : AccessPointType.PRIVILEGE);
+        }
+
+        for (Rule rule : rulesByName.values()) {
+            if (rule.legs[1] == null) {
+                throw new IllegalArgumentException(source + ": rule '" + rule.name + "' has only one leg");
+            }
+        }
+        return new SoDRuleSet(new ArrayList<>(rulesByName.values()));
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    private static Leg legOf(Rule rule, String label, String source, int row) {
+        for (int i = 0; i < 2; i++) {
+            if (rule.legs[i] == null) {
+                rule.legs[i] = new Leg(label);
+                return rule.legs[i];
+            }
+            if (rule.legs[i].label.equals(label)) {
+                return rule.legs[i];
+            }
+        }
+        throw malformed(source, row, "rule '" + rule.name + "' has more than two legs");
+    }
+
+    private static AccessPointType parseType(String type, String source, int row) {
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "":
+            case "privilege":
+                return AccessPointType.PRIVILEGE;
+            case "entitlement":
+                return AccessPointType.ENTITLEMENT;
+            default:
+                throw malformed(source, row, "unknown access point type '" + type + "'");
+        }
+    }
+
+    private static IllegalArgumentException malformed(String source, int row, String problem) {
+        return new IllegalArgumentException(source + ":" + (row + 1) + ": " + problem);
+    }
+}
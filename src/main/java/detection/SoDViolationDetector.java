@@ -1,68 +1,476 @@
 package detection;
 
 import models.EmployeeGraph;
+import models.InheritancePaths;
+import models.PrivilegeClosure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.CountingViolationSink;
+import utils.DiagnosticCounter;
+import utils.RunMetrics;
+import utils.ViolationSink;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class SoDViolationDetector {
+    // What an overlap between two roles is measured in when no ruleset is given
+    public enum Granularity { PRIVILEGE, ENTITLEMENT }
+
+    private static final Logger log = LoggerFactory.getLogger(SoDViolationDetector.class);
+    // Smallest employee range worth running as its own detection shard
+    private static final int MIN_SHARD_EMPLOYEES = 64;
+    // Largest shard, which bounds how many rows one buffered shard can hold
+    private static final int MAX_SHARD_EMPLOYEES = 4096;
+    // Shards queued or running per worker before the sink has to catch up
+    private static final int SHARDS_IN_FLIGHT_PER_WORKER = 4;
+
+    // Report rows follow OutputGenerator.REPORT_HEADERS
+    public static final String RULE_VIOLATION = "SoD Rule Violation";
+    public static final String CYCLE_DETECTED = "Cycle Detected";
+    public static final String PRIVILEGE_CONFLICT = "Privilege Conflict";
+    public static final String ENTITLEMENT_CONFLICT = "Entitlement Conflict";
+    private static final int REPORT_USER_COLUMN = 1;
+    private static final int REPORT_TYPE_COLUMN = 9;
+    private static final int REPORT_COLUMNS = 14;
+
     private final EmployeeGraph employeeGraph;
+    private final Granularity granularity;
+    private final OverlapChecker overlapChecker;
+    // Null without a ruleset: any privilege (or entitlement) reached through two roles is then a conflict
+    private final CompiledRuleSet rules;
+    private final RuleMatcher ruleMatcher;
+    // Per-thread state for checkRoles() and checkGrant(), which serve concurrent single-employee queries
+    private final ThreadLocal<OverlapChecker> queryCheckers = ThreadLocal.withInitial(this::newOverlapChecker);
+    private final ThreadLocal<RuleMatcher> queryMatchers;
+    private volatile RoleCycleAnalysis queryCycles;
 
     public SoDViolationDetector(EmployeeGraph graph) {
+        this(graph, Granularity.PRIVILEGE);
+    }
+
+    // ✅ Flag overlaps at the given granularity; ENTITLEMENT compares the roles' entitlement
+    // sets (privilege closure → privilege-entitlement mapping) instead of their privileges
+    public SoDViolationDetector(EmployeeGraph graph, Granularity granularity) {
+        this(graph, null, granularity);
+    }
+
+    // ✅ Detect violations of the given rules instead of plain privilege overlaps
+    public SoDViolationDetector(EmployeeGraph graph, CompiledRuleSet rules) {
+        this(graph, rules, Granularity.PRIVILEGE);
+    }
+
+    private SoDViolationDetector(EmployeeGraph graph, CompiledRuleSet rules, Granularity granularity) {
         this.employeeGraph = graph;
+        this.granularity = granularity;
+        this.overlapChecker = newOverlapChecker();
+        this.rules = rules;
+        this.ruleMatcher = rules != null ? new RuleMatcher(graph, rules) : null;
+        this.queryMatchers = ThreadLocal.withInitial(() -> rules != null ? new RuleMatcher(graph, rules) : null);
+    }
+
+    // ✅ Report column holding the employee name
+    public int getUserColumn() {
+        return REPORT_USER_COLUMN;
     }
 
     // In SoDViolationDetector.java
     public List<String[]> detectConflicts() {
         List<String[]> violations = new ArrayList<>();
-        Set<String> visitedRoles = new HashSet<>();
+        detectConflicts(violations::add);
+        return violations;
+    }
+
+    // ✅ Same report as detectConflicts(), with employees split into shards over the pool
+    public List<String[]> detectConflicts(ForkJoinPool pool) {
+        List<String[]> violations = new ArrayList<>();
+        detectConflicts(pool, violations::add);
+        return violations;
+    }
 
-        System.out.println("Starting conflict detection...");
-        System.out.println("Total employees: " + employeeGraph.getAllEmployees().size());
+    // ✅ Push each violation to the sink as soon as it is found; returns how many there were.
+    // The sink is not closed here.
+    public long detectConflicts(ViolationSink sink) {
+        return detectConflicts(sink, RunMetrics.DISABLED);
+    }
+
+    private long detectConflicts(ViolationSink sink, RunMetrics metrics) {
+        log.info("Starting conflict detection...");
+        log.info("Total employees: " + employeeGraph.getEmployeeCount());
+        
+        // Check for cycles in the entire graph (one SCC pass, reused for every employee)
+        RoleCycleAnalysis cycles = checkForCyclesInGraph(metrics);
+        RoleSetChecks checks = groupRoleSets(metrics);
         
-        // Check for cycles in the entire graph
-        checkForCyclesInGraph();
+        try (RunMetrics.Phase phase = metrics.start("detection")) {
+            CountingViolationSink counted = countTypes(sink);
+            DiagnosticCounter skipped = skippedEmployees();
+            detectRange(0, employeeGraph.getEmployeeCount(), checks, overlapChecker, ruleMatcher, cycles, counted, skipped);
         
-        for (String employee : employeeGraph.getAllEmployees()) {
-            List<String> roles = employeeGraph.getRoles(employee);
-            System.out.println("Checking employee: " + employee + " with roles: " + roles);
+            reportTotals(counted, skipped);
+            countTotals(phase, counted, skipped);
+            return counted.getCount();
+        }
+    }
+
+    // ✅ Streaming variant of detectConflicts(pool). Shards are checked on the pool into their own
+    // buffers and handed to the sink in employee order on the calling thread. At most a few shards
+    // per worker are in flight, so a slow sink holds back detection instead of letting rows pile up.
+    public long detectConflicts(ForkJoinPool pool, ViolationSink sink) {
+        return detectConflicts(pool, sink, RunMetrics.DISABLED);
+    }
+
+    // ✅ Same, timing the cycle check and the detection (including the sink's work) as run phases
+    public long detectConflicts(ForkJoinPool pool, ViolationSink sink, RunMetrics metrics) {
+        if (pool.getParallelism() <= 1) {
+            return detectConflicts(sink, metrics);
+        }
+
+        log.info("Starting conflict detection...");
+        log.info("Total employees: " + employeeGraph.getEmployeeCount() +
+                 ", parallelism: " + pool.getParallelism());
+
+        RoleCycleAnalysis cycles = checkForCyclesInGraph(metrics);
+        RoleSetChecks checks = groupRoleSets(metrics);
+        try (RunMetrics.Phase phase = metrics.startParallel("detection")) {
+            return detectSharded(pool, sink, checks, cycles, phase);
+        }
+    }
 
-            if (roles.size() < 2) {
-                System.out.println("Employee " + employee + " has less than 2 roles, skipping conflict check");
-                continue;  // No conflict possible with less than 2 roles
+    private long detectSharded(ForkJoinPool pool, ViolationSink sink, RoleSetChecks checks, RoleCycleAnalysis cycles,
+                               RunMetrics.Phase phase) {
+        int employeeCount = employeeGraph.getEmployeeCount();
+        // Several shards per worker so fast shards can even out employees with many roles,
+        // but small enough that the buffered shards stay a small part of the report
+        int shardSize = Math.max(MIN_SHARD_EMPLOYEES,
+                                 Math.min(MAX_SHARD_EMPLOYEES, employeeCount / (pool.getParallelism() * 8)));
+        int maxInFlight = pool.getParallelism() * SHARDS_IN_FLIGHT_PER_WORKER;
+
+        CountingViolationSink counted = countTypes(sink);
+        DiagnosticCounter skipped = skippedEmployees();
+        // One checker per worker thread, reused across that worker's shards
+        ThreadLocal<OverlapChecker> checkers = ThreadLocal.withInitial(this::newOverlapChecker);
+        ThreadLocal<RuleMatcher> matchers =
+                ThreadLocal.withInitial(() -> rules != null ? new RuleMatcher(employeeGraph, rules) : null);
+        ArrayDeque<ForkJoinTask<List<String[]>>> inFlight = new ArrayDeque<>(maxInFlight);
+
+        int nextShard = 0;
+        while (nextShard < employeeCount || !inFlight.isEmpty()) {
+            while (nextShard < employeeCount && inFlight.size() < maxInFlight) {
+                int from = nextShard;
+                int to = Math.min(employeeCount, from + shardSize);
+                inFlight.add(pool.submit(() -> {
+                    List<String[]> buffer = new ArrayList<>();
+                    detectRange(from, to, checks, checkers.get(), matchers.get(), cycles, buffer::add, skipped);
+                    return buffer;
+                }));
+                nextShard = to;
+            }
+            // Oldest shard first keeps the report in employee order
+            for (String[] violation : inFlight.poll().join()) {
+                counted.accept(violation);
             }
+        }
 
-            // 🔹 Ensure unique roles
-            Set<String> uniqueRoles = new HashSet<>(roles);
-            System.out.println("Unique roles: " + uniqueRoles);
+        reportTotals(counted, skipped);
+        countTotals(phase, counted, skipped);
+        return counted.getCount();
+    }
 
-            // 🔹 Conflict: Employee has multiple different roles with overlapping privileges
-            boolean hasConflict = hasPrivilegeConflict(uniqueRoles);
-            System.out.println("Has privilege conflict: " + hasConflict);
-            
-            if (hasConflict) {
-                // Add as a String[] instead of a String
-                violations.add(new String[]{
-                    employee, 
-                    "Privilege Conflict", 
-                    String.join(",", uniqueRoles)
-                });
-            }
-
-            // 🔹 Cycle Detection in Role Hierarchy (DFS on roles)
-            for (String role : uniqueRoles) {
-                if (detectRoleCycles(role, new HashSet<>(), visitedRoles)) {
-                    // Add as a String[] instead of a String
-                    violations.add(new String[]{
-                        employee,
-                        "Cycle Detected",
-                        role
-                    });
+    // ✅ Re-check only the given employees, in ascending id order (e.g. the ones an incremental
+    // change can affect); everyone else is assumed to keep their previous violations
+    public long detectConflicts(int[] employeeIds, ViolationSink sink) {
+        log.info("Re-checking " + employeeIds.length + " of " + employeeGraph.getEmployeeCount() + " employees...");
+        RoleCycleAnalysis cycles = checkForCyclesInGraph(RunMetrics.DISABLED);
+        RoleSetChecks checks = new RoleSetChecks(RoleSetGroups.of(employeeGraph, employeeIds));
+
+        CountingViolationSink counted = countTypes(sink);
+        DiagnosticCounter skipped = skippedEmployees();
+        for (int i = 0; i < employeeIds.length; i++) {
+            detectEmployee(employeeIds[i], i, checks, overlapChecker, ruleMatcher, cycles, counted, skipped);
+        }
+
+        reportTotals(counted, skipped);
+        return counted.getCount();
+    }
+
+    // ✅ Violations of one employee holding exactly the given roles: their current roles, or a what-if
+    // set such as those plus a proposed grant. Same checks and row layout as detectConflicts, with
+    // the role hierarchy cycles found on first use; safe to call from many threads at once.
+    public List<String[]> checkRoles(String employeeName, int[] roleIds) {
+        int[] roles = Arrays.stream(roleIds).distinct().toArray();
+        List<String[]> violations = new ArrayList<>();
+        checkRoles(employeeName, roles, queryCheckers.get(), queryMatchers.get(), queryCycles(), violations::add);
+        return violations;
+    }
+
+    // Hierarchy cycles for checkRoles/checkGrant, found once on first use
+    private RoleCycleAnalysis queryCycles() {
+        RoleCycleAnalysis cycles = queryCycles;
+        if (cycles == null) {
+            cycles = RoleCycleAnalysis.analyze(employeeGraph);
+            queryCycles = cycles;
+        }
+        return cycles;
+    }
+
+    // Checks employees [from, to) in id order, passing their violations to the sink
+    private void detectRange(int from, int to, RoleSetChecks checks, OverlapChecker checker, RuleMatcher matcher,
+                             RoleCycleAnalysis cycles, ViolationSink violations, DiagnosticCounter skipped) {
+        for (int employee = from; employee < to; employee++) {
+            detectEmployee(employee, employee, checks, checker, matcher, cycles, violations, skipped);
+        }
+    }
+
+    // Reports one employee from the check of their role set; `position` is theirs in the grouping
+    private void detectEmployee(int employee, int position, RoleSetChecks checks, OverlapChecker checker,
+                                RuleMatcher matcher, RoleCycleAnalysis cycles, ViolationSink violations,
+                                DiagnosticCounter skipped) {
+        // Role ids are already unique per employee
+        int[] roles = employeeGraph.getRoleIds(employee);
+        String employeeName = employeeGraph.getEmployeeName(employee);
+        if (!hasEnoughRoles(employeeName, roles, matcher)) {
+            skipped.record(employee, employeeName);
+            return;
+        }
+        RoleSetCheck check = checks.get(checks.groups.groupOf(position), checker, matcher, cycles);
+        report(employeeName, roles, check, cycles, violations);
+    }
+
+    // Checks one set of unique role ids held by the named employee; false if there were too few roles to check
+    private boolean checkRoles(String employeeName, int[] roles, OverlapChecker checker, RuleMatcher matcher,
+                               RoleCycleAnalysis cycles, ViolationSink violations) {
+        if (!hasEnoughRoles(employeeName, roles, matcher)) {
+            return false;
+        }
+        report(employeeName, roles, checkRoleSet(roles, checker, matcher, cycles), cycles, violations);
+        return true;
+    }
+
+    private boolean hasEnoughRoles(String employeeName, int[] roles, RuleMatcher matcher) {
+        if (log.isTraceEnabled()) {
+            log.trace("Checking employee: " + employeeName + " with roles: " + roleNames(roles));
+        }
+
+        // A single role can grant both legs of a rule, but can never overlap with itself
+        int minimumRoles = matcher != null ? 1 : 2;
+        if (roles.length < minimumRoles) {
+            log.trace("Employee {} has less than {} roles, skipping conflict check", employeeName, minimumRoles);
+            return false;  // No conflict possible with less than 2 roles
+        }
+        return true;
+    }
+
+    // Everything about the roles that does not depend on who holds them or in which order
+    private RoleSetCheck checkRoleSet(int[] roles, OverlapChecker checker, RuleMatcher matcher, RoleCycleAnalysis cycles) {
+        boolean onCycle = false;
+        for (int role : roles) {
+            onCycle |= cycles.isInCycle(role);
+        }
+        if (matcher != null) {
+            int[] violated = matcher.match(roles);
+            int[][][] held = new int[violated.length][][];
+            for (int i = 0; i < violated.length; i++) {
+                held[i] = heldPrivileges(violated[i], matcher);
+            }
+            return new RoleSetCheck(roles, null, violated, held, onCycle);
+        }
+        return new RoleSetCheck(roles, checker.findConflict(roles), null, null, onCycle);
+    }
+
+    // The employee's rows, built from the check of their role set in the order they hold the roles
+    private void report(String employeeName, int[] roles, RoleSetCheck check, RoleCycleAnalysis cycles,
+                        ViolationSink violations) {
+        if (check.rules != null) {
+            // 🔹 Rule violations: both legs of a rule granted through the employee's roles
+            for (int i = 0; i < check.rules.length; i++) {
+                log.debug("Rule {} violated by {}", rules.getRuleName(check.rules[i]), employeeName);
+                violations.accept(ruleViolationRow(employeeName, roles, check.rules[i], check.heldPrivileges[i]));
+            }
+        } else {
+            // 🔹 Conflict: Employee has multiple different roles with overlapping privileges (or entitlements)
+            log.trace("Has {} conflict: {}", granularity, check.conflict != null);
+
+            if (check.conflict != null) {
+                PrivilegeConflict conflict = check.conflictFor(roles);
+                log.debug("Conflict detected for {}: {} {} are assigned via multiple roles across {} role pairs",
+                          employeeName, conflict.getOverlappingPrivileges().length,
+                          granularity == Granularity.ENTITLEMENT ? "entitlements" : "privileges",
+                          conflict.getRolePairCount());
+                violations.accept(conflictRow(employeeName, roles, conflict));
+            }
+        }
+
+        // 🔹 Cycle Detection in Role Hierarchy (role lies in a non-trivial SCC)
+        if (check.onCycle) {
+            for (int role : roles) {
+                if (cycles.isInCycle(role)) {
+                    violations.accept(cycleRow(employeeName, role, cycles));
                 }
             }
         }
-    
-        System.out.println("Detected " + violations.size() + " violations");
+    }
+
+    // ✅ Violations that granting `grantedRoles` to an employee holding `currentRoles` would add:
+    // rules only the new role set violates, the privileges (or entitlements) a granted role shares
+    // with another of the roles together with those role pairs, and granted roles on a hierarchy
+    // cycle. Rows use the report layout; an empty list means the grant is safe. Roles the employee
+    // already holds are ignored. Only the grant's overlaps are computed, so the cost does not grow
+    // with conflicts the employee already has. Safe to call from many threads at once.
+    public List<String[]> checkGrant(String employeeName, int[] currentRoles, int[] grantedRoles) {
+        int[] current = Arrays.stream(currentRoles).distinct().toArray();
+        int[] granted = Arrays.stream(grantedRoles)
+                              .filter(role -> Arrays.stream(current).noneMatch(held -> held == role))
+                              .distinct().toArray();
+        List<String[]> violations = new ArrayList<>();
+        RuleMatcher matcher = queryMatchers.get();
+        int[] roles = Arrays.copyOf(current, current.length + granted.length);
+        System.arraycopy(granted, 0, roles, current.length, granted.length);
+        if (granted.length == 0 || roles.length < (matcher != null ? 1 : 2)) {
+            return violations;
+        }
+
+        if (matcher != null) {
+            int[] before = matcher.match(current);
+            for (int rule : matcher.match(roles)) {
+                if (Arrays.binarySearch(before, rule) < 0) {
+                    violations.add(ruleViolationRow(employeeName, roles, rule, heldPrivileges(rule, matcher)));
+                }
+            }
+        } else {
+            PrivilegeConflict conflict = queryCheckers.get().findConflict(roles, current.length);
+            if (conflict != null) {
+                violations.add(conflictRow(employeeName, roles, conflict));
+            }
+        }
+
+        RoleCycleAnalysis cycles = queryCycles();
+        for (int role : granted) {
+            if (cycles.isInCycle(role)) {
+                violations.add(cycleRow(employeeName, role, cycles));
+            }
+        }
         return violations;
     }
+
+    // Roles, overlapping privileges (or entitlements) and overlapping role pairs of one employee:
+    // the roles under Role(Leg_1), the overlaps under Access_Point(Leg_1) and the role pairs sharing
+    // them under Conflicting_Role(Leg_2)
+    private String[] conflictRow(String employeeName, int[] roles, PrivilegeConflict conflict) {
+        boolean entitlements = granularity == Granularity.ENTITLEMENT;
+        int[] overlapping = conflict.getOverlappingPrivileges();
+        String[] row = emptyReportRow(entitlements ? "Entitlement Overlap" : "Privilege Overlap", employeeName,
+                                      entitlements ? ENTITLEMENT_CONFLICT : PRIVILEGE_CONFLICT);
+        row[3] = String.join(",", roleNames(roles));
+        row[4] = String.join(",", entitlements ? entitlementNames(overlapping) : privilegeNames(overlapping));
+        row[6] = String.join(",", rolePairNames(conflict));
+        return row;
+    }
+
+    // The role on a cycle under Role(Leg_1) and the cycle under Incident_Path(Leg_1)
+    private String[] cycleRow(String employeeName, int role, RoleCycleAnalysis cycles) {
+        String[] row = emptyReportRow("Role Hierarchy Cycle", employeeName, CYCLE_DETECTED);
+        row[3] = employeeGraph.getRoleName(role);
+        row[5] = cycles.describe(cycles.getCycleThrough(role));
+        return row;
+    }
+
+    // After matcher.match(): per leg of the rule, the privilege through which each access point is held, or -1
+    private int[][] heldPrivileges(int rule, RuleMatcher matcher) {
+        int[][] held = new int[2][];
+        for (int leg = 0; leg < 2; leg++) {
+            held[leg] = new int[rules.getItemCount(rule, leg)];
+            for (int item = 0; item < held[leg].length; item++) {
+                held[leg][item] = matcher.heldPrivilege(rule, leg, item);
+            }
+        }
+        return held;
+    }
+
+    // One report row for a violated rule: per leg, the access points the employee holds, the
+    // employee's roles granting them, and the shortest inheritance path to the first of them
+    private String[] ruleViolationRow(String employeeName, int[] roles, int rule, int[][] heldPrivileges) {
+        String[] row = emptyReportRow(rules.getRuleName(rule), employeeName, RULE_VIOLATION);
+        row[2] = rules.getLegLabel(rule, 0) + " / " + rules.getLegLabel(rule, 1);
+        PrivilegeClosure closure = employeeGraph.getPrivilegeClosure();
+        InheritancePaths paths = employeeGraph.getInheritancePaths();
+        for (int leg = 0; leg < 2; leg++) {
+            List<String> accessPoints = new ArrayList<>();
+            List<String> grantingRoles = new ArrayList<>();
+            String incidentPath = "";
+            for (int item = 0; item < rules.getItemCount(rule, leg); item++) {
+                int privilege = heldPrivileges[leg][item];
+                if (privilege < 0) {
+                    continue;
+                }
+                String accessPoint = rules.getItemName(rule, leg, item);
+                accessPoints.add(accessPoint);
+                int[] shortest = null;
+                for (int role : roles) {
+                    if (closure.get(role).get(privilege)) {
+                        String roleName = employeeGraph.getRoleName(role);
+                        if (!grantingRoles.contains(roleName)) {
+                            grantingRoles.add(roleName);
+                        }
+                        if (incidentPath.isEmpty()) {
+                            int[] chain = paths.chain(role, privilege);
+                            if (chain != null && (shortest == null || chain.length < shortest.length)) {
+                                shortest = chain;
+                            }
+                        }
+                    }
+                }
+                if (shortest != null) {
+                    incidentPath = incidentPath(employeeName, shortest, privilege, accessPoint);
+                }
+            }
+            // Leg 1 fills Role/Access_Point/Incident_Path(Leg_1), leg 2 the Conflicting_* columns
+            int column = leg == 0 ? 3 : 6;
+            row[column] = String.join(",", grantingRoles);
+            row[column + 1] = String.join(",", accessPoints);
+            row[column + 2] = incidentPath;
+        }
+        return row;
+    }
+
+    // "User -> Role A -> Child Role B -> Privilege X", ending in the entitlement when the access point is one
+    private String incidentPath(String employeeName, int[] chain, int privilege, String accessPoint) {
+        StringBuilder path = new StringBuilder(employeeName);
+        for (int role : chain) {
+            path.append(" -> ").append(employeeGraph.getRoleName(role));
+        }
+        String privilegeName = employeeGraph.getPrivilegeName(privilege);
+        path.append(" -> ").append(privilegeName);
+        if (!privilegeName.equals(accessPoint)) {
+            path.append(" -> ").append(accessPoint);
+        }
+        return path.toString();
+    }
+
+    private static String[] emptyReportRow(String ruleName, String employeeName, String type) {
+        String[] row = new String[REPORT_COLUMNS];
+        Arrays.fill(row, "");
+        row[0] = ruleName;
+        row[REPORT_USER_COLUMN] = employeeName;
+        row[REPORT_TYPE_COLUMN] = type;
+        return row;
+    }
+
+    private OverlapChecker newOverlapChecker() {
+        return granularity == Granularity.ENTITLEMENT ? new EntitlementOverlapChecker(employeeGraph)
+                                                      : new PrivilegeOverlapChecker(employeeGraph);
+    }
+
+    private CountingViolationSink countTypes(ViolationSink sink) {
+        return new CountingViolationSink(sink, REPORT_TYPE_COLUMN);
+    }
+
+    private DiagnosticCounter skippedEmployees() {
+        return new DiagnosticCounter(rules != null ? "employees without roles skipped"
+                                                   : "employees with fewer than 2 roles skipped");
+    }
+
     // private void printGraphState() {
     //     System.out.println("\n--- Graph State ---");
     //     System.out.println("Employees: " + employeeGraph.getAllEmployees().size());
@@ -80,77 +488,153 @@ public class SoDViolationDetector {
     //     System.out.println("--- End Graph State ---\n");
     // }
 
-    private boolean detectRoleCycles(String role, Set<String> currentPath, Set<String> visitedRoles) {
-        // If we've already visited this role and didn't find a cycle, no need to check again
-        if (visitedRoles.contains(role) && !currentPath.contains(role)) {
-            return false;
+    private RoleCycleAnalysis checkForCyclesInGraph(RunMetrics metrics) {
+        log.info("Checking for cycles in the entire role hierarchy...");
+        RoleCycleAnalysis cycles;
+        try (RunMetrics.Phase phase = metrics.start("role cycles")) {
+            cycles = RoleCycleAnalysis.analyze(employeeGraph);
+            phase.count("cycles", cycles.getCycleCount());
         }
         
-        // If we encounter the role again in our current path, we've found a cycle
-        if (currentPath.contains(role)) {
-            return true;
+        DiagnosticCounter cycleGroups = new DiagnosticCounter("role hierarchy cycles");
+        for (int i = 0; i < cycles.getCycleCount(); i++) {
+            String cycle = cycles.describe(cycles.getCycle(i));
+            log.debug("WARNING: Cycle detected: {}", cycle);
+            cycleGroups.record(i, cycle);
         }
-        
-        // Add the role to our current path and visited set
-        currentPath.add(role);
-        visitedRoles.add(role);
-        
-        // Check all child roles
-        List<String> childRoles = employeeGraph.getChildRoles(role);
-        for (String childRole : childRoles) {
-            if (detectRoleCycles(childRole, currentPath, visitedRoles)) {
-                return true;
-            }
+        cycleGroups.report(log);
+        return cycles;
+    }
+
+    // Employees holding the same set of roles are checked once for all of them
+    private RoleSetChecks groupRoleSets(RunMetrics metrics) {
+        RoleSetGroups groups;
+        try (RunMetrics.Phase phase = metrics.start("role sets")) {
+            groups = RoleSetGroups.of(employeeGraph);
+            phase.count("employees", employeeGraph.getEmployeeCount())
+                 .count("roleSets", groups.groupCount());
         }
-        
-        // Remove the role from our current path as we backtrack
-        currentPath.remove(role);
-        return false;
+        log.info("Employees hold " + groups.groupCount() + " distinct role sets");
+        return new RoleSetChecks(groups);
     }
 
-    private boolean hasPrivilegeConflict(Set<String> roles) {
-        // Create a map to track which roles have which privileges
-        Map<String, Set<String>> privilegeToRoles = new HashMap<>();
-        
-        // For each role, collect its privileges
-        for (String role : roles) {
-            // Get all privileges for this role (direct and inherited)
-            Set<String> privileges = employeeGraph.getRolePrivileges(role);
-            System.out.println("Role " + role + " has privileges: " + privileges);
-            
-            // Record which roles have which privileges
-            for (String privilege : privileges) {
-                privilegeToRoles.putIfAbsent(privilege, new HashSet<>());
-                privilegeToRoles.get(privilege).add(role);
-            }
+    private void countTotals(RunMetrics.Phase phase, CountingViolationSink violations, DiagnosticCounter skipped) {
+        phase.count("employees", employeeGraph.getEmployeeCount())
+             .count("skippedEmployees", skipped.getCount())
+             .count("violations", violations.getCount());
+    }
+
+    private void reportTotals(CountingViolationSink violations, DiagnosticCounter skipped) {
+        skipped.report(log);
+        if (rules != null) {
+            log.info("Detected " + violations.getCount() + " violations (" +
+                     violations.getCount(RULE_VIOLATION) + " rule violations across " + rules.getRuleCount() + " rules)");
+        } else if (granularity == Granularity.ENTITLEMENT) {
+            log.info("Detected " + violations.getCount() + " violations (" +
+                     violations.getCount(ENTITLEMENT_CONFLICT) + " employees with entitlement conflicts)");
+        } else {
+            log.info("Detected " + violations.getCount() + " violations (" +
+                     violations.getCount(PRIVILEGE_CONFLICT) + " employees with privilege conflicts)");
         }
-        
-        // Check if any privilege is assigned via multiple roles
-        for (Map.Entry<String, Set<String>> entry : privilegeToRoles.entrySet()) {
-            if (entry.getValue().size() > 1) {
-                System.out.println("Conflict detected: Privilege " + entry.getKey() + 
-                                  " is assigned via multiple roles: " + entry.getValue());
-                return true;
+    }
+
+    private List<String> roleNames(int[] roles) {
+        List<String> names = new ArrayList<>(roles.length);
+        for (int role : roles) {
+            names.add(employeeGraph.getRoleName(role));
+        }
+        return names;
+    }
+
+    private List<String> privilegeNames(int[] privileges) {
+        List<String> names = new ArrayList<>(privileges.length);
+        for (int privilege : privileges) {
+            names.add(employeeGraph.getPrivilegeName(privilege));
+        }
+        return names;
+    }
+
+    private List<String> entitlementNames(int[] entitlements) {
+        List<String> names = new ArrayList<>(entitlements.length);
+        for (int entitlement : entitlements) {
+            names.add(employeeGraph.getEntitlementName(entitlement));
+        }
+        return names;
+    }
+
+    private List<String> rolePairNames(PrivilegeConflict conflict) {
+        List<String> names = new ArrayList<>(conflict.getRolePairCount());
+        for (int pair = 0; pair < conflict.getRolePairCount(); pair++) {
+            names.add(employeeGraph.getRoleName(conflict.getFirstRole(pair)) + "<->" +
+                      employeeGraph.getRoleName(conflict.getSecondRole(pair)));
+        }
+        return names;
+    }
+
+    // The check of each group's role set, run by whichever thread first meets one of its employees.
+    // Two threads may race to check the same set; both get the same result and the first one is kept.
+    private final class RoleSetChecks {
+        private final RoleSetGroups groups;
+        private final AtomicReferenceArray<RoleSetCheck> checks;
+
+        RoleSetChecks(RoleSetGroups groups) {
+            this.groups = groups;
+            this.checks = new AtomicReferenceArray<>(groups.groupCount());
+        }
+
+        RoleSetCheck get(int group, OverlapChecker checker, RuleMatcher matcher, RoleCycleAnalysis cycles) {
+            RoleSetCheck check = checks.get(group);
+            if (check == null) {
+                check = checkRoleSet(groups.roles(group), checker, matcher, cycles);
+                if (!checks.compareAndSet(group, null, check)) {
+                    check = checks.get(group);
+                }
             }
+            return check;
         }
-        
-        return false;
     }
-    private void checkForCyclesInGraph() {
-        System.out.println("Checking for cycles in the entire role hierarchy...");
-        Set<String> allRoles = new HashSet<>();
-        
-        // Collect all roles from the graph
-        for (String employee : employeeGraph.getAllEmployees()) {
-            allRoles.addAll(employeeGraph.getRoles(employee));
+
+    // What one set of roles violates, found with the roles in the order given as `roles`
+    private static final class RoleSetCheck {
+        private final int[] roles;
+        private final PrivilegeConflict conflict;  // overlap checks; null when there is none
+        private final int[] rules;                 // rule checks: the violated rules, ascending
+        private final int[][][] heldPrivileges;    // per violated rule, see heldPrivileges()
+        private final boolean onCycle;             // some role lies on a hierarchy cycle
+
+        RoleSetCheck(int[] roles, PrivilegeConflict conflict, int[] rules, int[][][] heldPrivileges, boolean onCycle) {
+            this.roles = roles;
+            this.conflict = conflict;
+            this.rules = rules;
+            this.heldPrivileges = heldPrivileges;
+            this.onCycle = onCycle;
         }
-        
-        // Check each role for cycles
-        Set<String> visitedRoles = new HashSet<>();
-        for (String role : allRoles) {
-            if (detectRoleCycles(role, new HashSet<>(), visitedRoles)) {
-                System.out.println("WARNING: Cycle detected starting from role: " + role);
+
+        // The conflict as findConflict reports it for the same roles in another order: the
+        // overlaps are the same, the role pairs are listed by their positions in `ordered`
+        PrivilegeConflict conflictFor(int[] ordered) {
+            if (Arrays.equals(ordered, roles)) {
+                return conflict;
+            }
+            int[] sorted = ordered.clone();
+            Arrays.sort(sorted);
+            int[] position = new int[sorted.length];
+            for (int i = 0; i < ordered.length; i++) {
+                position[Arrays.binarySearch(sorted, ordered[i])] = i;
+            }
+            long[] pairPositions = new long[conflict.getRolePairCount()];
+            for (int pair = 0; pair < pairPositions.length; pair++) {
+                int a = position[Arrays.binarySearch(sorted, conflict.getFirstRole(pair))];
+                int b = position[Arrays.binarySearch(sorted, conflict.getSecondRole(pair))];
+                pairPositions[pair] = (long) Math.min(a, b) << 32 | Math.max(a, b);
+            }
+            Arrays.sort(pairPositions);
+            int[] pairs = new int[pairPositions.length * 2];
+            for (int pair = 0; pair < pairPositions.length; pair++) {
+                pairs[pair * 2] = ordered[(int) (pairPositions[pair] >>> 32)];
+                pairs[pair * 2 + 1] = ordered[(int) pairPositions[pair]];
             }
+            return new PrivilegeConflict(conflict.getOverlappingPrivileges(), pairs);
         }
     }
 }
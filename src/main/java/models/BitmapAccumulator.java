@@ -0,0 +1,157 @@
+package models;
+
+import java.util.Arrays;
+
+// Mutable, reusable scratch for building and combining CompressedBitmaps. Values are set in
+// dense 1024-word blocks, one per 16-bit key, allocated on first use and kept for the next
+// round; clear() only zeroes the blocks that were touched, so a sparse round stays cheap
+// however large the id space is. Not thread-safe.
+public final class BitmapAccumulator {
+    private long[][] blocks = new long[1][];
+    private boolean[] isTouched = new boolean[1];
+    private int[] touched = new int[16];
+    private int touchedCount;
+
+    // ✅ Add one value
+    public void add(int value) {
+        long[] block = block(value >>> 16);
+        block[(value & 0xFFFF) >>> 6] |= 1L << value;
+    }
+
+    // ✅ Add every value of the bitmap
+    public void or(CompressedBitmap bitmap) {
+        for (int c = 0; c < bitmap.containerCount(); c++) {
+            bitmap.orInto(c, block(bitmap.key(c)));
+        }
+    }
+
+    // ✅ Add every value of the bitmap; values already present are also added to `overlap`.
+    // Returns true if there were any. An array container costs one step per value, only a
+    // bitmap container is merged word by word across its whole block.
+    public boolean orTrackingOverlap(CompressedBitmap bitmap, BitmapAccumulator overlap) {
+        boolean any = false;
+        for (int c = 0; c < bitmap.containerCount(); c++) {
+            int key = bitmap.key(c);
+            long[] block = block(key);
+            long[] overlapBlock = null;
+            char[] lows = bitmap.arrayValues(c);
+            if (lows != null) {
+                for (char low : lows) {
+                    int w = low >>> 6;
+                    long bit = 1L << low;
+                    if ((block[w] & bit) != 0) {
+                        if (overlapBlock == null) {
+                            overlapBlock = overlap.block(key);
+                        }
+                        overlapBlock[w] |= bit;
+                        any = true;
+                    } else {
+                        block[w] |= bit;
+                    }
+                }
+                continue;
+            }
+            long[] words = bitmap.bitmapWords(c);
+            for (int w = 0; w < CompressedBitmap.BLOCK_WORDS; w++) {
+                long both = block[w] & words[w];
+                if (both != 0) {
+                    if (overlapBlock == null) {
+                        overlapBlock = overlap.block(key);
+                    }
+                    overlapBlock[w] |= both;
+                    any = true;
+                }
+                block[w] |= words[w];
+            }
+        }
+        return any;
+    }
+
+    public boolean isEmpty() {
+        for (int i = 0; i < touchedCount; i++) {
+            for (long word : blocks[touched[i]]) {
+                if (word != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // ✅ Snapshot of the current values as a compressed bitmap
+    public CompressedBitmap toBitmap() {
+        int[] keys = Arrays.copyOf(touched, touchedCount);
+        Arrays.sort(keys);
+        int[] keptKeys = new int[keys.length];
+        char[][] arrays = new char[keys.length][];
+        long[][] bitmaps = new long[keys.length][];
+        int kept = 0;
+        for (int key : keys) {
+            long[] block = blocks[key];
+            int count = 0;
+            for (long word : block) {
+                count += Long.bitCount(word);
+            }
+            if (count == 0) {
+                continue;
+            }
+            keptKeys[kept] = key;
+            if (count <= CompressedBitmap.ARRAY_LIMIT) {
+                char[] lows = new char[count];
+                int next = 0;
+                for (int w = 0; w < block.length; w++) {
+                    long word = block[w];
+                    while (word != 0) {
+                        lows[next++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+                arrays[kept] = lows;
+            } else {
+                bitmaps[kept] = block.clone();
+            }
+            kept++;
+        }
+        if (kept == 0) {
+            return CompressedBitmap.EMPTY;
+        }
+        return new CompressedBitmap(Arrays.copyOf(keptKeys, kept), Arrays.copyOf(arrays, kept),
+                                    Arrays.copyOf(bitmaps, kept));
+    }
+
+    // ✅ The current values in ascending order
+    public int[] toArray() {
+        return toBitmap().toArray();
+    }
+
+    // ✅ Remove every value, keeping the blocks for reuse
+    public void clear() {
+        for (int i = 0; i < touchedCount; i++) {
+            int key = touched[i];
+            Arrays.fill(blocks[key], 0L);
+            isTouched[key] = false;
+        }
+        touchedCount = 0;
+    }
+
+    private long[] block(int key) {
+        if (key >= blocks.length) {
+            int keys = Math.max(key + 1, blocks.length * 2);
+            blocks = Arrays.copyOf(blocks, keys);
+            isTouched = Arrays.copyOf(isTouched, keys);
+        }
+        long[] block = blocks[key];
+        if (block == null) {
+            block = new long[CompressedBitmap.BLOCK_WORDS];
+            blocks[key] = block;
+        }
+        if (!isTouched[key]) {
+            isTouched[key] = true;
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = key;
+        }
+        return block;
+    }
+}
@@ -0,0 +1,182 @@
+package models;
+
+import java.util.Arrays;
+
+// Immutable compressed set of non-negative ints, Roaring-style: values are grouped by their
+// high 16 bits into containers, and each container is either a sorted char[] of low bits (up to
+// 4096 values) or a 1024-word bitmap (denser than that). Sparse sets cost about 2 bytes per
+// value and dense ones at most 8 KB per 65536 ids, so per-role entitlement sets stay small even
+// when a tenant has millions of entitlements. Built with BitmapAccumulator.
+public final class CompressedBitmap {
+    public static final CompressedBitmap EMPTY = new CompressedBitmap(new int[0], new char[0][], new long[0][]);
+
+    // Containers with more values than this are stored as bitmaps
+    static final int ARRAY_LIMIT = 4096;
+    static final int BLOCK_WORDS = 1 << 10;
+
+    private final int[] keys;          // high 16 bits of the container's values, ascending
+    private final char[][] arrays;     // sorted low bits, or null for a bitmap container
+    private final long[][] bitmaps;    // 1024 words, or null for an array container
+
+    CompressedBitmap(int[] keys, char[][] arrays, long[][] bitmaps) {
+        this.keys = keys;
+        this.arrays = arrays;
+        this.bitmaps = bitmaps;
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            count += containerCardinality(i);
+        }
+        return count;
+    }
+
+    // ✅ True if the value is in the set
+    public boolean contains(int value) {
+        int i = Arrays.binarySearch(keys, value >>> 16);
+        if (i < 0) {
+            return false;
+        }
+        char low = (char) value;
+        return arrays[i] != null ? Arrays.binarySearch(arrays[i], low) >= 0
+                                 : (bitmaps[i][low >>> 6] & (1L << low)) != 0;
+    }
+
+    // ✅ True if the two sets share a value; only containers with the same key are compared
+    public boolean intersects(CompressedBitmap other) {
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                if (containersIntersect(i, other, j)) {
+                    return true;
+                }
+                i++;
+                j++;
+            }
+        }
+        return false;
+    }
+
+    // ✅ The values in ascending order
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int next = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int high = keys[i] << 16;
+            if (arrays[i] != null) {
+                for (char low : arrays[i]) {
+                    values[next++] = high | low;
+                }
+            } else {
+                long[] bitmap = bitmaps[i];
+                for (int w = 0; w < BLOCK_WORDS; w++) {
+                    long word = bitmap[w];
+                    while (word != 0) {
+                        values[next++] = high | (w << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    // ✅ Approximate heap footprint of the containers
+    public long sizeInBytes() {
+        long bytes = 16L + 4L * keys.length;
+        for (int i = 0; i < keys.length; i++) {
+            bytes += arrays[i] != null ? 16L + 2L * arrays[i].length : 16L + 8L * BLOCK_WORDS;
+        }
+        return bytes;
+    }
+
+    int containerCount() {
+        return keys.length;
+    }
+
+    int key(int container) {
+        return keys[container];
+    }
+
+    // Sorted low bits of an array container, or null for a bitmap container; not to be modified
+    char[] arrayValues(int container) {
+        return arrays[container];
+    }
+
+    // The 1024 words of a bitmap container, or null for an array container; not to be modified
+    long[] bitmapWords(int container) {
+        return bitmaps[container];
+    }
+
+    // OR one container into a dense 1024-word block
+    void orInto(int container, long[] block) {
+        if (arrays[container] != null) {
+            for (char low : arrays[container]) {
+                block[low >>> 6] |= 1L << low;
+            }
+        } else {
+            long[] bitmap = bitmaps[container];
+            for (int w = 0; w < BLOCK_WORDS; w++) {
+                block[w] |= bitmap[w];
+            }
+        }
+    }
+
+    private int containerCardinality(int container) {
+        if (arrays[container] != null) {
+            return arrays[container].length;
+        }
+        int count = 0;
+        for (long word : bitmaps[container]) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private boolean containersIntersect(int i, CompressedBitmap other, int j) {
+        char[] a = arrays[i];
+        char[] b = other.arrays[j];
+        if (a != null && b != null) {
+            int x = 0;
+            int y = 0;
+            while (x < a.length && y < b.length) {
+                if (a[x] < b[y]) {
+                    x++;
+                } else if (a[x] > b[y]) {
+                    y++;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (a == null && b == null) {
+            long[] p = bitmaps[i];
+            long[] q = other.bitmaps[j];
+            for (int w = 0; w < BLOCK_WORDS; w++) {
+                if ((p[w] & q[w]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        char[] array = a != null ? a : b;
+        long[] bitmap = a != null ? other.bitmaps[j] : bitmaps[i];
+        for (char low : array) {
+            if ((bitmap[low >>> 6] & (1L << low)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,17 +1,44 @@
 package models;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class EmployeeGraph {
-    private final Map<String, Set<String>> employeeRoles;     // Employee -> Roles
-    private final Map<String, Set<String>> roleHierarchy;     // Parent Role -> Child Roles
-    private final Map<String, Set<String>> rolePrivileges;    // Role -> Privileges
-    private final Map<String, Set<String>> privilegeEntitlements; // Privilege -> Entitlements
+    private static final Logger log = LoggerFactory.getLogger(EmployeeGraph.class);
+
+    // Every name is interned once; edges only hold the dense ids
+    private final SymbolTable employees;
+    private final SymbolTable roles;
+    private final SymbolTable privileges;
+    private final SymbolTable entitlements;
+
+    private final IntAdjacency employeeRoles;         // Employee -> Roles
+    private final IntAdjacency roleHierarchy;         // Parent Role -> Child Roles
+    private final IntAdjacency rolePrivileges;        // Role -> Privileges
+    private final IntAdjacency privilegeEntitlements; // Privilege -> Entitlements
+
+    // Effective privileges per role; dropped whenever a hierarchy or privilege edge is added
+    private volatile PrivilegeClosure privilegeClosure;
+    // Shortest inheritance chains per (role, privilege); dropped together with the closure
+    private volatile InheritancePaths inheritancePaths;
+    // Effective entitlements per role; also dropped when a privilege-entitlement edge is added
+    private volatile EntitlementClosure entitlementClosure;
 
     public EmployeeGraph() {
-        employeeRoles = new HashMap<>();
-        roleHierarchy = new HashMap<>();
-        rolePrivileges = new HashMap<>();
-        privilegeEntitlements = new HashMap<>();
+        employees = new SymbolTable();
+        roles = new SymbolTable();
+        privileges = new SymbolTable();
+        entitlements = new SymbolTable();
+
+        employeeRoles = new IntAdjacency();
+        roleHierarchy = new IntAdjacency();
+        rolePrivileges = new IntAdjacency();
+        privilegeEntitlements = new IntAdjacency();
     }
 
     // ✅ Add Employee-Role Mapping
@@ -20,12 +47,11 @@ public class EmployeeGraph {
         role = role.trim();
 
         if (employee.isEmpty() || role.isEmpty()) {
-            System.err.println("⚠ Skipping invalid entry (empty employee or role).");
+            log.debug("⚠ Skipping invalid entry (empty employee or role).");
             return;
         }
 
-        employeeRoles.putIfAbsent(employee, new HashSet<>());
-        employeeRoles.get(employee).add(role);
+        employeeRoles.add(employees.intern(employee), roles.intern(role));
     }
 
     // ✅ Add Role Hierarchy Relationship
@@ -34,12 +60,14 @@ public class EmployeeGraph {
         parentRole = parentRole.trim();
 
         if (childRole.isEmpty() || parentRole.isEmpty()) {
-            System.err.println("⚠ Skipping invalid hierarchy entry.");
+            log.debug("⚠ Skipping invalid hierarchy entry.");
             return;
         }
 
-        roleHierarchy.putIfAbsent(parentRole, new HashSet<>());
-        roleHierarchy.get(parentRole).add(childRole);
+        int parentId = roles.intern(parentRole);
+        if (roleHierarchy.add(parentId, roles.intern(childRole))) {
+            invalidateClosure();
+        }
     }
 
     // ✅ Add Role-Privilege Mapping
@@ -48,12 +76,40 @@ public class EmployeeGraph {
         privilege = privilege.trim();
 
         if (role.isEmpty() || privilege.isEmpty()) {
-            System.err.println("⚠ Skipping invalid role-privilege entry.");
+            log.debug("⚠ Skipping invalid role-privilege entry.");
             return;
         }
 
-        rolePrivileges.putIfAbsent(role, new HashSet<>());
-        rolePrivileges.get(role).add(privilege);
+        if (rolePrivileges.add(roles.intern(role), privileges.intern(privilege))) {
+            invalidateClosure();
+        }
+    }
+
+    // ✅ Remove Employee-Role Mapping (the employee keeps its id, so report order is unchanged)
+    public void removeRole(String employee, String role) {
+        int employeeId = employees.lookup(employee.trim());
+        int roleId = roles.lookup(role.trim());
+        if (employeeId >= 0 && roleId >= 0) {
+            employeeRoles.remove(employeeId, roleId);
+        }
+    }
+
+    // ✅ Remove Role Hierarchy Relationship
+    public void removeHierarchy(String childRole, String parentRole) {
+        int childId = roles.lookup(childRole.trim());
+        int parentId = roles.lookup(parentRole.trim());
+        if (childId >= 0 && parentId >= 0 && roleHierarchy.remove(parentId, childId)) {
+            invalidateClosure();
+        }
+    }
+
+    // ✅ Remove Role-Privilege Mapping
+    public void removeRolePrivilege(String role, String privilege) {
+        int roleId = roles.lookup(role.trim());
+        int privilegeId = privileges.lookup(privilege.trim());
+        if (roleId >= 0 && privilegeId >= 0 && rolePrivileges.remove(roleId, privilegeId)) {
+            invalidateClosure();
+        }
     }
 
     // ✅ Add Privilege-Entitlement Mapping
@@ -62,67 +118,319 @@ public class EmployeeGraph {
         entitlement = entitlement.trim();
 
         if (privilege.isEmpty() || entitlement.isEmpty()) {
-            System.err.println("⚠ Skipping invalid privilege-entitlement entry.");
+            log.debug("⚠ Skipping invalid privilege-entitlement entry.");
             return;
         }
 
-        privilegeEntitlements.putIfAbsent(privilege, new HashSet<>());
-        privilegeEntitlements.get(privilege).add(entitlement);
+        if (privilegeEntitlements.add(privileges.intern(privilege), entitlements.intern(entitlement))) {
+            entitlementClosure = null;
+        }
+    }
+
+    // ✅ Merge thread-local partials built in parallel. Names are interned in partial order, so ids
+    // (and therefore employee and role ordering) are the same as adding the rows one by one; the
+    // edges are then inserted by one task per group of adjacency stripes, without locking.
+    public synchronized void merge(List<GraphPartial> partials, ForkJoinPool pool) {
+        int[][] employeeIds = new int[partials.size()][];
+        int[][] roleIds = new int[partials.size()][];
+        int[][] privilegeIds = new int[partials.size()][];
+        int[][] entitlementIds = new int[partials.size()][];
+        boolean entitlementsChanged = false;
+        for (int i = 0; i < partials.size(); i++) {
+            GraphPartial partial = partials.get(i);
+            employeeIds[i] = internAll(employees, partial.employees);
+            roleIds[i] = internAll(roles, partial.roles);
+            privilegeIds[i] = internAll(privileges, partial.privileges);
+            entitlementIds[i] = internAll(entitlements, partial.entitlements);
+            entitlementsChanged |= partial.privilegeEntitlements.size() > 0;
+        }
+
+        employeeRoles.ensureNodes(employees.size());
+        roleHierarchy.ensureNodes(roles.size());
+        rolePrivileges.ensureNodes(roles.size());
+        privilegeEntitlements.ensureNodes(privileges.size());
+
+        int taskCount = Math.min(IntAdjacency.STRIPES, Math.max(1, pool.getParallelism()));
+        List<Callable<Boolean>> tasks = new ArrayList<>(taskCount);
+        for (int t = 0; t < taskCount; t++) {
+            final int task = t;
+            tasks.add(() -> {
+                boolean added = false;
+                for (int i = 0; i < partials.size(); i++) {
+                    GraphPartial partial = partials.get(i);
+                    insertOwnedEdges(employeeRoles, partial.employeeRoles, employeeIds[i], roleIds[i], task, taskCount);
+                    added |= insertOwnedEdges(roleHierarchy, partial.roleHierarchy, roleIds[i], roleIds[i], task, taskCount);
+                    added |= insertOwnedEdges(rolePrivileges, partial.rolePrivileges, roleIds[i], privilegeIds[i], task, taskCount);
+                    insertOwnedEdges(privilegeEntitlements, partial.privilegeEntitlements,
+                                     privilegeIds[i], entitlementIds[i], task, taskCount);
+                }
+                return added;
+            });
+        }
+
+        boolean closureChanged = false;
+        for (Future<Boolean> result : pool.invokeAll(tasks)) {
+            try {
+                closureChanged |= result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while merging graph partials", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to merge graph partials", e.getCause());
+            }
+        }
+        if (closureChanged) {
+            invalidateClosure();
+        } else if (entitlementsChanged) {
+            entitlementClosure = null;
+        }
+    }
+
+    // Insert the edges whose source stripe belongs to this task, translating local ids to shared ones
+    private static boolean insertOwnedEdges(IntAdjacency target, GraphPartial.EdgeList edges,
+                                            int[] fromIds, int[] toIds, int task, int taskCount) {
+        boolean added = false;
+        for (int e = 0; e < edges.size(); e++) {
+            int from = fromIds[edges.from(e)];
+            if (IntAdjacency.stripeOf(from) % taskCount == task) {
+                added |= target.add(from, toIds[edges.to(e)]);
+            }
+        }
+        return added;
+    }
+
+    private static int[] internAll(SymbolTable shared, SymbolTable local) {
+        int[] ids = new int[local.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = shared.intern(local.name(i));
+        }
+        return ids;
     }
 
     // ✅ Get all roles assigned to an employee
     public List<String> getRoles(String employee) {
-        return new ArrayList<>(employeeRoles.getOrDefault(employee, new HashSet<>()));
+        int employeeId = employees.lookup(employee);
+        return employeeId < 0 ? new ArrayList<>() : toNames(roles, employeeRoles.targets(employeeId));
     }
 
     // ✅ Get all employees
     public Set<String> getAllEmployees() {
-        return employeeRoles.keySet();
+        return new LinkedHashSet<>(employees.names());
     }
 
     // ✅ Get all child roles of a parent role (hierarchical lookup)
     public List<String> getChildRoles(String parentRole) {
-        return new ArrayList<>(roleHierarchy.getOrDefault(parentRole, new HashSet<>()));
+        int roleId = roles.lookup(parentRole);
+        return roleId < 0 ? new ArrayList<>() : toNames(roles, roleHierarchy.targets(roleId));
     }
 
     // ✅ Get all privileges of a given role (direct and inherited)
     public Set<String> getRolePrivileges(String role) {
-        // Use a set to track visited roles to prevent infinite recursion
-        return getRolePrivilegesHelper(role, new HashSet<>());
-    }
-    private Set<String> getRolePrivilegesHelper(String role, Set<String> visitedRoles) {
-        // If we've already processed this role, skip it to prevent cycles
-        if (visitedRoles.contains(role)) {
-            return new HashSet<>();
+        int roleId = roles.lookup(role);
+        Set<String> names = new HashSet<>();
+        if (roleId < 0) {
+            return names;
         }
-        
-        // Mark this role as visited
-        visitedRoles.add(role);
-        
-        // Get direct privileges for this role
-        Set<String> privileges = new HashSet<>(rolePrivileges.getOrDefault(role, new HashSet<>()));
-    
-        // Traverse child roles and collect their privileges
-        for (String childRole : getChildRoles(role)) {
-            privileges.addAll(getRolePrivilegesHelper(childRole, visitedRoles));
+
+        ImmutableBitSet privilegeIds = getRolePrivilegeIds(roleId);
+        for (int p = privilegeIds.nextSetBit(0); p >= 0; p = privilegeIds.nextSetBit(p + 1)) {
+            names.add(privileges.name(p));
         }
-        return privileges;
+        return names;
     }
 
     // ✅ Get all entitlements from a given privilege
     public Set<String> getPrivilegeEntitlements(String privilege) {
-        return privilegeEntitlements.getOrDefault(privilege, new HashSet<>());
+        int privilegeId = privileges.lookup(privilege);
+        if (privilegeId < 0) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(toNames(entitlements, privilegeEntitlements.targets(privilegeId)));
     }
 
     // ✅ Get all entitlements of an employee (via roles → privileges → entitlements)
     public Set<String> getEmployeeEntitlements(String employee) {
-        Set<String> entitlements = new HashSet<>();
+        Set<String> entitlementNames = new HashSet<>();
+        int employeeId = employees.lookup(employee);
+        if (employeeId < 0) {
+            return entitlementNames;
+        }
+
+        EntitlementClosure closure = getEntitlementClosure();
+        BitmapAccumulator entitlementIds = new BitmapAccumulator();
+        for (int roleId : employeeRoles.targets(employeeId)) {
+            entitlementIds.or(closure.get(roleId));
+        }
+        for (int entitlementId : entitlementIds.toArray()) {
+            entitlementNames.add(entitlements.name(entitlementId));
+        }
+        return entitlementNames;
+    }
+
+    // ---- Id-based access (names are only resolved when the report is written) ----
+
+    public int getEmployeeCount() {
+        return employees.size();
+    }
+
+    public int getRoleCount() {
+        return roles.size();
+    }
+
+    public int getPrivilegeCount() {
+        return privileges.size();
+    }
+
+    public int getEntitlementCount() {
+        return entitlements.size();
+    }
+
+    // Edge counts per relation, e.g. for the run metrics
+    public int getAssignmentCount() {
+        return employeeRoles.edgeCount();
+    }
+
+    public int getHierarchyEdgeCount() {
+        return roleHierarchy.edgeCount();
+    }
+
+    public int getRolePrivilegeCount() {
+        return rolePrivileges.edgeCount();
+    }
+
+    public int getPrivilegeEntitlementCount() {
+        return privilegeEntitlements.edgeCount();
+    }
+
+    // ✅ Id of an employee, role, privilege or entitlement name, or -1 if it is not in the graph
+    public int getEmployeeId(String employee) {
+        return employees.lookup(employee.trim());
+    }
+
+    public int getRoleId(String role) {
+        return roles.lookup(role.trim());
+    }
+
+    public int getPrivilegeId(String privilege) {
+        return privileges.lookup(privilege.trim());
+    }
+
+    public int getEntitlementId(String entitlement) {
+        return entitlements.lookup(entitlement.trim());
+    }
+
+    public String getEmployeeName(int employeeId) {
+        return employees.name(employeeId);
+    }
+
+    public String getRoleName(int roleId) {
+        return roles.name(roleId);
+    }
+
+    public String getPrivilegeName(int privilegeId) {
+        return privileges.name(privilegeId);
+    }
+
+    public String getEntitlementName(int entitlementId) {
+        return entitlements.name(entitlementId);
+    }
+
+    // ✅ Role ids assigned to an employee, in the order they were added
+    public int[] getRoleIds(int employeeId) {
+        return employeeRoles.targets(employeeId);
+    }
+
+    // ✅ Direct child role ids of a parent role
+    public int[] getChildRoleIds(int parentRoleId) {
+        return roleHierarchy.targets(parentRoleId);
+    }
+
+    // ✅ Entitlement ids granted directly by a privilege
+    public int[] getEntitlementIds(int privilegeId) {
+        return privilegeEntitlements.targets(privilegeId);
+    }
+
+    // ✅ True if the parent role directly contains the child role
+    public boolean hasChildRole(int parentRoleId, int childRoleId) {
+        return roleHierarchy.contains(parentRoleId, childRoleId);
+    }
+
+    // ✅ Privilege ids of a role (direct and inherited), served from the precomputed closure
+    public ImmutableBitSet getRolePrivilegeIds(int roleId) {
+        return getPrivilegeClosure().get(roleId);
+    }
+
+    // ✅ Effective privileges of every role, rebuilt on first use after an edge change
+    public PrivilegeClosure getPrivilegeClosure() {
+        PrivilegeClosure closure = privilegeClosure;
+        if (closure == null) {
+            synchronized (this) {
+                closure = privilegeClosure;
+                if (closure == null) {
+                    closure = computePrivilegeClosure();
+                    privilegeClosure = closure;
+                }
+            }
+        }
+        return closure;
+    }
 
-        for (String role : getRoles(employee)) {
-            for (String privilege : getRolePrivileges(role)) {
-                entitlements.addAll(getPrivilegeEntitlements(privilege));
+    // ✅ Effective entitlements of every role as compressed bitmaps, rebuilt on first use after an edge change
+    public EntitlementClosure getEntitlementClosure() {
+        EntitlementClosure closure = entitlementClosure;
+        if (closure == null) {
+            synchronized (this) {
+                closure = entitlementClosure;
+                if (closure == null) {
+                    closure = EntitlementClosure.compute(getPrivilegeClosure().getComponents(), roleHierarchy,
+                                                         rolePrivileges, privilegeEntitlements);
+                    entitlementClosure = closure;
+                }
             }
         }
-        return entitlements;
+        return closure;
+    }
+
+    // ✅ Shared predecessor trees for rebuilding how a role reaches a privilege; rebuilt after an edge change
+    public InheritancePaths getInheritancePaths() {
+        InheritancePaths paths = inheritancePaths;
+        if (paths == null) {
+            synchronized (this) {
+                paths = inheritancePaths;
+                if (paths == null) {
+                    paths = new InheritancePaths(roles.size(), roleHierarchy, rolePrivileges);
+                    inheritancePaths = paths;
+                }
+            }
+        }
+        return paths;
+    }
+
+    // ✅ Role names from the role down to the one granting the privilege directly, along the
+    // shortest inheritance chain; empty if the role does not reach the privilege
+    public List<String> getPrivilegePath(String role, String privilege) {
+        int roleId = roles.lookup(role.trim());
+        int privilegeId = privileges.lookup(privilege.trim());
+        int[] chain = roleId < 0 || privilegeId < 0 ? null : getInheritancePaths().chain(roleId, privilegeId);
+        return chain == null ? new ArrayList<>() : toNames(roles, chain);
+    }
+
+    private void invalidateClosure() {
+        privilegeClosure = null;
+        inheritancePaths = null;
+        entitlementClosure = null;
+    }
+
+    // Fresh closure over the current edges, bypassing the cached one
+    PrivilegeClosure computePrivilegeClosure() {
+        return PrivilegeClosure.compute(roles.size(), privileges.size(), roleHierarchy, rolePrivileges);
+    }
+
+    private static List<String> toNames(SymbolTable table, int[] ids) {
+        List<String> names = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            names.add(table.name(id));
+        }
+        return names;
     }
 }
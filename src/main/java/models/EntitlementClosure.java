@@ -0,0 +1,72 @@
+package models;
+
+// Effective entitlements of every role: the entitlements of every privilege in the role's
+// privilege closure. Folded over the same hierarchy components as PrivilegeClosure, children
+// first, so each component ORs its direct privileges' entitlements with its child components'
+// sets once. Sets are CompressedBitmaps, since entitlement ids run far past privilege ids and a
+// dense bitset per role would not fit; roles in one hierarchy cycle share a bitmap.
+public final class EntitlementClosure {
+    private final CompressedBitmap[] roleEntitlements;
+    private final CompressedBitmap[] componentEntitlements;
+
+    private EntitlementClosure(CompressedBitmap[] roleEntitlements, CompressedBitmap[] componentEntitlements) {
+        this.roleEntitlements = roleEntitlements;
+        this.componentEntitlements = componentEntitlements;
+    }
+
+    // ✅ Build the closure over the components of the privilege closure
+    static EntitlementClosure compute(StronglyConnectedComponents sccs, IntAdjacency roleHierarchy,
+                                      IntAdjacency directPrivileges, IntAdjacency privilegeEntitlements) {
+        int roleCount = sccs.nodeCount();
+        CompressedBitmap[] componentEntitlements = new CompressedBitmap[sccs.componentCount()];
+        CompressedBitmap[] roleEntitlements = new CompressedBitmap[roleCount];
+        BitmapAccumulator scratch = new BitmapAccumulator();
+
+        // Component numbers are reverse topological, so children are always ready first
+        for (int component = 0; component < sccs.componentCount(); component++) {
+            for (int i = 0; i < sccs.componentSize(component); i++) {
+                int role = sccs.member(component, i);
+                for (int p = 0; p < directPrivileges.degree(role); p++) {
+                    int privilege = directPrivileges.target(role, p);
+                    for (int e = 0; e < privilegeEntitlements.degree(privilege); e++) {
+                        scratch.add(privilegeEntitlements.target(privilege, e));
+                    }
+                }
+                for (int c = 0; c < roleHierarchy.degree(role); c++) {
+                    int child = roleHierarchy.target(role, c);
+                    if (child >= roleCount) continue;
+                    int childComponent = sccs.componentOf(child);
+                    if (childComponent != component) {
+                        scratch.or(componentEntitlements[childComponent]);
+                    }
+                }
+            }
+
+            CompressedBitmap entitlements = scratch.toBitmap();
+            componentEntitlements[component] = entitlements;
+            for (int i = 0; i < sccs.componentSize(component); i++) {
+                roleEntitlements[sccs.member(component, i)] = entitlements;
+            }
+            scratch.clear();
+        }
+        return new EntitlementClosure(roleEntitlements, componentEntitlements);
+    }
+
+    // ✅ Effective entitlements of a role; roles added after the closure was built have none
+    public CompressedBitmap get(int roleId) {
+        return roleId < roleEntitlements.length ? roleEntitlements[roleId] : CompressedBitmap.EMPTY;
+    }
+
+    public int roleCount() {
+        return roleEntitlements.length;
+    }
+
+    // ✅ Approximate heap footprint of the bitmaps (one per hierarchy component)
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (CompressedBitmap bitmap : componentEntitlements) {
+            bytes += bitmap.sizeInBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,109 @@
+package models;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+// Thread-confined slice of an EmployeeGraph build. A worker fills one partial with no
+// locking, using its own local symbol tables; EmployeeGraph.merge() later maps the local
+// ids onto the shared ones and inserts the edges in parallel.
+public class GraphPartial {
+    private static final Logger log = LoggerFactory.getLogger(GraphPartial.class);
+
+    final SymbolTable employees = new SymbolTable();
+    final SymbolTable roles = new SymbolTable();
+    final SymbolTable privileges = new SymbolTable();
+    final SymbolTable entitlements = new SymbolTable();
+
+    final EdgeList employeeRoles = new EdgeList();   // local employee -> local role
+    final EdgeList roleHierarchy = new EdgeList();   // local parent role -> local child role
+    final EdgeList rolePrivileges = new EdgeList();  // local role -> local privilege
+    final EdgeList privilegeEntitlements = new EdgeList(); // local privilege -> local entitlement
+
+    // ✅ Add Employee-Role Mapping
+    public void addRole(String employee, String role) {
+        employee = employee.trim();
+        role = role.trim();
+
+        if (employee.isEmpty() || role.isEmpty()) {
+            log.debug("⚠ Skipping invalid entry (empty employee or role).");
+            return;
+        }
+
+        employeeRoles.add(employees.intern(employee), roles.intern(role));
+    }
+
+    // ✅ Add Role Hierarchy Relationship
+    public void addHierarchy(String childRole, String parentRole) {
+        childRole = childRole.trim();
+        parentRole = parentRole.trim();
+
+        if (childRole.isEmpty() || parentRole.isEmpty()) {
+            log.debug("⚠ Skipping invalid hierarchy entry.");
+            return;
+        }
+
+        int parentId = roles.intern(parentRole);
+        roleHierarchy.add(parentId, roles.intern(childRole));
+    }
+
+    // ✅ Add Role-Privilege Mapping
+    public void addRolePrivilege(String role, String privilege) {
+        role = role.trim();
+        privilege = privilege.trim();
+
+        if (role.isEmpty() || privilege.isEmpty()) {
+            log.debug("⚠ Skipping invalid role-privilege entry.");
+            return;
+        }
+
+        rolePrivileges.add(roles.intern(role), privileges.intern(privilege));
+    }
+
+    // ✅ Add Privilege-Entitlement Mapping
+    public void addPrivilegeEntitlement(String privilege, String entitlement) {
+        privilege = privilege.trim();
+        entitlement = entitlement.trim();
+
+        if (privilege.isEmpty() || entitlement.isEmpty()) {
+            log.debug("⚠ Skipping invalid privilege-entitlement entry.");
+            return;
+        }
+
+        privilegeEntitlements.add(privileges.intern(privilege), entitlements.intern(entitlement));
+    }
+
+    public int edgeCount() {
+        return employeeRoles.size() + roleHierarchy.size() + rolePrivileges.size() + privilegeEntitlements.size();
+    }
+
+    // Append-only (from, to) pairs in arrival order; duplicates are dropped at merge time
+    static class EdgeList {
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private int size;
+
+        void add(int source, int target) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+            }
+            from[size] = source;
+            to[size] = target;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int from(int index) {
+            return from[index];
+        }
+
+        int to(int index) {
+            return to[index];
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package models;
+
+import java.util.Arrays;
+
+// Read-only bitset over dense ids. Trailing zero words are trimmed, so sparse
+// low-id sets stay small; word(i) past the end reads as 0.
+public final class ImmutableBitSet {
+    public static final ImmutableBitSet EMPTY = new ImmutableBitSet(new long[0]);
+
+    private final long[] words;
+    private final int cardinality;
+
+    private ImmutableBitSet(long[] words) {
+        this.words = words;
+        int bits = 0;
+        for (long word : words) {
+            bits += Long.bitCount(word);
+        }
+        this.cardinality = bits;
+    }
+
+    // ✅ Snapshot the given words (the array is copied, trimmed of trailing zeros)
+    public static ImmutableBitSet of(long[] words) {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0L) {
+            length--;
+        }
+        return length == 0 ? EMPTY : new ImmutableBitSet(Arrays.copyOf(words, length));
+    }
+
+    public boolean get(int bit) {
+        int index = bit >>> 6;
+        return index < words.length && (words[index] & (1L << bit)) != 0;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    // Number of stored 64-bit words; all higher words are zero
+    public int wordCount() {
+        return words.length;
+    }
+
+    public long word(int index) {
+        return index < words.length ? words[index] : 0L;
+    }
+
+    // ✅ Index of the next set bit at or after fromIndex, or -1
+    public int nextSetBit(int fromIndex) {
+        int index = fromIndex >>> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    public boolean intersects(ImmutableBitSet other) {
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ✅ OR this set into a caller-owned word array (which must be at least wordCount() long)
+    public void orInto(long[] target) {
+        for (int i = 0; i < words.length; i++) {
+            target[i] |= words[i];
+        }
+    }
+}
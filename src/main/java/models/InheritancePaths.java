@@ -0,0 +1,130 @@
+package models;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// How a role reaches each of its effective privileges. Every role gets one breadth-first tree
+// over its descendant roles, stored as two int arrays (roles in BFS order and the index of each
+// one's parent), built on first use and shared by every lookup through that role. The first role
+// in BFS order that grants a privilege directly ends the shortest inheritance chain to it; the
+// tree keeps that position per privilege in one sorted long[], so a path such as
+// "Role A -> Child Role B -> Privilege X" is rebuilt on demand from the predecessor pointers
+// instead of being kept per violation. Safe for concurrent lookups.
+public final class InheritancePaths {
+    private final IntAdjacency roleHierarchy;
+    private final IntAdjacency rolePrivileges;
+    private final int roleCount;
+    private final ConcurrentHashMap<Integer, RoleTree> trees = new ConcurrentHashMap<>();
+
+    InheritancePaths(int roleCount, IntAdjacency roleHierarchy, IntAdjacency rolePrivileges) {
+        this.roleCount = roleCount;
+        this.roleHierarchy = roleHierarchy;
+        this.rolePrivileges = rolePrivileges;
+    }
+
+    // ✅ Role ids from the role down to the role granting the privilege directly, along the
+    // shortest chain (ties go to the earlier child); null if the role does not reach the privilege
+    public int[] chain(int role, int privilege) {
+        RoleTree tree = trees.computeIfAbsent(role, this::buildTree);
+        int index = tree.grantingIndex(privilege);
+        return index < 0 ? null : tree.chainTo(index);
+    }
+
+    // ✅ Number of roles whose tree has been built so far
+    public int cachedRoleCount() {
+        return trees.size();
+    }
+
+    private RoleTree buildTree(int root) {
+        int[] order = new int[8];
+        int[] parent = new int[8];
+        BitSet visited = new BitSet(roleCount);
+        order[0] = root;
+        parent[0] = -1;
+        visited.set(root);
+        int size = 1;
+        for (int head = 0; head < size; head++) {
+            int role = order[head];
+            for (int c = 0; c < roleHierarchy.degree(role); c++) {
+                int child = roleHierarchy.target(role, c);
+                if (visited.get(child)) {
+                    continue;
+                }
+                visited.set(child);
+                if (size == order.length) {
+                    order = Arrays.copyOf(order, size * 2);
+                    parent = Arrays.copyOf(parent, size * 2);
+                }
+                order[size] = child;
+                parent[size] = head;
+                size++;
+            }
+        }
+
+        // (privilege << 32 | BFS index) of the first role in BFS order granting each privilege
+        long[] granting = new long[16];
+        int grantCount = 0;
+        BitSet seen = new BitSet();
+        for (int i = 0; i < size; i++) {
+            int role = order[i];
+            for (int p = 0; p < rolePrivileges.degree(role); p++) {
+                int privilege = rolePrivileges.target(role, p);
+                if (seen.get(privilege)) {
+                    continue;
+                }
+                seen.set(privilege);
+                if (grantCount == granting.length) {
+                    granting = Arrays.copyOf(granting, grantCount * 2);
+                }
+                granting[grantCount++] = (long) privilege << 32 | i;
+            }
+        }
+        granting = Arrays.copyOf(granting, grantCount);
+        Arrays.sort(granting);
+        return new RoleTree(Arrays.copyOf(order, size), Arrays.copyOf(parent, size), granting);
+    }
+
+    // Descendants of one role in BFS order, each pointing at the index of its BFS parent
+    private static final class RoleTree {
+        private final int[] order;
+        private final int[] parent;
+        private final long[] granting;
+
+        RoleTree(int[] order, int[] parent, long[] granting) {
+            this.order = order;
+            this.parent = parent;
+            this.granting = granting;
+        }
+
+        // BFS index of the nearest role granting the privilege directly, or -1
+        int grantingIndex(int privilege) {
+            int low = 0;
+            int high = granting.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int midPrivilege = (int) (granting[mid] >>> 32);
+                if (midPrivilege < privilege) {
+                    low = mid + 1;
+                } else if (midPrivilege > privilege) {
+                    high = mid - 1;
+                } else {
+                    return (int) granting[mid];
+                }
+            }
+            return -1;
+        }
+
+        int[] chainTo(int index) {
+            int length = 0;
+            for (int i = index; i >= 0; i = parent[i]) {
+                length++;
+            }
+            int[] chain = new int[length];
+            for (int i = index; i >= 0; i = parent[i]) {
+                chain[--length] = order[i];
+            }
+            return chain;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package models;
+
+import java.util.Arrays;
+
+// Directed multi-source adjacency over dense int ids: one growable int[] per source node,
+// kept in insertion order, with duplicate edges rejected through a packed-edge set.
+// The edge set is striped by source id: once ensureNodes() has sized the node arrays,
+// threads that each own a disjoint set of stripes may add edges concurrently.
+public class IntAdjacency {
+    public static final int STRIPES = 64;
+    private static final int[] NO_TARGETS = new int[0];
+
+    private int[][] targets;
+    private int[] degrees;
+    private final LongHashSet[] edgeStripes;
+
+    public IntAdjacency() {
+        targets = new int[16][];
+        degrees = new int[16];
+        edgeStripes = new LongHashSet[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            edgeStripes[i] = new LongHashSet();
+        }
+    }
+
+    // ✅ Stripe that owns all edges leaving the given node
+    public static int stripeOf(int from) {
+        return from & (STRIPES - 1);
+    }
+
+    // ✅ Add an edge; returns false if it already existed
+    public boolean add(int from, int to) {
+        if (!edgeStripes[stripeOf(from)].add(pack(from, to))) {
+            return false;
+        }
+
+        ensureNodes(from + 1);
+        int[] row = targets[from];
+        int degree = degrees[from];
+        if (row == null) {
+            row = new int[4];
+        } else if (degree == row.length) {
+            row = Arrays.copyOf(row, degree * 2);
+        }
+        row[degree] = to;
+        targets[from] = row;
+        degrees[from] = degree + 1;
+        return true;
+    }
+
+    // ✅ Remove an edge, keeping the order of the remaining targets; returns false if it was absent
+    public boolean remove(int from, int to) {
+        if (!edgeStripes[stripeOf(from)].remove(pack(from, to))) {
+            return false;
+        }
+
+        int[] row = targets[from];
+        int degree = degrees[from];
+        for (int i = 0; i < degree; i++) {
+            if (row[i] == to) {
+                System.arraycopy(row, i + 1, row, i, degree - i - 1);
+                break;
+            }
+        }
+        degrees[from] = degree - 1;
+        return true;
+    }
+
+    public boolean contains(int from, int to) {
+        return edgeStripes[stripeOf(from)].contains(pack(from, to));
+    }
+
+    public int degree(int from) {
+        return from < degrees.length ? degrees[from] : 0;
+    }
+
+    public int target(int from, int index) {
+        if (index >= degree(from)) {
+            throw new IndexOutOfBoundsException("Edge " + index + " of node " + from);
+        }
+        return targets[from][index];
+    }
+
+    // ✅ Copy of the targets of one node, in insertion order
+    public int[] targets(int from) {
+        int degree = degree(from);
+        return degree == 0 ? NO_TARGETS : Arrays.copyOf(targets[from], degree);
+    }
+
+    // Number of source slots allocated so far (an upper bound on the highest source id + 1)
+    public int nodeCapacity() {
+        return degrees.length;
+    }
+
+    public int edgeCount() {
+        int count = 0;
+        for (LongHashSet stripe : edgeStripes) {
+            count += stripe.size();
+        }
+        return count;
+    }
+
+    // ✅ Size the node arrays for ids below nodeCount (call before adding edges concurrently)
+    public void ensureNodes(int nodeCount) {
+        if (nodeCount > degrees.length) {
+            int capacity = Math.max(nodeCount, degrees.length * 2);
+            targets = Arrays.copyOf(targets, capacity);
+            degrees = Arrays.copyOf(degrees, capacity);
+        }
+    }
+
+    private static long pack(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,66 @@
+package models;
+
+import java.util.Arrays;
+
+// Effective (direct + inherited) privileges of every role, computed once.
+// Roles in the same hierarchy cycle share one bitset; components are folded
+// children-first so each component is visited exactly once.
+public final class PrivilegeClosure {
+    private final ImmutableBitSet[] rolePrivileges;
+    private final StronglyConnectedComponents components;
+
+    private PrivilegeClosure(ImmutableBitSet[] rolePrivileges, StronglyConnectedComponents components) {
+        this.rolePrivileges = rolePrivileges;
+        this.components = components;
+    }
+
+    // ✅ Build the closure for roles 0..roleCount-1
+    static PrivilegeClosure compute(int roleCount, int privilegeCount,
+                                    IntAdjacency roleHierarchy, IntAdjacency directPrivileges) {
+        StronglyConnectedComponents sccs = StronglyConnectedComponents.of(roleCount, roleHierarchy);
+        ImmutableBitSet[] componentPrivileges = new ImmutableBitSet[sccs.componentCount()];
+        ImmutableBitSet[] rolePrivileges = new ImmutableBitSet[roleCount];
+        long[] scratch = new long[(privilegeCount + 63) >>> 6];
+
+        // Component numbers are reverse topological, so children are always ready first
+        for (int component = 0; component < sccs.componentCount(); component++) {
+            for (int i = 0; i < sccs.componentSize(component); i++) {
+                int role = sccs.member(component, i);
+                for (int p = 0; p < directPrivileges.degree(role); p++) {
+                    int privilege = directPrivileges.target(role, p);
+                    scratch[privilege >>> 6] |= 1L << privilege;
+                }
+                for (int c = 0; c < roleHierarchy.degree(role); c++) {
+                    int child = roleHierarchy.target(role, c);
+                    if (child >= roleCount) continue;
+                    int childComponent = sccs.componentOf(child);
+                    if (childComponent != component) {
+                        componentPrivileges[childComponent].orInto(scratch);
+                    }
+                }
+            }
+
+            ImmutableBitSet privileges = ImmutableBitSet.of(scratch);
+            componentPrivileges[component] = privileges;
+            for (int i = 0; i < sccs.componentSize(component); i++) {
+                rolePrivileges[sccs.member(component, i)] = privileges;
+            }
+            Arrays.fill(scratch, 0L);
+        }
+        return new PrivilegeClosure(rolePrivileges, sccs);
+    }
+
+    // ✅ Effective privileges of a role; roles added after the closure was built have none
+    public ImmutableBitSet get(int roleId) {
+        return roleId < rolePrivileges.length ? rolePrivileges[roleId] : ImmutableBitSet.EMPTY;
+    }
+
+    public int roleCount() {
+        return rolePrivileges.length;
+    }
+
+    // ✅ The role hierarchy components the closure was folded over
+    public StronglyConnectedComponents getComponents() {
+        return components;
+    }
+}
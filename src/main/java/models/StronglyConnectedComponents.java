@@ -0,0 +1,112 @@
+package models;
+
+import java.util.Arrays;
+
+// Strongly connected components of a directed int graph (iterative Tarjan, no recursion).
+// Components are numbered in the order Tarjan completes them, which is reverse topological:
+// every component reachable from component c has a smaller number than c.
+public final class StronglyConnectedComponents {
+    private final int[] componentOf;
+    private final int[] members;        // nodes grouped by component
+    private final int[] memberOffsets;  // component c owns members[memberOffsets[c] .. memberOffsets[c + 1])
+
+    private StronglyConnectedComponents(int[] componentOf, int[] members, int[] memberOffsets) {
+        this.componentOf = componentOf;
+        this.members = members;
+        this.memberOffsets = memberOffsets;
+    }
+
+    // ✅ Compute the components of nodes 0..nodeCount-1 over the given edges
+    public static StronglyConnectedComponents of(int nodeCount, IntAdjacency edges) {
+        int[] index = new int[nodeCount];
+        int[] lowLink = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        Arrays.fill(index, -1);
+
+        int[] componentOf = new int[nodeCount];
+        int[] members = new int[nodeCount];
+        int[] memberOffsets = new int[nodeCount + 1];
+        int componentCount = 0;
+        int memberCount = 0;
+
+        int[] tarjanStack = new int[nodeCount];
+        int tarjanTop = 0;
+        int[] callNode = new int[nodeCount];
+        int[] callEdge = new int[nodeCount];
+        int nextIndex = 0;
+
+        for (int root = 0; root < nodeCount; root++) {
+            if (index[root] >= 0) continue;
+
+            int depth = 0;
+            callNode[0] = root;
+            callEdge[0] = 0;
+            index[root] = lowLink[root] = nextIndex++;
+            tarjanStack[tarjanTop++] = root;
+            onStack[root] = true;
+
+            while (depth >= 0) {
+                int node = callNode[depth];
+                if (callEdge[depth] < edges.degree(node)) {
+                    int next = edges.target(node, callEdge[depth]++);
+                    if (next >= nodeCount) continue;
+                    if (index[next] < 0) {
+                        // Descend into an unvisited node
+                        index[next] = lowLink[next] = nextIndex++;
+                        tarjanStack[tarjanTop++] = next;
+                        onStack[next] = true;
+                        depth++;
+                        callNode[depth] = next;
+                        callEdge[depth] = 0;
+                    } else if (onStack[next]) {
+                        lowLink[node] = Math.min(lowLink[node], index[next]);
+                    }
+                    continue;
+                }
+
+                // All edges done: close a component if this node is its root
+                if (lowLink[node] == index[node]) {
+                    memberOffsets[componentCount] = memberCount;
+                    int member;
+                    do {
+                        member = tarjanStack[--tarjanTop];
+                        onStack[member] = false;
+                        componentOf[member] = componentCount;
+                        members[memberCount++] = member;
+                    } while (member != node);
+                    componentCount++;
+                }
+
+                depth--;
+                if (depth >= 0) {
+                    int parent = callNode[depth];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+            }
+        }
+        memberOffsets[componentCount] = memberCount;
+
+        return new StronglyConnectedComponents(componentOf, members,
+                Arrays.copyOf(memberOffsets, componentCount + 1));
+    }
+
+    public int nodeCount() {
+        return componentOf.length;
+    }
+
+    public int componentCount() {
+        return memberOffsets.length - 1;
+    }
+
+    public int componentOf(int node) {
+        return componentOf[node];
+    }
+
+    public int componentSize(int component) {
+        return memberOffsets[component + 1] - memberOffsets[component];
+    }
+
+    public int member(int component, int i) {
+        return members[memberOffsets[component] + i];
+    }
+}
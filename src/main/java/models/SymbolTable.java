@@ -0,0 +1,105 @@
+package models;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+// Interns names to dense ids (0, 1, 2, ...) in first-seen order.
+// Open addressing keeps the table to two flat arrays instead of one boxed entry per name.
+public class SymbolTable {
+    private String[] names;
+    private int[] slots;      // hash slot -> id + 1 (0 marks an empty slot)
+    private int size;
+
+    public SymbolTable() {
+        this(16);
+    }
+
+    public SymbolTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        names = new String[Math.max(4, expectedSize)];
+        slots = new int[capacity];
+    }
+
+    // ✅ Return the id of a name, assigning the next free id if it is new
+    public int intern(String name) {
+        int mask = slots.length - 1;
+        int slot = mix(name.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (names[id].equals(name)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = size++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[id] = name;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    // ✅ Return the id of a name, or -1 if it was never interned
+    public int lookup(String name) {
+        int mask = slots.length - 1;
+        int slot = mix(name.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (names[id].equals(name)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Unknown symbol id: " + id);
+        }
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // ✅ Read-only view of all names, indexed by id
+    public List<String> names() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return name(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private void rehash() {
+        int[] newSlots = new int[slots.length * 2];
+        int mask = newSlots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(names[id].hashCode()) & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id + 1;
+        }
+        slots = newSlots;
+    }
+
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,226 @@
+package sodchecker;
+
+import detection.SoDViolationDetector.Granularity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Command-line arguments split into the positional file paths and "--name value" /
+// "--name=value" flags. Flags may appear anywhere on the command line.
+public class CliOptions {
+    private final List<String> positional = new ArrayList<>();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private String logLevel;
+    private String snapshotPath;
+    private final List<String> deltaPaths = new ArrayList<>();
+    private String previousReportPath;
+    private String diffPath;
+    private String rulesPath;
+    private String entitlementsPath;
+    private String metricsPath;
+    private Granularity granularity = Granularity.PRIVILEGE;
+    private int servePort;
+    private long loadBudgetBytes;
+    private boolean watch;
+
+    private CliOptions() {
+    }
+
+    // ✅ Parse the arguments; throws IllegalArgumentException on an unknown or malformed flag
+    public static CliOptions parse(String[] args) {
+        CliOptions options = new CliOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                options.positional.add(arg);
+                continue;
+            }
+
+            String name = arg;
+            String value = null;
+            int equals = arg.indexOf('=');
+            if (equals >= 0) {
+                name = arg.substring(0, equals);
+                value = arg.substring(equals + 1);
+            }
+
+            switch (name) {
+                case "--parallelism":
+                    options.parallelism = parsePositive(name, requireValue(args, i, name, value));
+                    break;
+                case "--load-budget":
+                    options.loadBudgetBytes = (long) parsePositive(name, requireValue(args, i, name, value)) << 20;
+                    break;
+                case "--serve":
+                    options.servePort = parsePositive(name, requireValue(args, i, name, value));
+                    break;
+                case "--snapshot":
+                case "--delta":
+                case "--previous-report":
+                case "--diff":
+                case "--rules":
+                case "--entitlements":
+                case "--metrics":
+                    options.setPath(name, requireValue(args, i, name, value));
+                    break;
+                case "--granularity":
+                    options.granularity = parseGranularity(name, requireValue(args, i, name, value));
+                    break;
+                case "--watch":
+                    options.watch = true;
+                    continue;
+                case "--quiet":
+                    options.logLevel = "warn";
+                    continue;
+                case "--verbose":
+                    options.logLevel = "debug";
+                    continue;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            // Flags with a value: "--name value" also consumes the next argument
+            if (value == null) {
+                i++;
+            }
+        }
+        return options;
+    }
+
+    public List<String> getPositional() {
+        return positional;
+    }
+
+    // Worker threads for graph building and detection (defaults to the number of cores)
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // slf4j-simple level chosen by --quiet ("warn") or --verbose ("debug"); null when neither was given
+    public String getLogLevel() {
+        return logLevel;
+    }
+
+    // Binary snapshot of the parsed input files (--snapshot); null when snapshots are off
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    // Edge delta files (--delta, repeatable); any delta switches the run to incremental mode
+    public List<String> getDeltaPaths() {
+        return deltaPaths;
+    }
+
+    public boolean isIncremental() {
+        return !deltaPaths.isEmpty();
+    }
+
+    // Report of the run the deltas apply to (--previous-report); null means the output path itself
+    public String getPreviousReportPath() {
+        return previousReportPath;
+    }
+
+    // Where an incremental run writes its new/resolved violations (--diff); null when not wanted
+    public String getDiffPath() {
+        return diffPath;
+    }
+
+    // SoD ruleset file (--rules); null means any privilege reached through two roles is a conflict
+    public String getRulesPath() {
+        return rulesPath;
+    }
+
+    // Heap the input files being loaded at the same time may take (--load-budget MB);
+    // half the maximum heap by default
+    public long getLoadBudgetBytes() {
+        return loadBudgetBytes > 0 ? loadBudgetBytes : Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    // Local port of the resident query service (--serve); 0 when running as a batch job
+    public int getServePort() {
+        return servePort;
+    }
+
+    public boolean isServer() {
+        return servePort > 0;
+    }
+
+    // Whether the service reloads its graph when an input file changes (--watch)
+    public boolean isWatch() {
+        return watch;
+    }
+
+    // Privilege-entitlement mapping sheet (--entitlements); null when entitlements are not loaded
+    public String getEntitlementsPath() {
+        return entitlementsPath;
+    }
+
+    // Where the JSON run report with per-phase timings goes (--metrics); null when not wanted
+    public String getMetricsPath() {
+        return metricsPath;
+    }
+
+    // What role overlaps are measured in without a ruleset (--granularity privilege|entitlement)
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    private void setPath(String name, String value) {
+        switch (name) {
+            case "--snapshot":
+                snapshotPath = value;
+                break;
+            case "--delta":
+                deltaPaths.add(value);
+                break;
+            case "--previous-report":
+                previousReportPath = value;
+                break;
+            case "--rules":
+                rulesPath = value;
+                break;
+            case "--entitlements":
+                entitlementsPath = value;
+                break;
+            case "--metrics":
+                metricsPath = value;
+                break;
+            default:
+                diffPath = value;
+                break;
+        }
+    }
+
+    // The flag's "--name=value" value, or else the argument after it
+    private static String requireValue(String[] args, int i, String name, String value) {
+        if (value != null) {
+            return value;
+        }
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + name);
+        }
+        return args[i + 1];
+    }
+
+    private static Granularity parseGranularity(String name, String value) {
+        switch (value.trim().toLowerCase()) {
+            case "privilege":
+                return Granularity.PRIVILEGE;
+            case "entitlement":
+                return Granularity.ENTITLEMENT;
+            default:
+                throw new IllegalArgumentException(name + " expects privilege or entitlement, got: " + value);
+        }
+    }
+
+    private static int parsePositive(String name, String value) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException(name + " expects a positive integer, got: " + value);
+    }
+}
@@ -0,0 +1,104 @@
+package sodchecker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// One added or removed edge from a delta file. Delta files are CSV with the columns
+//   CHANGE,RELATION,FROM_ID,TO_ID
+// where CHANGE is + (or add) / - (or remove) and RELATION is one of
+//   user-role       FROM_ID = USER_ID,       TO_ID = ROLE_ID
+//   role-role       FROM_ID = CHILD_ROLE_ID, TO_ID = PARENT_ROLE_ID
+//   role-privilege  FROM_ID = ROLE_ID,       TO_ID = PRIVILEGE_ID
+// IDs are the ones used in the extracts; "1317" and "1317.0" name the same ID.
+// Blank lines, lines starting with # and a CHANGE,... header line are ignored.
+public class EdgeDelta {
+    public enum Relation { USER_ROLE, ROLE_ROLE, ROLE_PRIVILEGE }
+
+    private final boolean added;
+    private final Relation relation;
+    private final String fromId;
+    private final String toId;
+
+    public EdgeDelta(boolean added, Relation relation, String fromId, String toId) {
+        this.added = added;
+        this.relation = relation;
+        this.fromId = fromId;
+        this.toId = toId;
+    }
+
+    // ✅ Parse a delta file; throws IllegalArgumentException naming the line of a malformed entry
+    public static List<EdgeDelta> read(Path file) throws IOException {
+        List<EdgeDelta> deltas = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.regionMatches(true, 0, "CHANGE,", 0, 7)) {
+                    continue;
+                }
+
+                String[] fields = line.split(",", -1);
+                if (fields.length != 4) {
+                    throw malformed(file, lineNumber, "expected CHANGE,RELATION,FROM_ID,TO_ID");
+                }
+                deltas.add(new EdgeDelta(parseChange(file, lineNumber, fields[0].trim()),
+                                         parseRelation(file, lineNumber, fields[1].trim()),
+                                         fields[2].trim(), fields[3].trim()));
+            }
+        }
+        return deltas;
+    }
+
+    public boolean isAdded() {
+        return added;
+    }
+
+    public Relation getRelation() {
+        return relation;
+    }
+
+    public String getFromId() {
+        return fromId;
+    }
+
+    public String getToId() {
+        return toId;
+    }
+
+    private static boolean parseChange(Path file, int lineNumber, String change) {
+        switch (change.toLowerCase()) {
+            case "+":
+            case "add":
+                return true;
+            case "-":
+            case "remove":
+                return false;
+            default:
+                throw malformed(file, lineNumber, "unknown change '" + change + "'");
+        }
+    }
+
+    private static Relation parseRelation(Path file, int lineNumber, String relation) {
+        switch (relation.toLowerCase()) {
+            case "user-role":
+                return Relation.USER_ROLE;
+            case "role-role":
+                return Relation.ROLE_ROLE;
+            case "role-privilege":
+                return Relation.ROLE_PRIVILEGE;
+            default:
+                throw malformed(file, lineNumber, "unknown relation '" + relation + "'");
+        }
+    }
+
+    private static IllegalArgumentException malformed(Path file, int lineNumber, String problem) {
+        return new IllegalArgumentException(file + ":" + lineNumber + ": " + problem);
+    }
+}
@@ -0,0 +1,412 @@
+package sodchecker;
+
+import detection.ChangeImpact;
+import detection.SoDRuleSet;
+import detection.SoDViolationDetector;
+import models.EmployeeGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ColumnTable;
+import utils.CsvReader;
+import utils.DiagnosticCounter;
+import utils.ExcelReader;
+import utils.InputIds;
+import utils.InputSnapshot;
+import utils.OutputGenerator;
+import utils.TableReader;
+import utils.ViolationSink;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+// Nightly re-run driven by edge deltas instead of fresh extracts. The graph is rebuilt from the
+// previous run's snapshot, the added/removed edges are applied to it, and only the employees the
+// change can reach (holders of a changed role or of one of its ancestors, plus employees whose own
+// assignments changed) are checked again. Their rows replace the old ones in the previous report;
+// every other employee's rows are copied over unchanged. The snapshot is updated with the applied
+// delta so the next incremental run starts from today's state.
+public class IncrementalRun {
+    private static final Logger log = LoggerFactory.getLogger(IncrementalRun.class);
+
+    // Columns of the new/resolved diff: the change followed by the report columns
+    static final String[] DIFF_HEADERS = diffHeaders();
+
+    private final Path snapshotPath;
+    private final List<String> deltaPaths;
+    private final String outputPath;
+    private final String previousReportPath;
+    private final String diffPath;
+    private final String rulesPath;
+    private final String entitlementsPath;
+    private final SoDViolationDetector.Granularity granularity;
+    private final ForkJoinPool pool;
+    // Report column holding the employee name, set once the detector is known
+    private int userColumn;
+
+    public IncrementalRun(CliOptions options, ForkJoinPool pool) {
+        this.snapshotPath = Paths.get(options.getSnapshotPath());
+        this.deltaPaths = options.getDeltaPaths();
+        this.outputPath = options.getPositional().get(0);
+        // Without --previous-report the report at the output path is updated in place
+        this.previousReportPath = options.getPreviousReportPath() != null ? options.getPreviousReportPath() : outputPath;
+        this.diffPath = options.getDiffPath();
+        this.rulesPath = options.getRulesPath();
+        this.entitlementsPath = options.getEntitlementsPath();
+        this.granularity = options.getGranularity();
+        this.pool = pool;
+    }
+
+    // ✅ Apply the deltas, re-check the affected employees and write the updated report (and diff)
+    public void run() throws IOException, InterruptedException, ExecutionException {
+        SoDRuleSet ruleSet = rulesPath != null ? SoDRuleSet.read(rulesPath) : null;
+        List<List<String[]>> tables = new ArrayList<>(InputSnapshot.loadAll(snapshotPath));
+        if (tables.size() < 5) {
+            throw new IOException("Snapshot " + snapshotPath + " holds " + tables.size() + " tables, expected at least 5");
+        }
+        List<EdgeDelta> deltas = new ArrayList<>();
+        for (String deltaPath : deltaPaths) {
+            deltas.addAll(EdgeDelta.read(Paths.get(deltaPath)));
+        }
+        boolean hasRelation = tables.size() > 5;
+        for (EdgeDelta delta : deltas) {
+            if (delta.getRelation() == EdgeDelta.Relation.ROLE_PRIVILEGE && !hasRelation) {
+                throw new IllegalArgumentException("role-privilege deltas need a snapshot taken with the privilege-role relation file");
+            }
+        }
+        log.info("Loaded previous input from " + snapshotPath + " and " + deltas.size() + " edge changes");
+
+        EmployeeGraph graph = new EmployeeGraph();
+        SoDChecker.buildGraph(graph, pool, tables);
+
+        if (entitlementsPath != null) {
+            ColumnTable mapping = TableReader.read(entitlementsPath, SoDChecker.ENTITLEMENTS, pool);
+            SoDChecker.buildPrivilegeEntitlements(graph, pool, mapping, tables.get(4));
+        }
+
+        int[] affected = applyDeltas(graph, tables, deltas);
+
+        // Re-check the affected employees, keeping their new rows per employee for the merge
+        Map<String, List<String[]>> recheckedRows = new HashMap<>();
+        SoDViolationDetector detector = SoDChecker.createDetector(graph, ruleSet, granularity);
+        userColumn = detector.getUserColumn();
+        detector.detectConflicts(affected, violation ->
+                recheckedRows.computeIfAbsent(violation[userColumn], name -> new ArrayList<>()).add(violation));
+
+        Map<String, List<String[]>> previousRows = readPreviousReport();
+        Set<String> recheckedNames = new HashSet<>();
+        for (int employee : affected) {
+            recheckedNames.add(graph.getEmployeeName(employee));
+        }
+        long violations = writeReport(graph, recheckedNames, recheckedRows, previousRows);
+        log.info("Found " + violations + " potential SoD violations");
+        log.info("Results saved to " + outputPath);
+
+        writeDiff(graph, affected, recheckedRows, previousRows);
+
+        InputSnapshot.saveDerived(snapshotPath, applyToTables(tables, deltas));
+        log.info("Snapshot " + snapshotPath + " updated with the applied changes");
+    }
+
+    // Applies the deltas to the graph and returns the ids of the employees they can affect.
+    // Ancestors of roles losing an edge are collected before the change, those gaining one after.
+    private int[] applyDeltas(EmployeeGraph graph, List<List<String[]>> tables, List<EdgeDelta> deltas) {
+        Map<String, String> userNames = idToName(tables.get(0), 5, 2);        // USER_ID -> USER_DISPLAY_NAME
+        Map<String, String> roleNames = idToName(tables.get(2), 0, 1);        // ROLE_ID -> ROLE_NAME
+        Map<String, String> privilegeNames = idToName(tables.get(4), 2, 1);   // PRIVILEGE_ID -> NAME
+
+        DiagnosticCounter unknownIds = new DiagnosticCounter("edge changes with unknown IDs skipped");
+        ChangeImpact impact = new ChangeImpact();
+        List<String> removedRoles = new ArrayList<>();
+        List<String> addedRoles = new ArrayList<>();
+        List<String[]> resolved = new ArrayList<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            EdgeDelta delta = deltas.get(i);
+            Map<String, String> fromNames = delta.getRelation() == EdgeDelta.Relation.USER_ROLE ? userNames : roleNames;
+            Map<String, String> toNames = delta.getRelation() == EdgeDelta.Relation.ROLE_PRIVILEGE ? privilegeNames : roleNames;
+            String from = fromNames.get(InputIds.normalize(delta.getFromId()));
+            String to = toNames.get(InputIds.normalize(delta.getToId()));
+            if (from == null || to == null) {
+                unknownIds.record(i, from == null ? delta.getFromId() : delta.getToId());
+                resolved.add(null);
+                continue;
+            }
+            resolved.add(new String[]{from, to});
+
+            if (delta.getRelation() == EdgeDelta.Relation.USER_ROLE) {
+                impact.addEmployee(from);
+            } else {
+                // role-role: the parent gains or loses a child; role-privilege: the role itself changes
+                String changedRole = delta.getRelation() == EdgeDelta.Relation.ROLE_ROLE ? to : from;
+                (delta.isAdded() ? addedRoles : removedRoles).add(changedRole);
+            }
+        }
+        unknownIds.report(log);
+
+        impact.addRolesWithAncestors(graph, removedRoles);
+        for (int i = 0; i < deltas.size(); i++) {
+            String[] names = resolved.get(i);
+            if (names == null) {
+                continue;
+            }
+            EdgeDelta delta = deltas.get(i);
+            switch (delta.getRelation()) {
+                case USER_ROLE:
+                    if (delta.isAdded()) graph.addRole(names[0], names[1]); else graph.removeRole(names[0], names[1]);
+                    break;
+                case ROLE_ROLE:
+                    if (delta.isAdded()) graph.addHierarchy(names[0], names[1]); else graph.removeHierarchy(names[0], names[1]);
+                    break;
+                case ROLE_PRIVILEGE:
+                    if (delta.isAdded()) graph.addRolePrivilege(names[0], names[1]); else graph.removeRolePrivilege(names[0], names[1]);
+                    break;
+            }
+        }
+        impact.addRolesWithAncestors(graph, addedRoles);
+
+        int[] affected = impact.affectedEmployeeIds(graph);
+        log.info(impact.getAffectedRoleCount() + " roles and " + affected.length + " employees affected by the change");
+        return affected;
+    }
+
+    // Previous report rows grouped by employee, in report order; the header row of every sheet is skipped.
+    // The report may be a workbook or a CSV report, gzip-compressed or not.
+    private Map<String, List<String[]>> readPreviousReport() throws IOException {
+        Map<String, List<String[]>> rows = new LinkedHashMap<>();
+        if (!Files.exists(Paths.get(previousReportPath))) {
+            log.warn("⚠ Previous report not found: " + previousReportPath + "; only re-checked employees will be reported");
+            return rows;
+        }
+        Consumer<String[]> addRow = row -> {
+            if (row.length <= userColumn || isHeader(row)) {
+                return;
+            }
+            rows.computeIfAbsent(row[userColumn], name -> new ArrayList<>()).add(row);
+        };
+        if (!OutputGenerator.isCsv(previousReportPath)) {
+            try {
+                ExcelReader.streamAllSheets(previousReportPath, addRow);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } else if (!previousReportPath.toLowerCase(Locale.ROOT).endsWith(".gz")) {
+            CsvReader.read(previousReportPath, ',', null, pool).forEach(addRow);
+        } else {
+            // CsvReader maps the file, so a compressed report is unpacked next to it first
+            Path unpacked = Files.createTempFile(Paths.get(previousReportPath).toAbsolutePath().getParent(), "report", ".csv");
+            try {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(Paths.get(previousReportPath)))) {
+                    Files.copy(in, unpacked, StandardCopyOption.REPLACE_EXISTING);
+                }
+                CsvReader.read(unpacked.toString(), ',', null, pool).forEach(addRow);
+            } finally {
+                Files.deleteIfExists(unpacked);
+            }
+        }
+        return rows;
+    }
+
+    // Writes the merged report in the graph's employee order, the same order a full run uses
+    private long writeReport(EmployeeGraph graph, Set<String> recheckedNames,
+                             Map<String, List<String[]>> recheckedRows,
+                             Map<String, List<String[]>> previousRows) throws IOException {
+        long count = 0;
+        Set<String> written = new HashSet<>();
+        ViolationSink report = OutputGenerator.openReport(outputPath, OutputGenerator.REPORT_HEADERS, pool);
+        try {
+            for (int employee = 0; employee < graph.getEmployeeCount(); employee++) {
+                String name = graph.getEmployeeName(employee);
+                Map<String, List<String[]>> source = recheckedNames.contains(name) ? recheckedRows : previousRows;
+                for (String[] row : source.getOrDefault(name, Collections.emptyList())) {
+                    report.accept(row);
+                    count++;
+                }
+                written.add(name);
+            }
+
+            // Rows of employees the graph no longer knows are kept rather than silently dropped
+            long orphaned = 0;
+            for (Map.Entry<String, List<String[]>> entry : previousRows.entrySet()) {
+                if (!written.contains(entry.getKey())) {
+                    for (String[] row : entry.getValue()) {
+                        report.accept(row);
+                        orphaned++;
+                    }
+                }
+            }
+            if (orphaned > 0) {
+                log.warn("⚠ Kept " + orphaned + " previous report rows for employees missing from the snapshot");
+            }
+            count += orphaned;
+        } catch (RuntimeException | Error e) {
+            // The previous report stays in place when the merged one cannot be finished
+            report.abort();
+            throw e;
+        }
+        report.close();
+        return count;
+    }
+
+    // Compares the old and new rows of every re-checked employee; unaffected employees cannot differ
+    private void writeDiff(EmployeeGraph graph, int[] affected,
+                           Map<String, List<String[]>> recheckedRows,
+                           Map<String, List<String[]>> previousRows) throws IOException {
+        long added = 0;
+        long resolved = 0;
+        ViolationSink diff = diffPath != null ? OutputGenerator.openReport(diffPath, DIFF_HEADERS, pool) : row -> { };
+        try {
+            for (int employee : affected) {
+                String name = graph.getEmployeeName(employee);
+                List<String[]> before = previousRows.getOrDefault(name, Collections.emptyList());
+                List<String[]> after = recheckedRows.getOrDefault(name, Collections.emptyList());
+                Set<List<String>> beforeKeys = new HashSet<>();
+                for (String[] row : before) {
+                    beforeKeys.add(rowKey(row));
+                }
+                Set<List<String>> afterKeys = new HashSet<>();
+                for (String[] row : after) {
+                    afterKeys.add(rowKey(row));
+                }
+
+                for (String[] row : after) {
+                    if (!beforeKeys.contains(rowKey(row))) {
+                        diff.accept(diffRow("New", row));
+                        added++;
+                    }
+                }
+                for (String[] row : before) {
+                    if (!afterKeys.contains(rowKey(row))) {
+                        diff.accept(diffRow("Resolved", row));
+                        resolved++;
+                    }
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            diff.abort();
+            throw e;
+        }
+        diff.close();
+        log.info(added + " new and " + resolved + " resolved violations across " + affected.length + " re-checked employees");
+    }
+
+    private static String[] diffHeaders() {
+        String[] headers = new String[OutputGenerator.REPORT_HEADERS.length + 1];
+        headers[0] = "Change";
+        System.arraycopy(OutputGenerator.REPORT_HEADERS, 0, headers, 1, OutputGenerator.REPORT_HEADERS.length);
+        return headers;
+    }
+
+    // Every sheet of a report starts with the REPORT_HEADERS row
+    private static boolean isHeader(String[] row) {
+        return row.length > 1 && row[0].equals(OutputGenerator.REPORT_HEADERS[0])
+                && row[1].equals(OutputGenerator.REPORT_HEADERS[1]);
+    }
+
+    // Rows read back from the report are trimmed and cut to Excel's cell limit, and may lack
+    // trailing empty cells; compare new rows the same way
+    private static List<String> rowKey(String[] row) {
+        List<String> key = new ArrayList<>(row.length);
+        for (String cell : row) {
+            key.add(cell == null ? "" : OutputGenerator.fitCell(cell).trim());
+        }
+        while (!key.isEmpty() && key.get(key.size() - 1).isEmpty()) {
+            key.remove(key.size() - 1);
+        }
+        return key;
+    }
+
+    private static String[] diffRow(String change, String[] row) {
+        String[] result = new String[row.length + 1];
+        result[0] = change;
+        System.arraycopy(row, 0, result, 1, row.length);
+        return result;
+    }
+
+    // The snapshot tables with removed edges dropped and added edges appended as new rows.
+    // Rows are matched on their IDs, so "1317" in a delta matches a "1317.0" cell.
+    static List<List<String[]>> applyToTables(List<List<String[]>> tables, List<EdgeDelta> deltas) {
+        List<List<String[]>> updated = new ArrayList<>(tables);
+        // New rows spell IDs the way the master tables do, so the next build can join them
+        Map<String, String> userIds = idToName(tables.get(0), 5, 5);
+        Map<String, String> roleIds = idToName(tables.get(2), 0, 0);
+        Map<String, String> privilegeIds = idToName(tables.get(4), 2, 2);
+
+        // Table index and the FROM/TO columns of each relation; new rows put the IDs in those columns
+        updateTable(updated, 1, 2, 0, userIds, roleIds, deltas, EdgeDelta.Relation.USER_ROLE);         // ROLE_ID, -, USER_ID
+        updateTable(updated, 3, 1, 2, roleIds, roleIds, deltas, EdgeDelta.Relation.ROLE_ROLE);         // -, CHILD_ROLE_ID, PARENT_ROLE_ID
+        if (updated.size() > 5) {
+            updateTable(updated, 5, 2, 1, roleIds, privilegeIds, deltas, EdgeDelta.Relation.ROLE_PRIVILEGE); // -, PRIVILEGE_ID, ROLE_ID
+        }
+        return updated;
+    }
+
+    private static void updateTable(List<List<String[]>> tables, int tableIndex, int fromColumn, int toColumn,
+                                    Map<String, String> fromIds, Map<String, String> toIds,
+                                    List<EdgeDelta> deltas, EdgeDelta.Relation relation) {
+        Set<List<String>> removed = new HashSet<>();
+        Set<List<String>> added = new LinkedHashSet<>();
+        for (EdgeDelta delta : deltas) {
+            if (delta.getRelation() != relation) {
+                continue;
+            }
+            List<String> key = Arrays.asList(InputIds.normalize(delta.getFromId()), InputIds.normalize(delta.getToId()));
+            // The last change to an edge wins
+            if (delta.isAdded()) {
+                removed.remove(key);
+                added.add(key);
+            } else {
+                added.remove(key);
+                removed.add(key);
+            }
+        }
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+
+        List<String[]> table = tables.get(tableIndex);
+        List<String[]> result = new ArrayList<>(table.size() + added.size());
+        int width = Math.max(fromColumn, toColumn) + 1;
+        for (int row = 0; row < table.size(); row++) {
+            String[] entry = table.get(row);
+            // Row 0 is the header and is always kept
+            if (row > 0 && entry.length >= width) {
+                List<String> key = Arrays.asList(InputIds.normalize(entry[fromColumn]), InputIds.normalize(entry[toColumn]));
+                if (removed.contains(key)) {
+                    continue;
+                }
+                added.remove(key);  // already present
+            }
+            result.add(entry);
+        }
+        for (List<String> key : added) {
+            String[] entry = new String[width];
+            Arrays.fill(entry, "");
+            entry[fromColumn] = fromIds.getOrDefault(key.get(0), key.get(0));
+            entry[toColumn] = toIds.getOrDefault(key.get(1), key.get(1));
+            result.add(entry);
+        }
+        tables.set(tableIndex, result);
+    }
+
+    // Lookup from normalized ID to a column of the same row (the name, or the ID as spelled); later rows win
+    private static Map<String, String> idToName(List<String[]> table, int idColumn, int nameColumn) {
+        Map<String, String> names = new HashMap<>();
+        int width = Math.max(idColumn, nameColumn) + 1;
+        for (int row = 1; row < table.size(); row++) {
+            String[] entry = table.get(row);
+            if (entry.length >= width) {
+                names.put(InputIds.normalize(entry[idColumn]), entry[nameColumn]);
+            }
+        }
+        return names;
+    }
+}
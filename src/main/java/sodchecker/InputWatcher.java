@@ -0,0 +1,105 @@
+package sodchecker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Watches a set of input files and runs a callback once they have changed. Files are watched
+// through their directories (WatchService cannot watch a single file), so a file replaced by a
+// rename is seen as well as one written in place. A new extract usually arrives as several
+// events, possibly across files, so the callback only runs after `quietMillis` without further
+// changes; changes made while it runs trigger one more call afterwards. Runs on a daemon thread.
+final class InputWatcher implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(InputWatcher.class);
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final Set<Path> files = new HashSet<>();
+    private final long quietMillis;
+    private final Runnable onChange;
+    private final Thread thread;
+
+    InputWatcher(List<String> paths, long quietMillis, Runnable onChange) throws IOException {
+        this.quietMillis = quietMillis;
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> watched = new HashSet<>();
+        for (String path : paths) {
+            Path file = Paths.get(path).toAbsolutePath().normalize();
+            files.add(file);
+            Path directory = file.getParent();
+            if (watched.add(directory)) {
+                WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                                  StandardWatchEventKinds.ENTRY_MODIFY);
+                directories.put(key, directory);
+            }
+        }
+        this.thread = new Thread(this::run, "sod-input-watcher");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+        log.info("Watching " + files.size() + " input files for changes");
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        watchService.close();
+    }
+
+    private void run() {
+        long lastChange = -1;
+        try {
+            while (true) {
+                WatchKey key = lastChange < 0
+                        ? watchService.take()
+                        : watchService.poll(Math.max(1, quietMillis - (System.currentTimeMillis() - lastChange)),
+                                            TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    if (isInputChange(key)) {
+                        lastChange = System.currentTimeMillis();
+                    }
+                    key.reset();
+                }
+                // Checked after every key too: other files in a busy directory keep poll from
+                // timing out, and must not hold the reload back
+                if (lastChange >= 0 && System.currentTimeMillis() - lastChange >= quietMillis) {
+                    lastChange = -1;
+                    runCallback();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private boolean isInputChange(WatchKey key) {
+        Path directory = directories.get(key);
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;  // events were lost, so assume an input was among them
+            } else if (files.contains(directory.resolve((Path) event.context()))) {
+                log.debug("Input changed: " + directory.resolve((Path) event.context()));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    // A failed reload must not stop the watcher; the next change gets another chance
+    private void runCallback() {
+        try {
+            onChange.run();
+        } catch (RuntimeException e) {
+            log.error("❌ Reload after input change failed: " + e.getMessage(), e);
+        }
+    }
+}
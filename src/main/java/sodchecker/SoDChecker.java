@@ -1,17 +1,53 @@
 package sodchecker;
 
+import detection.CompiledRuleSet;
+import detection.SoDRuleSet;
 import detection.SoDViolationDetector;
 import models.EmployeeGraph;
-import utils.ExcelReader;
+import models.EntitlementClosure;
+import models.GraphPartial;
+import models.PrivilegeClosure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.AhoCorasick;
+import utils.ColumnTable;
+import utils.DiagnosticCounter;
+import utils.InputIds;
+import utils.InputSnapshot;
+import utils.LoadScheduler;
 import utils.OutputGenerator;
+import utils.RunMetrics;
+import utils.TableReader;
+import utils.ViolationSink;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
 
 public class SoDChecker {
+    // Smallest slice of rows worth handing to a separate build task
+    private static final int MIN_CHUNK_ROWS = 1024;
+    // With --watch, how long the inputs must stay unchanged before the service reloads them
+    private static final long WATCH_QUIET_MILLIS = 2000;
+    // Columns the build reads from each input, found by header name or else at their usual position.
+    // Only these cells are kept when an input is read; the rest of each row is dropped as it is parsed.
+    static final ColumnTable.Schema USER_DETAILS = ColumnTable.schema("USER_ID", 5).and("USER_DISPLAY_NAME", 2);
+    static final ColumnTable.Schema USER_ROLE_MAPPING = ColumnTable.schema("ROLE_ID", 0).and("USER_ID", 2);
+    static final ColumnTable.Schema ROLE_MASTER = ColumnTable.schema("ROLE_ID", 0).and("ROLE_NAME", 1);
+    static final ColumnTable.Schema ROLE_TO_ROLE = ColumnTable.schema("CHILD_ROLE_ID", 1).and("PARENT_ROLE_ID", 2);
+    static final ColumnTable.Schema PRIVILEGE_MASTER = ColumnTable.schema("NAME", 1).and("PRIVILEGE_ID", 2);
+    static final ColumnTable.Schema PRIVILEGE_ROLE_RELATION = ColumnTable.schema("PRIVILEGE_ID", 1).and("ROLE_ID", 2);
+    // The --entitlements mapping (ENTITLEMENT_ID, ENTITLEMENT_NAME, PRIVILEGE_ID)
+    static final ColumnTable.Schema ENTITLEMENTS = ColumnTable.schema("ENTITLEMENT_NAME", 1).and("PRIVILEGE_ID", 2);
+    // The inputs in command-line order
+    private static final ColumnTable.Schema[] INPUT_SCHEMAS = {
+            USER_DETAILS, USER_ROLE_MAPPING, ROLE_MASTER, ROLE_TO_ROLE, PRIVILEGE_MASTER, PRIVILEGE_ROLE_RELATION};
+
+    // Created by configureLogging() once the --quiet/--verbose switch has set the log level
+    private static Logger log;
+
     public static void main(String[] args) {
-        // Initialize the employee graph
         long startTime = System.currentTimeMillis();
-        EmployeeGraph graph = new EmployeeGraph();
 
         //Define file paths
         // String userDetailsPath = "src/data/userDetails.xlsx";
@@ -21,97 +57,112 @@ public class SoDChecker {
         // String privilegeMasterPath = "src/data/pvlgsMaster.xlsx";
         // String outputPath="iRM_SOD_REPORTS.xlsx";
 
-        if (args.length < 5) {
-            System.err.println("Usage: java -jar app.jar <userDetailsPath> <userRoleMappingPath> <roleMasterDetailsPath> <roleToRolePath> <privilegeMasterPath> <outputPath>");
+        CliOptions options;
+        try {
+            options = CliOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            options = null;
+        }
+        boolean validArguments = options != null && (options.isIncremental()
+                ? options.getPositional().size() == 1 && options.getSnapshotPath() != null && !options.isServer()
+                : options.isServer()
+                ? options.getPositional().size() == 5 || options.getPositional().size() == 6
+                : options.getPositional().size() >= 6);
+        if (validArguments && options.getGranularity() == SoDViolationDetector.Granularity.ENTITLEMENT) {
+            if (options.getEntitlementsPath() == null || options.getRulesPath() != null) {
+                System.err.println("--granularity entitlement needs --entitlements and cannot be combined with --rules");
+                validArguments = false;
+            }
+        }
+        if (!validArguments) {
+            System.err.println("Usage: java -jar app.jar [--parallelism N] [--snapshot file] [--rules file] [--entitlements file] [--granularity privilege|entitlement] [--metrics file] [--load-budget MB] [--quiet|--verbose] <userDetailsPath> <userRoleMappingPath> <roleMasterDetailsPath> <roleToRolePath> <privilegeMasterPath> <outputPath> [privilegeRoleRelationPath]");
+            System.err.println("       java -jar app.jar --serve PORT [--watch] [--snapshot file] [--rules file] [--entitlements file] [--granularity privilege|entitlement] [--metrics file] [--load-budget MB] [--parallelism N] [--quiet|--verbose] <userDetailsPath> <userRoleMappingPath> <roleMasterDetailsPath> <roleToRolePath> <privilegeMasterPath> [privilegeRoleRelationPath]");
+            System.err.println("       java -jar app.jar --snapshot file --delta file [--delta file ...] [--previous-report file] [--diff file] [--rules file] [--entitlements file] [--granularity privilege|entitlement] [--parallelism N] [--quiet|--verbose] <outputPath>");
+            System.exit(1);
+        }
+
+        configureLogging(options.getLogLevel());
+        if (options.isIncremental()) {
+            runIncremental(options, startTime);
+            return;
+        }
+
+        // Read the ruleset up front so a broken file fails before the expensive work
+        SoDRuleSet ruleSet;
+        try {
+            ruleSet = readRules(options.getRulesPath());
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("❌ Cannot read SoD ruleset: " + e.getMessage());
             System.exit(1);
+            return;
+        }
+        if (options.isServer()) {
+            runServer(options, ruleSet, startTime);
+            return;
         }
 
-        String userDetailsPath = args[0];
-        String userRoleMappingPath = args[1];
-        String roleMasterDetailsPath = args[2];
-        String roleToRolePath = args[3];
-        String privilegeMasterPath = args[4];
-        String outputPath = args[5];
+        // Initialize the employee graph
+        EmployeeGraph graph = new EmployeeGraph();
 
-        // Create an executor service with 4 threads
-        ExecutorService executor = Executors.newFixedThreadPool(4);
-        List<Future<List<String[]>>> futures = new ArrayList<>();
+        List<String> paths = options.getPositional();
+        String userDetailsPath = paths.get(0);
+        String userRoleMappingPath = paths.get(1);
+        String roleMasterDetailsPath = paths.get(2);
+        String roleToRolePath = paths.get(3);
+        String privilegeMasterPath = paths.get(4);
+        String outputPath = paths.get(5);
+        // Optional: PRIVILEGE_ID/ROLE_ID relation (pvgRoleRelation.xlsx); without it privileges are linked by name
+        String privilegeRoleRelationPath = paths.size() > 6 ? paths.get(6) : null;
 
-        // Read data from Excel files using ExcelReader in parallel
-        System.out.println("Reading Excel files in parallel...");
-        futures.add(executor.submit(() -> ExcelReader.readExcelFile(userDetailsPath)));
-        futures.add(executor.submit(() -> ExcelReader.readExcelFile(userRoleMappingPath)));
-        futures.add(executor.submit(() -> ExcelReader.readExcelFile(roleMasterDetailsPath)));
-        futures.add(executor.submit(() -> ExcelReader.readExcelFile(roleToRolePath)));
-        futures.add(executor.submit(() -> ExcelReader.readExcelFile(privilegeMasterPath)));
+        List<String> sourcePaths = new ArrayList<>(Arrays.asList(
+                userDetailsPath, userRoleMappingPath, roleMasterDetailsPath, roleToRolePath, privilegeMasterPath));
+        if (privilegeRoleRelationPath != null) {
+            sourcePaths.add(privilegeRoleRelationPath);
+        }
+
+        ExecutorService executor = newLoadExecutor(sourcePaths, options);
+        // Work-stealing pool for building the graph and sharding detection
+        ForkJoinPool workerPool = new ForkJoinPool(options.getParallelism());
 
+        RunMetrics metrics = newRunMetrics("report", options);
+        boolean failed = false;
         try {
-            // Get the results from all futures
-            List<String[]> userDetails = futures.get(0).get();
-            List<String[]> userRoleMapping = futures.get(1).get();
-            List<String[]> roleMasterDetails = futures.get(2).get();
-            List<String[]> roleToRole = futures.get(3).get();
-            List<String[]> privilegeMaster = futures.get(4).get();
-            
-            // Log data counts
-            System.out.println("Data loaded - Users: " + userDetails.size() + 
-                               ", User-Role mappings: " + userRoleMapping.size() + 
-                               ", Roles: " + roleMasterDetails.size() + 
-                               ", Role hierarchies: " + roleToRole.size() + 
-                               ", Privileges: " + privilegeMaster.size());
-
-            // Process the data in parallel using CountDownLatch to wait for all tasks to complete
-            CountDownLatch latch = new CountDownLatch(3);
-            
-            // Build the employee-role graph in a thread
-            executor.submit(() -> {
-                try {
-                    buildEmployeeRoleGraph(graph, userDetails, userRoleMapping, roleMasterDetails);
-                } finally {
-                    latch.countDown();
-                }
-            });
-            
-            // Build the role hierarchy in a thread
-            executor.submit(() -> {
-                try {
-                    buildRoleHierarchy(graph, roleToRole, roleMasterDetails);
-                } finally {
-                    latch.countDown();
-                }
-            });
-            
-            // Build the role-privilege relationships in a thread
-            executor.submit(() -> {
-                try {
-                    buildRolePrivilegeRelationships(graph, privilegeMaster, roleMasterDetails);
-                } finally {
-                    latch.countDown();
-                }
-            });
-            
-            // Wait for all three processing tasks to complete
-            latch.await();
+            loadGraph(graph, executor, workerPool, sourcePaths, options, metrics);
             
             // Initialize the SoD violation detector as a separate component
-            SoDViolationDetector detector = new SoDViolationDetector(graph);
+            SoDViolationDetector detector = prepareDetector(graph, ruleSet, options, metrics);
             
-            // Run the violation detection
-            System.out.println("Detecting SoD violations...");
-            List<String[]> violations = detector.detectConflicts();
-
-            // Output the results
-            System.out.println("Found " + violations.size() + " potential SoD violations");
-            OutputGenerator.generateExcel(violations, outputPath);
+            // Run the violation detection, writing each violation to the report as it is found
+            log.info("Detecting SoD violations...");
+            ViolationSink report = OutputGenerator.openReport(outputPath, OutputGenerator.REPORT_HEADERS, workerPool);
+            long violations;
+            try {
+                violations = detector.detectConflicts(workerPool, report, metrics);
+            } catch (RuntimeException | Error e) {
+                // A partial report must not replace the previous one
+                report.abort();
+                throw e;
+            }
+            log.info("Found " + violations + " potential SoD violations");
+            // A CSV report encodes its last chunks on the worker pool while it closes
+            try (RunMetrics.Phase phase = metrics.startParallel("write report")) {
+                report.close();
+                phase.count("violations", violations);
+            }
             
             //OutputGenerator.generateExcel(violations, "output.xlsx");
-            System.out.println("Results saved to output.csv");
+            log.info("Results saved to " + outputPath);
             
         } catch (InterruptedException | ExecutionException e) {
-            System.err.println("Error in parallel processing: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error in parallel processing: " + e.getMessage(), e);
+            failed = true;
+        } catch (IOException e) {
+            log.error("❌ Error writing report to file: " + outputPath, e);
+            failed = true;
         } finally {
             // Shutdown the executor service
+            workerPool.shutdown();
             executor.shutdown();
             try {
                 if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
@@ -122,236 +173,718 @@ public class SoDChecker {
                 Thread.currentThread().interrupt();
             }
             long endTime = System.currentTimeMillis(); // End time tracking
-            System.out.println("Total time taken: " + (endTime - startTime) + " ms");
+            log.info("Total time taken: " + (endTime - startTime) + " ms");
+            writeRunMetrics(metrics, options);
+        }
+        if (failed) {
+            System.exit(1);  // no report was written; a previous one at the output path is left as it was
         }
     }
     
-    private static void buildEmployeeRoleGraph(EmployeeGraph graph, 
-                                             List<String[]> userDetails,
-                                             List<String[]> userRoleMapping,
-                                             List<String[]> roleMasterDetails) {
-        System.out.println("Building employee-role graph...");
-        
-        // Skip header rows
-        List<String[]> userDetailsData = new ArrayList<>(userDetails);
-        List<String[]> userRoleMappingData = new ArrayList<>(userRoleMapping);
-        List<String[]> roleMasterData = new ArrayList<>(roleMasterDetails);
-        
-        if (!userDetailsData.isEmpty()) userDetailsData.remove(0);
-        if (!userRoleMappingData.isEmpty()) userRoleMappingData.remove(0);
-        if (!roleMasterData.isEmpty()) roleMasterData.remove(0);
-        
-        // Create a thread-safe map to store user names and role names for parallel lookup
-        ConcurrentMap<String, String> userIdToNameMap = new ConcurrentHashMap<>();
-        ConcurrentMap<String, String> roleIdToNameMap = new ConcurrentHashMap<>();
+    // One thread per file loadGraph reads, so the load budget is the only limit on how many load at once
+    private static ExecutorService newLoadExecutor(List<String> sourcePaths, CliOptions options) {
+        return Executors.newFixedThreadPool(sourcePaths.size() + (options.getEntitlementsPath() != null ? 1 : 0));
+    }
+
+    // Read the input files (and the --entitlements sheet) and build the graph from them.
+    // Paths are in command-line order without the output path; a 6th path is the privilege-role relation.
+    static void loadGraph(EmployeeGraph graph, ExecutorService executor, ForkJoinPool pool,
+                          List<String> sourcePaths, CliOptions options, RunMetrics metrics)
+            throws InterruptedException, ExecutionException {
+        // Loads run on the executor as the heap budget allows
+        LoadScheduler loads = new LoadScheduler(executor, options.getLoadBudgetBytes());
+
+        // The entitlement mapping is not part of the snapshot; it is read next to the other files
+        String entitlementsPath = options.getEntitlementsPath();
+        Future<ColumnTable> entitlementMapping = entitlementsPath != null
+                ? loads.add(entitlementsPath, TableReader.estimateBytes(entitlementsPath),
+                            () -> readTable(entitlementsPath, ENTITLEMENTS, pool, metrics)) : null;
+
+        // Read the input files in parallel, or take them from the snapshot when unchanged
+        List<ColumnTable> tables = readInputs(loads, pool, sourcePaths, options.getSnapshotPath(), metrics);
         
-        // Precompute maps for faster lookups
-        for (String[] user : userDetailsData) {
-            if (user.length > 5) {
-                userIdToNameMap.put(user[5], user[2]); // Map USER_ID to USER_DISPLAY_NAME
+        // Log data counts
+        log.info("Data loaded - Users: " + tables.get(0).rowCount() + 
+                 ", User-Role mappings: " + tables.get(1).rowCount() + 
+                 ", Roles: " + tables.get(2).rowCount() + 
+                 ", Role hierarchies: " + tables.get(3).rowCount() + 
+                 ", Privileges: " + tables.get(4).rowCount() +
+                 (tables.size() > 5 ? ", Privilege-Role relations: " + tables.get(5).rowCount() : ""));
+
+        // The build drops each table once it is done with it; the entitlements still need the privileges
+        ColumnTable privilegeMaster = entitlementMapping != null ? tables.get(4) : null;
+        buildGraph(graph, pool, tables, metrics);
+        if (entitlementMapping != null) {
+            ColumnTable mapping = entitlementMapping.get();
+            try (RunMetrics.Phase phase = metrics.startParallel("build privilege entitlements")) {
+                buildPrivilegeEntitlements(graph, pool, mapping, privilegeMaster);
+                phase.count("rows", mapping.rowCount()).count("edges", graph.getPrivilegeEntitlementCount());
+            }
+        }
+    }
+
+    // The schema's columns of one input file (XLSX or CSV/TSV), timed as its own phase. A large
+    // CSV is parsed on the pool, so the phase is measured on the calling thread only.
+    private static ColumnTable readTable(String path, ColumnTable.Schema schema, ForkJoinPool pool, RunMetrics metrics)
+            throws IOException {
+        try (RunMetrics.Phase phase = metrics.start("read " + Path.of(path).getFileName())) {
+            ColumnTable table = TableReader.read(path, schema, pool);
+            phase.count("rows", table.rowCount());
+            return table;
+        }
+    }
+    
+    // Load the graph once and answer checks over HTTP until the process is stopped. With --watch
+    // a changed input file is loaded into a new graph in the background and swapped in whole.
+    private static void runServer(CliOptions options, SoDRuleSet ruleSet, long startTime) {
+        try {
+            RunMetrics metrics = newRunMetrics("serve", options);
+            EmployeeGraph graph = loadServedGraph(options, metrics);
+            SoDViolationDetector detector = prepareDetector(graph, ruleSet, options, metrics);
+            writeRunMetrics(metrics, options);
+            SoDServer server = new SoDServer(options.getServePort(), graph, detector);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+            if (options.isWatch()) {
+                new InputWatcher(watchedPaths(options), WATCH_QUIET_MILLIS, () -> reloadServer(server, options)).start();
+            }
+            log.info("Ready after " + (System.currentTimeMillis() - startTime) + " ms");
+        } catch (InterruptedException | ExecutionException e) {
+            log.error("Error in parallel processing: " + e.getMessage(), e);
+            System.exit(1);
+        } catch (IOException e) {
+            log.error("❌ Cannot start the SoD service on port " + options.getServePort() + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Build a new graph from the current input files and publish it; on any failure the
+    // service keeps answering from the graph it already has
+    private static void reloadServer(SoDServer server, CliOptions options) {
+        long start = System.currentTimeMillis();
+        log.info("Input files changed, reloading...");
+        try {
+            RunMetrics metrics = newRunMetrics("reload", options);
+            SoDRuleSet ruleSet = readRules(options.getRulesPath());
+            EmployeeGraph graph = loadServedGraph(options, metrics);
+            server.publish(graph, prepareDetector(graph, ruleSet, options, metrics));
+            log.info("Reloaded in " + (System.currentTimeMillis() - start) + " ms");
+            writeRunMetrics(metrics, options);
+        } catch (IOException | ExecutionException | RuntimeException e) {
+            log.error("❌ Reload failed, still serving the previous graph: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // One complete graph for the service, read with pools that only live for the load
+    private static EmployeeGraph loadServedGraph(CliOptions options, RunMetrics metrics)
+            throws InterruptedException, ExecutionException {
+        EmployeeGraph graph = new EmployeeGraph();
+        ExecutorService executor = newLoadExecutor(options.getPositional(), options);
+        ForkJoinPool workerPool = new ForkJoinPool(options.getParallelism());
+        try {
+            loadGraph(graph, executor, workerPool, options.getPositional(), options, metrics);
+            return graph;
+        } finally {
+            // Queries run on the server's own threads; the load pools are no longer needed
+            workerPool.shutdown();
+            executor.shutdown();
+        }
+    }
+
+    // The files a reload reads: the inputs, and the ruleset and entitlement mapping when given
+    private static List<String> watchedPaths(CliOptions options) {
+        List<String> paths = new ArrayList<>(options.getPositional());
+        if (options.getRulesPath() != null) {
+            paths.add(options.getRulesPath());
+        }
+        if (options.getEntitlementsPath() != null) {
+            paths.add(options.getEntitlementsPath());
+        }
+        return paths;
+    }
+    
+    // Apply the --delta files to the previous run's snapshot and report, re-checking only the affected employees
+    private static void runIncremental(CliOptions options, long startTime) {
+        ForkJoinPool workerPool = new ForkJoinPool(options.getParallelism());
+        boolean failed = false;
+        try {
+            new IncrementalRun(options, workerPool).run();
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("❌ Incremental run failed: " + e.getMessage(), e);
+            failed = true;
+        } catch (InterruptedException | ExecutionException e) {
+            log.error("Error in parallel processing: " + e.getMessage(), e);
+            failed = true;
+        } finally {
+            workerPool.shutdown();
+            log.info("Total time taken: " + (System.currentTimeMillis() - startTime) + " ms");
+        }
+        if (failed) {
+            System.exit(1);  // as a failed report run does, so schedulers see the failure
+        }
+    }
+    
+    // Build the privilege closure (which also finds the hierarchy's strongly connected components)
+    // and then the detector, each as a timed phase
+    private static SoDViolationDetector prepareDetector(EmployeeGraph graph, SoDRuleSet ruleSet, CliOptions options,
+                                                        RunMetrics metrics) {
+        try (RunMetrics.Phase phase = metrics.startParallel("privilege closure")) {
+            PrivilegeClosure closure = graph.getPrivilegeClosure();
+            phase.count("roles", closure.roleCount()).count("components", closure.getComponents().componentCount());
+        }
+        try (RunMetrics.Phase phase = metrics.startParallel("prepare detector")) {
+            SoDViolationDetector detector = createDetector(graph, ruleSet, options.getGranularity());
+            phase.count("rules", ruleSet != null ? ruleSet.size() : 0);
+            return detector;
+        }
+    }
+
+    // Run metrics describing the kind of run and the options that shape its cost
+    private static RunMetrics newRunMetrics(String mode, CliOptions options) {
+        RunMetrics metrics = new RunMetrics();
+        metrics.attribute("mode", mode);
+        metrics.attribute("parallelism", options.getParallelism());
+        metrics.attribute("granularity", options.getGranularity().name().toLowerCase());
+        metrics.attribute("rules", options.getRulesPath() != null ? options.getRulesPath() : "none");
+        return metrics;
+    }
+
+    // Write the --metrics run report, if one was asked for
+    private static void writeRunMetrics(RunMetrics metrics, CliOptions options) {
+        String metricsPath = options.getMetricsPath();
+        if (metricsPath == null) {
+            return;
+        }
+        try {
+            metrics.writeJson(Path.of(metricsPath));
+            log.info("Run metrics written to " + metricsPath);
+        } catch (IOException e) {
+            log.warn("⚠ Could not write run metrics " + metricsPath + ": " + e.getMessage());
+        }
+    }
+
+    // Detector for the ruleset compiled against the graph, or for plain overlaps at the given granularity without one
+    static SoDViolationDetector createDetector(EmployeeGraph graph, SoDRuleSet ruleSet,
+                                               SoDViolationDetector.Granularity granularity) {
+        if (ruleSet == null) {
+            if (granularity == SoDViolationDetector.Granularity.ENTITLEMENT) {
+                EntitlementClosure entitlements = graph.getEntitlementClosure();
+                log.info("Entitlement sets of " + entitlements.roleCount() + " roles take " +
+                         entitlements.sizeInBytes() / 1024 + " KB");
+            }
+            return new SoDViolationDetector(graph, granularity);
+        }
+        return new SoDViolationDetector(graph, CompiledRuleSet.compile(ruleSet, graph));
+    }
+
+    // The --rules ruleset, or null when none was given
+    static SoDRuleSet readRules(String rulesPath) throws IOException {
+        if (rulesPath == null) {
+            return null;
+        }
+        SoDRuleSet ruleSet = SoDRuleSet.read(rulesPath);
+        log.info("Loaded " + ruleSet.size() + " SoD rules from " + rulesPath);
+        return ruleSet;
+    }
+    
+    // Read every source file through the load scheduler. With a snapshot path, files whose content hash is
+    // unchanged are taken from the snapshot instead, and the snapshot is rewritten if any file was re-read.
+    private static List<ColumnTable> readInputs(LoadScheduler loads, ForkJoinPool pool,
+                                                List<String> sourcePaths, String snapshotPath,
+                                                RunMetrics metrics)
+            throws InterruptedException, ExecutionException {
+        InputSnapshot snapshot = null;
+        if (snapshotPath != null) {
+            try (RunMetrics.Phase phase = metrics.start("open snapshot")) {
+                snapshot = InputSnapshot.open(Path.of(snapshotPath), sourcePaths);
+                phase.count("files", sourcePaths.size());
+            } catch (IOException e) {
+                log.warn("⚠ Input snapshot disabled, cannot hash the input files: " + e.getMessage());
+            }
+        }
+
+        List<Future<ColumnTable>> futures = new ArrayList<>();
+        int fromSnapshot = 0;
+        for (int i = 0; i < sourcePaths.size(); i++) {
+            List<String[]> cached = snapshot != null ? snapshot.getTable(i) : null;
+            if (cached != null) {
+                futures.add(CompletableFuture.completedFuture(ColumnTable.of(cached, INPUT_SCHEMAS[i])));
+                fromSnapshot++;
+            } else {
+                String path = sourcePaths.get(i);
+                ColumnTable.Schema schema = INPUT_SCHEMAS[i];
+                futures.add(loads.add(path, TableReader.estimateBytes(path), () -> readTable(path, schema, pool, metrics)));
+            }
+        }
+        loads.start();
+        if (fromSnapshot < sourcePaths.size()) {
+            log.info("Reading input files in parallel...");
+        }
+        if (fromSnapshot > 0) {
+            log.info("Loaded " + fromSnapshot + " of " + sourcePaths.size() + " input files from snapshot " + snapshotPath);
+        }
+
+        List<ColumnTable> tables = new ArrayList<>(futures.size());
+        for (Future<ColumnTable> future : futures) {
+            tables.add(future.get());
+        }
+
+        // The snapshot keeps only the columns that were read, at their positions in the file
+        if (snapshot != null && !snapshot.isCurrent()) {
+            try (RunMetrics.Phase phase = metrics.start("save snapshot")) {
+                List<List<String[]>> rows = new ArrayList<>(tables.size());
+                for (ColumnTable table : tables) {
+                    rows.add(table.asRows());
+                }
+                snapshot.save(rows);
+                phase.count("tables", rows.size());
+            } catch (IOException e) {
+                log.warn("⚠ Could not save input snapshot " + snapshotPath + ": " + e.getMessage());
+            }
+        }
+        return tables;
+    }
+    
+    // Build the graph one phase at a time; each phase fans its rows out over the fork/join pool
+    // and merges the thread-local partials in row order, so the graph is the same on every run.
+    // Tables are rows as read (row 0 the header) in command-line order; a 6th table is the
+    // privilege-role relation.
+    static void buildGraph(EmployeeGraph graph, ForkJoinPool pool, List<List<String[]>> tables)
+            throws InterruptedException, ExecutionException {
+        List<ColumnTable> columnTables = new ArrayList<>(tables.size());
+        for (int i = 0; i < tables.size(); i++) {
+            columnTables.add(ColumnTable.of(tables.get(i), INPUT_SCHEMAS[i]));
+        }
+        buildGraph(graph, pool, columnTables, RunMetrics.DISABLED);
+    }
+
+    // Same, timing each phase with its input rows and the edges it leaves in the graph. The role
+    // master is indexed once for all phases. Entries of `tables` are set to null as soon as no
+    // later phase needs them, so their columns can be collected while the rest of the graph is built.
+    static void buildGraph(EmployeeGraph graph, ForkJoinPool pool, List<ColumnTable> tables, RunMetrics metrics)
+            throws InterruptedException, ExecutionException {
+        ColumnTable roleMaster = tables.get(2);
+        Map<String, String> roleNames = roleNamesById(roleMaster);
+        try (RunMetrics.Phase phase = metrics.startParallel("build employee roles")) {
+            buildEmployeeRoleGraph(graph, pool, tables.get(0), tables.get(1), roleNames);
+            phase.count("rows", tables.get(1).rowCount()).count("edges", graph.getAssignmentCount());
+        }
+        tables.set(0, null);
+        tables.set(1, null);
+        try (RunMetrics.Phase phase = metrics.startParallel("build role hierarchy")) {
+            buildRoleHierarchy(graph, pool, tables.get(3), roleNames);
+            phase.count("rows", tables.get(3).rowCount()).count("edges", graph.getHierarchyEdgeCount());
+        }
+        tables.set(3, null);
+        try (RunMetrics.Phase phase = metrics.startParallel("build role privileges")) {
+            if (tables.size() > 5) {
+                buildRolePrivilegeRelationships(graph, pool, tables.get(5), tables.get(4), roleNames);
+                phase.count("rows", tables.get(5).rowCount());
+            } else {
+                buildRolePrivilegeRelationships(graph, pool, tables.get(4), roleMaster);
+                phase.count("rows", tables.get(4).rowCount());
             }
+            phase.count("edges", graph.getRolePrivilegeCount());
         }
+        Collections.fill(tables, null);
+    }
+
+    // ROLE_ID (normalized) -> ROLE_NAME, shared by every phase that joins on role IDs; later rows win
+    static Map<String, String> roleNamesById(ColumnTable roleMaster) {
+        ColumnTable.Column ids = roleMaster.column("ROLE_ID");
+        ColumnTable.Column names = roleMaster.column("ROLE_NAME");
+        Map<String, String> roleNames = new HashMap<>(roleMaster.rowCount() * 2);
+        for (int row = 0; row < roleMaster.rowCount(); row++) {
+            String id = ids.get(row);
+            String name = names.get(row);
+            if (id != null && name != null) {
+                roleNames.put(InputIds.normalize(id), name);
+            }
+        }
+        return roleNames;
+    }
+
+    // Rows as read (row 0 the header), for callers that hold whole rows such as the benchmarks
+    static void buildEmployeeRoleGraph(EmployeeGraph graph,
+                                       ForkJoinPool pool,
+                                       List<String[]> userDetails,
+                                       List<String[]> userRoleMapping,
+                                       List<String[]> roleMasterDetails)
+            throws InterruptedException, ExecutionException {
+        buildEmployeeRoleGraph(graph, pool, ColumnTable.of(userDetails, USER_DETAILS),
+                               ColumnTable.of(userRoleMapping, USER_ROLE_MAPPING),
+                               roleNamesById(ColumnTable.of(roleMasterDetails, ROLE_MASTER)));
+    }
+
+    static void buildEmployeeRoleGraph(EmployeeGraph graph, 
+                                     ForkJoinPool pool,
+                                     ColumnTable userDetails,
+                                     ColumnTable userRoleMapping,
+                                     Map<String, String> roleNames)
+            throws InterruptedException, ExecutionException {
+        log.info("Building employee-role graph...");
         
-        for (String[] role : roleMasterData) {
-            if (role.length > 1) {
-                roleIdToNameMap.put(role[0], role[1]); // Map ROLE_ID to ROLE_NAME
+        // Precompute the user lookup; it is only read once the build tasks run
+        Map<String, String> userIdToNameMap = new HashMap<>(userDetails.rowCount() * 2);
+        ColumnTable.Column userIds = userDetails.column("USER_ID");
+        ColumnTable.Column displayNames = userDetails.column("USER_DISPLAY_NAME");
+        for (int row = 0; row < userDetails.rowCount(); row++) {
+            String userID = userIds.get(row);
+            String displayName = displayNames.get(row);
+            if (userID != null && displayName != null) {
+                userIdToNameMap.put(InputIds.normalize(userID), displayName); // Map USER_ID to USER_DISPLAY_NAME
             }
         }
         
-        // Process user-role mappings in parallel chunks
-        int chunkSize = Math.max(1, userRoleMappingData.size() / 4);
-        List<List<String[]>> chunks = new ArrayList<>();
+        DiagnosticCounter incomplete = new DiagnosticCounter("incomplete user-role mapping records", 0);
+        DiagnosticCounter unknownUsers = new DiagnosticCounter("user-role mappings with unknown user IDs");
+        DiagnosticCounter unknownRoles = new DiagnosticCounter("user-role mappings with unknown role IDs");
         
-        for (int i = 0; i < userRoleMappingData.size(); i += chunkSize) {
-            int end = Math.min(i + chunkSize, userRoleMappingData.size());
-            chunks.add(userRoleMappingData.subList(i, end));
-        }
+        ColumnTable.Column roleIds = userRoleMapping.column("ROLE_ID");
+        ColumnTable.Column mappedUserIds = userRoleMapping.column("USER_ID");
         
-        // Process each chunk in parallel
-        CountDownLatch chunkLatch = new CountDownLatch(chunks.size());
-        for (List<String[]> chunk : chunks) {
-            Thread t = new Thread(() -> {
-                try {
-                    for (String[] entry : chunk) {
-                        if (entry.length < 3) {
-                            System.out.println("⚠ Skipping incomplete user-role mapping record");
-                            continue;
-                        }
-                        
-                        String roleID = entry[0]; // ROLE_ID
-                        String userID = entry[2]; // USER_ID
-                        
-                        String employeeName = userIdToNameMap.get(userID);
-                        String roleName = roleIdToNameMap.get(roleID);
-                        
-                        if (employeeName != null && roleName != null) {
-                            synchronized (graph) {
-                                graph.addRole(employeeName, roleName);
-                            }
-                            System.out.println("Added role mapping: " + employeeName + " -> " + roleName);
-                        } else {
-                            if (employeeName == null) {
-                                System.out.println("⚠ UserID not found: " + userID);
-                            }
-                            if (roleName == null) {
-                                System.out.println("⚠ RoleID not found: " + roleID);
-                            }
-                        }
-                    }
-                } finally {
-                    chunkLatch.countDown();
+        // Each chunk fills its own partial without locking; the partials are merged in row order
+        graph.merge(buildPartials(pool, userRoleMapping.rowCount(), (partial, row) -> {
+            String roleID = roleIds.get(row); // ROLE_ID
+            String userID = mappedUserIds.get(row); // USER_ID
+            if (roleID == null || userID == null) {
+                log.debug("⚠ Skipping incomplete user-role mapping record");
+                incomplete.record(row, null);
+                return;
+            }
+            
+            String employeeName = userIdToNameMap.get(InputIds.normalize(userID));
+            String roleName = roleNames.get(InputIds.normalize(roleID));
+            
+            if (employeeName != null && roleName != null) {
+                partial.addRole(employeeName, roleName);
+                log.trace("Added role mapping: {} -> {}", employeeName, roleName);
+            } else {
+                if (employeeName == null) {
+                    log.debug("⚠ UserID not found: {}", userID);
+                    unknownUsers.record(row, userID);
                 }
-            });
-            t.start();
-        }
+                if (roleName == null) {
+                    log.debug("⚠ RoleID not found: {}", roleID);
+                    unknownRoles.record(row, roleID);
+                }
+            }
+        }), pool);
         
-        try {
-            chunkLatch.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            System.err.println("Thread interrupted while building employee-role graph: " + e.getMessage());
-        }
+        incomplete.report(log);
+        unknownUsers.report(log);
+        unknownRoles.report(log);
     }
     
-    private static void buildRoleHierarchy(EmployeeGraph graph,
-                                         List<String[]> roleToRole,
-                                         List<String[]> roleMasterDetails) {
-        System.out.println("Building role hierarchy...");
+    // Rows as read (row 0 the header), for callers that hold whole rows such as the benchmarks
+    static void buildRoleHierarchy(EmployeeGraph graph,
+                                   ForkJoinPool pool,
+                                   List<String[]> roleToRole,
+                                   List<String[]> roleMasterDetails)
+            throws InterruptedException, ExecutionException {
+        buildRoleHierarchy(graph, pool, ColumnTable.of(roleToRole, ROLE_TO_ROLE),
+                           roleNamesById(ColumnTable.of(roleMasterDetails, ROLE_MASTER)));
+    }
+
+    static void buildRoleHierarchy(EmployeeGraph graph,
+                                 ForkJoinPool pool,
+                                 ColumnTable roleToRole,
+                                 Map<String, String> roleNames)
+            throws InterruptedException, ExecutionException {
+        log.info("Building role hierarchy...");
         
-        // Skip header rows
-        List<String[]> roleToRoleData = new ArrayList<>(roleToRole);
-        List<String[]> roleMasterData = new ArrayList<>(roleMasterDetails);
+        DiagnosticCounter incomplete = new DiagnosticCounter("incomplete role hierarchy records", 0);
+        DiagnosticCounter unknownChildren = new DiagnosticCounter("role hierarchy records with unknown child role IDs");
+        DiagnosticCounter unknownParents = new DiagnosticCounter("role hierarchy records with unknown parent role IDs");
         
-        if (!roleToRoleData.isEmpty()) roleToRoleData.remove(0);
-        if (!roleMasterData.isEmpty()) roleMasterData.remove(0);
+        ColumnTable.Column childIds = roleToRole.column("CHILD_ROLE_ID");
+        ColumnTable.Column parentIds = roleToRole.column("PARENT_ROLE_ID");
         
-        // Create a thread-safe map for role name lookups
-        Map<String, String> roleIdToNameMap = new ConcurrentHashMap<>();
-        for (String[] role : roleMasterData) {
-            if (role.length > 1) {
-                roleIdToNameMap.put(role[0], role[1]); // Map ROLE_ID to ROLE_NAME
+        // Each chunk fills its own partial without locking; the partials are merged in row order
+        graph.merge(buildPartials(pool, roleToRole.rowCount(), (partial, row) -> {
+            String childRoleID = childIds.get(row); // CHILD_ROLE_ID
+            String parentRoleID = parentIds.get(row); // PARENT_ROLE_ID
+            if (childRoleID == null || parentRoleID == null) {
+                log.debug("⚠ Skipping incomplete role hierarchy record");
+                incomplete.record(row, null);
+                return;
             }
-        }
+            
+            String childRole = roleNames.get(InputIds.normalize(childRoleID));
+            String parentRole = roleNames.get(InputIds.normalize(parentRoleID));
+            
+            if (childRole != null && parentRole != null) {
+                partial.addHierarchy(childRole, parentRole);
+                log.trace("Added hierarchy: {} -> Parent_{}", childRole, parentRole);
+            } else {
+                if (childRole == null) {
+                    log.debug("⚠ Child RoleID not found: {}", childRoleID);
+                    unknownChildren.record(row, childRoleID);
+                }
+                if (parentRole == null) {
+                    log.debug("⚠ Parent RoleID not found: {}", parentRoleID);
+                    unknownParents.record(row, parentRoleID);
+                }
+            }
+        }), pool);
         
-        // Process role hierarchies in parallel chunks
-        int chunkSize = Math.max(1, roleToRoleData.size() / 4);
-        List<List<String[]>> chunks = new ArrayList<>();
+        incomplete.report(log);
+        unknownChildren.report(log);
+        unknownParents.report(log);
+    }
+    
+    // Rows as read (row 0 the header), for callers that hold whole rows such as the benchmarks
+    static void buildRolePrivilegeRelationships(EmployeeGraph graph,
+                                                ForkJoinPool pool,
+                                                List<String[]> privilegeRoleRelation,
+                                                List<String[]> privilegeMaster,
+                                                List<String[]> roleMasterDetails)
+            throws InterruptedException, ExecutionException {
+        buildRolePrivilegeRelationships(graph, pool, ColumnTable.of(privilegeRoleRelation, PRIVILEGE_ROLE_RELATION),
+                                        ColumnTable.of(privilegeMaster, PRIVILEGE_MASTER),
+                                        roleNamesById(ColumnTable.of(roleMasterDetails, ROLE_MASTER)));
+    }
+
+    static void buildRolePrivilegeRelationships(EmployeeGraph graph,
+                                             ForkJoinPool pool,
+                                             ColumnTable privilegeRoleRelation,
+                                             ColumnTable privilegeMaster,
+                                             Map<String, String> roleNames)
+            throws InterruptedException, ExecutionException {
+        log.info("Building role-privilege relationships from the privilege-role relation...");
         
-        for (int i = 0; i < roleToRoleData.size(); i += chunkSize) {
-            int end = Math.min(i + chunkSize, roleToRoleData.size());
-            chunks.add(roleToRoleData.subList(i, end));
-        }
+        // Hash the privilege side of the join once; the role side is the shared role index
+        Map<String, String> privilegeIdToNameMap = privilegeNamesById(privilegeMaster);
         
-        // Process each chunk in parallel
-        CountDownLatch chunkLatch = new CountDownLatch(chunks.size());
-        for (List<String[]> chunk : chunks) {
-            Thread t = new Thread(() -> {
-                try {
-                    for (String[] entry : chunk) {
-                        if (entry.length < 3) {
-                            System.out.println("⚠ Skipping incomplete role hierarchy record");
-                            continue;
-                        }
-                        
-                        String childRoleID = entry[1]; // CHILD_ROLE_ID
-                        String parentRoleID = entry[2]; // PARENT_ROLE_ID
-                        
-                        String childRole = roleIdToNameMap.get(childRoleID);
-                        String parentRole = roleIdToNameMap.get(parentRoleID);
-                        
-                        if (childRole != null && parentRole != null) {
-                            synchronized (graph) {
-                                graph.addHierarchy(childRole, parentRole);
-                            }
-                            System.out.println("Added hierarchy: " + childRole + " -> Parent_" + parentRole);
-                        } else {
-                            if (childRole == null) {
-                                System.out.println("⚠ Child RoleID not found: " + childRoleID);
-                            }
-                            if (parentRole == null) {
-                                System.out.println("⚠ Parent RoleID not found: " + parentRoleID);
-                            }
-                        }
-                    }
-                } finally {
-                    chunkLatch.countDown();
+        DiagnosticCounter incomplete = new DiagnosticCounter("incomplete privilege-role relation records", 0);
+        DiagnosticCounter unknownPrivileges = new DiagnosticCounter("privilege-role relations with unknown privilege IDs");
+        DiagnosticCounter unknownRoles = new DiagnosticCounter("privilege-role relations with unknown role IDs");
+        
+        ColumnTable.Column privilegeIds = privilegeRoleRelation.column("PRIVILEGE_ID");
+        ColumnTable.Column roleIds = privilegeRoleRelation.column("ROLE_ID");
+        
+        // Each chunk fills its own partial without locking; the partials are merged in row order
+        graph.merge(buildPartials(pool, privilegeRoleRelation.rowCount(), (partial, row) -> {
+            String privilegeID = privilegeIds.get(row); // PRIVILEGE_ID
+            String roleID = roleIds.get(row); // ROLE_ID
+            if (privilegeID == null || roleID == null) {
+                log.debug("⚠ Skipping incomplete privilege-role relation record");
+                incomplete.record(row, null);
+                return;
+            }
+            
+            String privilegeName = privilegeIdToNameMap.get(InputIds.normalize(privilegeID));
+            String roleName = roleNames.get(InputIds.normalize(roleID));
+            
+            if (privilegeName != null && roleName != null) {
+                partial.addRolePrivilege(roleName, privilegeName);
+                log.trace("Added privilege mapping: {} -> Privilege_{}", roleName, privilegeName);
+            } else {
+                if (privilegeName == null) {
+                    log.debug("⚠ PrivilegeID not found: {}", privilegeID);
+                    unknownPrivileges.record(row, privilegeID);
                 }
-            });
-            t.start();
-        }
+                if (roleName == null) {
+                    log.debug("⚠ RoleID not found: {}", roleID);
+                    unknownRoles.record(row, roleID);
+                }
+            }
+        }), pool);
         
-        try {
-            chunkLatch.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            System.err.println("Thread interrupted while building role hierarchy: " + e.getMessage());
-        }
+        incomplete.report(log);
+        unknownPrivileges.report(log);
+        unknownRoles.report(log);
     }
     
-    private static void buildRolePrivilegeRelationships(EmployeeGraph graph,
-                                                     List<String[]> privilegeMaster,
-                                                     List<String[]> roleMasterDetails) {
-        System.out.println("Building role-privilege relationships...");
+    // Privilege master rows as read (row 0 the header), for callers that hold whole rows such as incremental runs
+    static void buildPrivilegeEntitlements(EmployeeGraph graph,
+                                           ForkJoinPool pool,
+                                           ColumnTable entitlementMapping,
+                                           List<String[]> privilegeMaster)
+            throws InterruptedException, ExecutionException {
+        buildPrivilegeEntitlements(graph, pool, entitlementMapping, ColumnTable.of(privilegeMaster, PRIVILEGE_MASTER));
+    }
+
+    // Privilege-entitlement mapping sheet (ENTITLEMENT_ID, ENTITLEMENT_NAME, PRIVILEGE_ID), joined to the
+    // privilege master by PRIVILEGE_ID. IDs are compared numerically, so "3.0E14" matches "300000000000000".
+    static void buildPrivilegeEntitlements(EmployeeGraph graph,
+                                           ForkJoinPool pool,
+                                           ColumnTable entitlementMapping,
+                                           ColumnTable privilegeMaster)
+            throws InterruptedException, ExecutionException {
+        log.info("Building privilege-entitlement relationships...");
         
-        // Skip header rows
-        List<String[]> privilegeData = new ArrayList<>(privilegeMaster);
-        List<String[]> roleMasterData = new ArrayList<>(roleMasterDetails);
+        Map<String, String> privilegeIdToNameMap = privilegeNamesById(privilegeMaster);
         
-        if (!privilegeData.isEmpty()) privilegeData.remove(0);
-        if (!roleMasterData.isEmpty()) roleMasterData.remove(0);
+        DiagnosticCounter incomplete = new DiagnosticCounter("incomplete privilege-entitlement records", 0);
+        DiagnosticCounter unknownPrivileges = new DiagnosticCounter("privilege-entitlement records with unknown privilege IDs");
         
-        // Process privileges in parallel chunks
-        int chunkSize = Math.max(1, privilegeData.size() / 4);
-        List<List<String[]>> chunks = new ArrayList<>();
+        ColumnTable.Column entitlementNames = entitlementMapping.column("ENTITLEMENT_NAME");
+        ColumnTable.Column privilegeIds = entitlementMapping.column("PRIVILEGE_ID");
         
-        for (int i = 0; i < privilegeData.size(); i += chunkSize) {
-            int end = Math.min(i + chunkSize, privilegeData.size());
-            chunks.add(privilegeData.subList(i, end));
+        // Each chunk fills its own partial without locking; the partials are merged in row order
+        graph.merge(buildPartials(pool, entitlementMapping.rowCount(), (partial, row) -> {
+            String entitlementName = entitlementNames.get(row); // ENTITLEMENT_NAME
+            String privilegeID = privilegeIds.get(row); // PRIVILEGE_ID
+            if (entitlementName == null || privilegeID == null || entitlementName.trim().isEmpty()) {
+                log.debug("⚠ Skipping incomplete privilege-entitlement record");
+                incomplete.record(row, null);
+                return;
+            }
+            
+            String privilegeName = privilegeIdToNameMap.get(InputIds.normalize(privilegeID));
+            if (privilegeName != null) {
+                partial.addPrivilegeEntitlement(privilegeName, entitlementName);
+                log.trace("Added entitlement mapping: {} -> Entitlement_{}", privilegeName, entitlementName);
+            } else {
+                log.debug("⚠ PrivilegeID not found: {}", privilegeID);
+                unknownPrivileges.record(row, privilegeID);
+            }
+        }), pool);
+        
+        incomplete.report(log);
+        unknownPrivileges.report(log);
+        log.info("Mapped " + graph.getEntitlementCount() + " entitlements");
+    }
+    
+    // PRIVILEGE_ID (normalized) -> NAME; later rows win
+    private static Map<String, String> privilegeNamesById(ColumnTable privilegeMaster) {
+        ColumnTable.Column ids = privilegeMaster.column("PRIVILEGE_ID");
+        ColumnTable.Column names = privilegeMaster.column("NAME");
+        Map<String, String> privilegeNames = new HashMap<>(privilegeMaster.rowCount() * 2);
+        for (int row = 0; row < privilegeMaster.rowCount(); row++) {
+            String id = ids.get(row);
+            String name = names.get(row);
+            if (id != null && name != null) {
+                privilegeNames.put(InputIds.normalize(id), name);
+            }
         }
+        return privilegeNames;
+    }
+
+    // Rows as read (row 0 the header), for callers that hold whole rows such as the benchmarks
+    static void buildRolePrivilegeRelationships(EmployeeGraph graph,
+                                                ForkJoinPool pool,
+                                                List<String[]> privilegeMaster,
+                                                List<String[]> roleMasterDetails)
+            throws InterruptedException, ExecutionException {
+        buildRolePrivilegeRelationships(graph, pool, ColumnTable.of(privilegeMaster, PRIVILEGE_MASTER),
+                                        ColumnTable.of(roleMasterDetails, ROLE_MASTER));
+    }
+
+    // Fallback when no relation file is given: link a role and a privilege when either name contains the other
+    static void buildRolePrivilegeRelationships(EmployeeGraph graph,
+                                             ForkJoinPool pool,
+                                             ColumnTable privilegeMaster,
+                                             ColumnTable roleMasterDetails)
+            throws InterruptedException, ExecutionException {
+        log.info("Building role-privilege relationships by name matching...");
         
-        // Create a thread-safe copy of role data
-        final List<String[]> roleMasterDataFinal = new ArrayList<>(roleMasterData);
+        // Distinct names on each side; every one is indexed once instead of compared pairwise
+        DiagnosticCounter incomplete = new DiagnosticCounter("incomplete privilege records", 0);
+        Set<String> privilegeNameSet = new LinkedHashSet<>();
+        ColumnTable.Column privilegeColumn = privilegeMaster.column("NAME");
+        for (int row = 0; row < privilegeMaster.rowCount(); row++) {
+            String privilegeName = privilegeColumn.get(row); // NAME field
+            if (privilegeName == null) {
+                log.debug("⚠ Skipping incomplete privilege record");
+                incomplete.record(0, null);
+                continue;
+            }
+            privilegeNameSet.add(privilegeName);
+        }
+        Set<String> roleNameSet = new LinkedHashSet<>();
+        ColumnTable.Column roleColumn = roleMasterDetails.column("ROLE_NAME");
+        for (int row = 0; row < roleMasterDetails.rowCount(); row++) {
+            String roleName = roleColumn.get(row); // ROLE_NAME
+            if (roleName != null) {
+                roleNameSet.add(roleName);
+            }
+        }
+        final List<String> privilegeNames = new ArrayList<>(privilegeNameSet);
+        final List<String> roleNames = new ArrayList<>(roleNameSet);
+        incomplete.report(log);
         
-        // Process each chunk in parallel
-        CountDownLatch chunkLatch = new CountDownLatch(chunks.size());
-        for (List<String[]> chunk : chunks) {
-            Thread t = new Thread(() -> {
-                try {
-                    for (String[] entry : chunk) {
-                        if (entry.length < 2) {
-                            System.out.println("⚠ Skipping incomplete privilege record");
-                            continue;
-                        }
-                        
-                        String privilegeName = entry[1]; // NAME field
-                        
-                        // For simplicity, we'll just link privileges to roles based on name matching
-                        // In a real implementation, you'd use the proper relationship tables
-                        for (String[] role : roleMasterDataFinal) {
-                            if (role.length < 2) continue;
-                            
-                            String roleName = role[1]; // ROLE_NAME
-                            if (roleName != null && 
-                                (roleName.contains(privilegeName) || privilegeName.contains(roleName))) {
-                                synchronized (graph) {
-                                    graph.addRolePrivilege(roleName, privilegeName);
-                                }
-                                System.out.println("Added privilege mapping: " + roleName + " -> Privilege_" + privilegeName);
-                            }
-                        }
-                    }
-                } finally {
-                    chunkLatch.countDown();
+        // privilegeName.contains(roleName): scan privilege names against an index of role names,
+        // roleName.contains(privilegeName): scan role names against an index of privilege names
+        final AhoCorasick roleNameIndex = new AhoCorasick(roleNames);
+        final AhoCorasick privilegeNameIndex = new AhoCorasick(privilegeNames);
+        
+        // Both scans fill thread-local partials; privilege-side matches are merged first
+        List<GraphPartial> partials = new ArrayList<>();
+        partials.addAll(buildPartials(pool, privilegeNames, (partial, privilegeName, row) -> {
+            for (int roleIndex : roleNameIndex.findAll(privilegeName)) {
+                addPrivilegeMapping(partial, roleNames.get(roleIndex), privilegeName);
+            }
+        }));
+        partials.addAll(buildPartials(pool, roleNames, (partial, roleName, row) -> {
+            for (int privilegeIndex : privilegeNameIndex.findAll(roleName)) {
+                addPrivilegeMapping(partial, roleName, privilegeNames.get(privilegeIndex));
+            }
+        }));
+        graph.merge(partials, pool);
+    }
+    
+    private static void addPrivilegeMapping(GraphPartial partial, String roleName, String privilegeName) {
+        partial.addRolePrivilege(roleName, privilegeName);
+        log.trace("Added privilege mapping: {} -> Privilege_{}", roleName, privilegeName);
+    }
+    
+    private static <T> List<GraphPartial> buildPartials(ForkJoinPool pool, List<T> rows,
+                                                        RowHandler<T> addRow)
+            throws InterruptedException, ExecutionException {
+        return buildPartials(pool, rows.size(), (partial, row) -> addRow.accept(partial, rows.get(row), row));
+    }
+
+    // Split the rows [0, rowCount) into chunks and fill one thread-local GraphPartial per chunk on the
+    // pool; the partials come back in chunk order so merging them preserves row order
+    private static List<GraphPartial> buildPartials(ForkJoinPool pool, int rowCount, RowIndexHandler addRow)
+            throws InterruptedException, ExecutionException {
+        int chunkSize = Math.max(MIN_CHUNK_ROWS, rowCount / (pool.getParallelism() * 4));
+        List<Callable<GraphPartial>> tasks = new ArrayList<>();
+        
+        for (int i = 0; i < rowCount; i += chunkSize) {
+            int first = i;
+            int end = Math.min(i + chunkSize, rowCount);
+            tasks.add(() -> {
+                GraphPartial partial = new GraphPartial();
+                for (int row = first; row < end; row++) {
+                    addRow.accept(partial, row);
                 }
+                return partial;
             });
-            t.start();
         }
         
-        try {
-            chunkLatch.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            System.err.println("Thread interrupted while building role-privilege relationships: " + e.getMessage());
+        List<GraphPartial> partials = new ArrayList<>(tasks.size());
+        for (Future<GraphPartial> result : pool.invokeAll(tasks)) {
+            partials.add(result.get());
+        }
+        return partials;
+    }
+    
+    // Apply --quiet/--verbose to slf4j-simple and create the logger; this must run before the first
+    // logger is created. A level given explicitly with -Dorg.slf4j.simpleLogger.defaultLogLevel wins over the default.
+    static void configureLogging(String level) {
+        if (level != null || System.getProperty("org.slf4j.simpleLogger.defaultLogLevel") == null) {
+            System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", level != null ? level : "info");
+        }
+        if (System.getProperty("org.slf4j.simpleLogger.logFile") == null) {
+            System.setProperty("org.slf4j.simpleLogger.logFile", "System.out");
         }
+        log = LoggerFactory.getLogger(SoDChecker.class);
+    }
+    
+    // One row of a build phase, with its position in the phase's rows (for stable diagnostics)
+    @FunctionalInterface
+    private interface RowHandler<T> {
+        void accept(GraphPartial partial, T entry, int row);
+    }
+
+    // One row of a build phase over a ColumnTable, by its index
+    @FunctionalInterface
+    private interface RowIndexHandler {
+        void accept(GraphPartial partial, int row);
     }
-}
\ No newline at end of file
+}
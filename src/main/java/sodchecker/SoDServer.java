@@ -0,0 +1,356 @@
+package sodchecker;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import detection.SoDViolationDetector;
+import models.EmployeeGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Resident query service: keeps one loaded graph and its closures in memory and answers
+// checks on a loopback HTTP port with SoDViolationDetector.checkRoles, so a query returns the
+// same rows a full run would report for that employee. Employees and roles are named as in
+// the report. Endpoints (responses are JSON):
+//   GET  /health                        graph sizes
+//   GET  /check?user=U                  violations of U's current roles
+//   GET  /whatif?user=U&role=R[&role=…] the violations granting R to U would add
+//                                       (SoDViolationDetector.checkGrant)
+//   POST /batch                         one query per body line: USER[<TAB>ROLE…]
+// The graph can be replaced while serving (publish); each request reads the published graph
+// once, so queries already running finish against the one they started with.
+public class SoDServer {
+    private static final Logger log = LoggerFactory.getLogger(SoDServer.class);
+
+    private final HttpServer server;
+    private final ExecutorService requestExecutor;
+    private final AtomicReference<Served> served = new AtomicReference<>();
+
+    // ✅ Bind to the loopback port; nothing is served before start()
+    public SoDServer(int port, EmployeeGraph graph, SoDViolationDetector detector) throws IOException {
+        served.set(new Served(graph, detector, 1));
+        // Responses are small; without TCP_NODELAY a kept-alive connection waits on delayed ACKs (~40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.requestExecutor = requestExecutor();
+        server.setExecutor(requestExecutor);
+        server.createContext("/health", exchange -> handle(exchange, "GET", SoDServer::health));
+        server.createContext("/check", exchange -> handle(exchange, "GET", (query, current) -> check(query, current, false)));
+        server.createContext("/whatif", exchange -> handle(exchange, "GET", (query, current) -> check(query, current, true)));
+        server.createContext("/batch", exchange -> handle(exchange, "POST", SoDServer::batch));
+    }
+
+    public void start() {
+        served.get().warm();
+        server.start();
+        log.info("SoD service listening on http://" + server.getAddress().getHostString() + ":" + getPort());
+    }
+
+    public void stop() {
+        server.stop(0);
+        requestExecutor.shutdown();
+        try {
+            requestExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("SoD service stopped");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // ✅ Serve a newly loaded graph from now on. Its closures are built on the calling thread
+    // before the swap, so queries never wait for them; the old graph is dropped once the
+    // queries still using it have finished.
+    public void publish(EmployeeGraph graph, SoDViolationDetector detector) {
+        Served next = new Served(graph, detector, served.get().generation + 1);
+        next.warm();
+        served.set(next);
+        log.info("Now serving graph generation " + next.generation + " (" + graph.getEmployeeCount() +
+                 " employees, " + graph.getRoleCount() + " roles)");
+    }
+
+    // Virtual threads where the runtime has them (JDK 21+); the build targets 17, so otherwise a
+    // pool sized to the cores, which is enough since a check never blocks
+    private static ExecutorService requestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
+    private static String health(Request request, Served current) {
+        EmployeeGraph graph = current.graph;
+        StringBuilder json = new StringBuilder("{\"status\":\"ok\"");
+        json.append(",\"generation\":").append(current.generation);
+        json.append(",\"employees\":").append(graph.getEmployeeCount());
+        json.append(",\"roles\":").append(graph.getRoleCount());
+        json.append(",\"privileges\":").append(graph.getPrivilegeCount());
+        json.append(",\"entitlements\":").append(graph.getEntitlementCount());
+        return json.append('}').toString();
+    }
+
+    private static String check(Request request, Served current, boolean whatIf) {
+        String user = request.parameter("user");
+        if (user == null || user.trim().isEmpty()) {
+            throw new QueryException(400, "Missing parameter: user");
+        }
+        List<String> grants = whatIf ? request.parameters("role") : Collections.emptyList();
+        if (whatIf && grants.isEmpty()) {
+            throw new QueryException(400, "Missing parameter: role");
+        }
+        StringBuilder json = new StringBuilder();
+        appendCheck(json, current, user.trim(), grants);
+        return json.toString();
+    }
+
+    private static String batch(Request request, Served current) {
+        StringBuilder json = new StringBuilder("{\"results\":[");
+        boolean first = true;
+        for (String line : request.body.split("\r?\n")) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            int start = json.length();
+            try {
+                appendCheck(json, current, fields[0].trim(), Arrays.asList(fields).subList(1, fields.length));
+            } catch (QueryException e) {
+                json.setLength(start);
+                json.append("{\"user\":");
+                appendString(json, fields[0].trim());
+                json.append(",\"error\":");
+                appendString(json, e.getMessage());
+                json.append('}');
+            }
+        }
+        return json.append("]}").toString();
+    }
+
+    // One check as a JSON object: the user's current violations, and with grants the what-if ones
+    private static void appendCheck(StringBuilder json, Served current, String user, List<String> grants) {
+        EmployeeGraph graph = current.graph;
+        SoDViolationDetector detector = current.detector;
+        int employee = graph.getEmployeeId(user);
+        if (employee < 0 && grants.isEmpty()) {
+            throw new QueryException(404, "Unknown user: " + user);
+        }
+        int[] roles = employee >= 0 ? graph.getRoleIds(employee) : new int[0];
+        int[] granted = new int[grants.size()];
+        for (int i = 0; i < granted.length; i++) {
+            granted[i] = graph.getRoleId(grants.get(i));
+            if (granted[i] < 0) {
+                throw new QueryException(400, "Unknown role: " + grants.get(i).trim());
+            }
+        }
+
+        json.append("{\"user\":");
+        appendString(json, user);
+        json.append(",\"roles\":");
+        appendRoleNames(json, graph, roles);
+        if (granted.length == 0) {
+            json.append(",\"violations\":");
+            appendRows(json, detector.checkRoles(user, roles));
+            json.append('}');
+            return;
+        }
+
+        List<String[]> created = detector.checkGrant(user, roles, granted);
+        json.append(",\"grant\":");
+        appendRoleNames(json, graph, granted);
+        json.append(",\"createsViolation\":").append(!created.isEmpty());
+        json.append(",\"newViolations\":");
+        appendRows(json, created);
+        json.append('}');
+    }
+
+    private static void appendRoleNames(StringBuilder json, EmployeeGraph graph, int[] roles) {
+        json.append('[');
+        for (int i = 0; i < roles.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendString(json, graph.getRoleName(roles[i]));
+        }
+        json.append(']');
+    }
+
+    private static void appendRows(StringBuilder json, List<String[]> rows) {
+        json.append('[');
+        for (int r = 0; r < rows.size(); r++) {
+            if (r > 0) {
+                json.append(',');
+            }
+            json.append('[');
+            String[] row = rows.get(r);
+            for (int c = 0; c < row.length; c++) {
+                if (c > 0) {
+                    json.append(',');
+                }
+                appendString(json, row[c]);
+            }
+            json.append(']');
+        }
+        json.append(']');
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    // Runs one request, answering 4xx for a bad query and 500 for anything unexpected
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        long start = System.nanoTime();
+        int status = 200;
+        String body;
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                throw new QueryException(405, "Use " + method);
+            }
+            body = handler.respond(new Request(exchange), served.get());
+        } catch (QueryException e) {
+            status = e.status;
+            StringBuilder json = new StringBuilder("{\"error\":");
+            appendString(json, e.getMessage());
+            body = json.append('}').toString();
+        } catch (RuntimeException e) {
+            log.error("❌ Query failed: " + exchange.getRequestURI(), e);
+            status = 500;
+            body = "{\"error\":\"internal error\"}";
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("{} {} -> {} in {} µs", method, exchange.getRequestURI(), status, (System.nanoTime() - start) / 1000);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        String respond(Request request, Served current);
+    }
+
+    // One published graph with the detector built for it
+    private static final class Served {
+        private final EmployeeGraph graph;
+        private final SoDViolationDetector detector;
+        private final int generation;
+
+        Served(EmployeeGraph graph, SoDViolationDetector detector, int generation) {
+            this.graph = graph;
+            this.detector = detector;
+            this.generation = generation;
+        }
+
+        // Build the lazily computed closures now so the first query is as fast as the rest
+        void warm() {
+            detector.checkRoles("", new int[0]);
+            graph.getPrivilegeClosure();
+        }
+    }
+
+    // Decoded query parameters (repeatable) and, for POST, the body
+    private static final class Request {
+        private final Map<String, List<String>> parameters = new HashMap<>();
+        private final String body;
+
+        Request(HttpExchange exchange) {
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query != null) {
+                for (String pair : query.split("&")) {
+                    int equals = pair.indexOf('=');
+                    String name = decode(equals >= 0 ? pair.substring(0, equals) : pair);
+                    String value = equals >= 0 ? decode(pair.substring(equals + 1)) : "";
+                    parameters.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+                }
+            }
+            try {
+                body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new QueryException(400, "Cannot read request body: " + e.getMessage());
+            }
+        }
+
+        // A malformed % escape is the client's mistake, not a server error
+        private static String decode(String encoded) {
+            try {
+                return URLDecoder.decode(encoded, StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new QueryException(400, "Malformed query parameter: " + encoded);
+            }
+        }
+
+        String parameter(String name) {
+            List<String> values = parameters.get(name);
+            return values == null ? null : values.get(0);
+        }
+
+        List<String> parameters(String name) {
+            return parameters.getOrDefault(name, Collections.emptyList());
+        }
+    }
+
+    private static final class QueryException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        QueryException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
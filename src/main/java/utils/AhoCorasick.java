@@ -0,0 +1,203 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Multi-pattern substring index: finds every pattern contained in a text in one pass over
+// the text, independent of the number of patterns. Transitions live in a primitive
+// (state, char) -> state hash table rather than one map object per trie node.
+public class AhoCorasick {
+    private final TransitionTable transitions = new TransitionTable();
+    private int[] failure;
+    private int[] outputLink;    // nearest proper suffix state that ends a pattern, or -1
+    private int[] firstPattern;  // first pattern ending at a state, or -1
+    private int[] nextPattern;   // next pattern ending at the same state, or -1
+    private int stateCount;
+
+    // ✅ Index the patterns; match results are reported as positions in this list (empty patterns never match)
+    public AhoCorasick(List<String> patterns) {
+        int capacity = 1;
+        for (String pattern : patterns) {
+            capacity += pattern.length();
+        }
+        failure = new int[capacity];
+        outputLink = new int[capacity];
+        firstPattern = new int[capacity];
+        nextPattern = new int[patterns.size()];
+        Arrays.fill(firstPattern, -1);
+        Arrays.fill(nextPattern, -1);
+        stateCount = 1;
+
+        int[] parent = new int[capacity];
+        char[] incoming = new char[capacity];
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            if (pattern.isEmpty()) continue;
+
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                int next = transitions.get(state, c);
+                if (next < 0) {
+                    next = stateCount++;
+                    transitions.put(state, c, next);
+                    parent[next] = state;
+                    incoming[next] = c;
+                }
+                state = next;
+            }
+            nextPattern[p] = firstPattern[state];
+            firstPattern[state] = p;
+        }
+        buildFailureLinks(parent, incoming);
+    }
+
+    // ✅ Distinct indexes of all patterns occurring in the text, in ascending order
+    public int[] findAll(String text) {
+        int[] matches = new int[4];
+        int matchCount = 0;
+
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = transitions.get(state, c)) < 0 && state != 0) {
+                state = failure[state];
+            }
+            state = Math.max(next, 0);
+
+            int output = firstPattern[state] >= 0 ? state : outputLink[state];
+            while (output > 0) {
+                for (int p = firstPattern[output]; p >= 0; p = nextPattern[p]) {
+                    if (matchCount == matches.length) {
+                        matches = Arrays.copyOf(matches, matchCount * 2);
+                    }
+                    matches[matchCount++] = p;
+                }
+                output = outputLink[output];
+            }
+        }
+
+        if (matchCount == 0) {
+            return new int[0];
+        }
+        Arrays.sort(matches, 0, matchCount);
+        int distinct = 1;
+        for (int i = 1; i < matchCount; i++) {
+            if (matches[i] != matches[distinct - 1]) {
+                matches[distinct++] = matches[i];
+            }
+        }
+        return Arrays.copyOf(matches, distinct);
+    }
+
+    // Failure links are assigned breadth-first, so a shallower state's link is always final before it is used
+    private void buildFailureLinks(int[] parent, char[] incoming) {
+        int[] queue = new int[stateCount];
+        int[] depth = new int[stateCount];
+        for (int state = 1; state < stateCount; state++) {
+            depth[state] = depth[parent[state]] + 1;
+        }
+        // Counting sort by depth gives breadth-first order
+        int maxDepth = 0;
+        for (int state = 0; state < stateCount; state++) {
+            maxDepth = Math.max(maxDepth, depth[state]);
+        }
+        int[] offsets = new int[maxDepth + 2];
+        for (int state = 0; state < stateCount; state++) {
+            offsets[depth[state] + 1]++;
+        }
+        for (int d = 1; d < offsets.length; d++) {
+            offsets[d] += offsets[d - 1];
+        }
+        for (int state = 0; state < stateCount; state++) {
+            queue[offsets[depth[state]]++] = state;
+        }
+
+        failure[0] = 0;
+        outputLink[0] = -1;
+        for (int q = 1; q < stateCount; q++) {
+            int state = queue[q];
+            int from = parent[state];
+            char c = incoming[state];
+
+            int fail = 0;
+            if (from != 0) {
+                int candidate = failure[from];
+                int next;
+                while ((next = transitions.get(candidate, c)) < 0 && candidate != 0) {
+                    candidate = failure[candidate];
+                }
+                fail = Math.max(next, 0);
+            }
+            failure[state] = fail;
+            outputLink[state] = firstPattern[fail] >= 0 ? fail : outputLink[fail];
+        }
+    }
+
+    // Open-addressing (state, char) -> state map packed into parallel primitive arrays
+    private static class TransitionTable {
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024];
+        private int size;
+
+        TransitionTable() {
+            Arrays.fill(keys, -1L);
+        }
+
+        int get(int state, char c) {
+            long key = pack(state, c);
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != -1L) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        void put(int state, char c, int target) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash();
+            }
+            long key = pack(state, c);
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != -1L) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = target;
+            size++;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            Arrays.fill(keys, -1L);
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == -1L) continue;
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != -1L) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+
+        private static long pack(int state, char c) {
+            return ((long) state << 16) | c;
+        }
+
+        private static int mix(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
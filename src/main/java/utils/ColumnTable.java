@@ -0,0 +1,209 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// An input table reduced to the columns a build phase reads, stored column by column. Columns are
+// found by their header name once, when the header row arrives (a column whose name is not in the
+// header keeps its usual position), and every other column is dropped as rows are added. Cells are
+// dictionary-encoded: each column is an int[] of codes into one array of distinct values per table,
+// so the thousands of repeated role and user IDs of a mapping sheet are held once.
+//
+//     ColumnTable.Builder builder = ColumnTable.schema("ROLE_ID", 0).and("ROLE_NAME", 1).builder();
+//     ExcelReader.streamExcelFile(path, builder::wants, builder);
+//     ColumnTable roles = builder.build();
+public final class ColumnTable {
+    private static final int MISSING = -1;
+
+    private final String[] header;
+    private final String[] names;
+    private final int[] positions;
+    private final int[][] codes;
+    private final String[] values;
+    private final int rowCount;
+
+    private ColumnTable(String[] header, String[] names, int[] positions, int[][] codes, String[] values, int rowCount) {
+        this.header = header;
+        this.names = names;
+        this.positions = positions;
+        this.codes = codes;
+        this.values = values;
+        this.rowCount = rowCount;
+    }
+
+    // ✅ A schema of one column, found by header `name` or else at `position`; add more with and()
+    public static Schema schema(String name, int position) {
+        return new Schema(new String[0], new int[0]).and(name, position);
+    }
+
+    // ✅ Number of rows after the header row
+    public int rowCount() {
+        return rowCount;
+    }
+
+    // ✅ The column with this schema name
+    public Column column(String name) {
+        for (int c = 0; c < names.length; c++) {
+            if (names[c].equals(name)) {
+                return new Column(codes[c], values);
+            }
+        }
+        throw new IllegalArgumentException("No column " + name + " in table with columns " + Arrays.toString(names));
+    }
+
+    // ✅ The table as rows again: the header row, then one row per data row with the kept cells at
+    // the positions they were read from and "" in the dropped columns. A row ends after its last
+    // kept cell, so a cell that was missing from a short row is still missing when read back.
+    public List<String[]> asRows() {
+        List<String[]> rows = new ArrayList<>(rowCount + 1);
+        rows.add(header);
+        for (int row = 0; row < rowCount; row++) {
+            int width = 0;
+            for (int c = 0; c < codes.length; c++) {
+                if (codes[c][row] != MISSING) {
+                    width = Math.max(width, positions[c] + 1);
+                }
+            }
+            String[] entry = new String[width];
+            Arrays.fill(entry, "");
+            for (int c = 0; c < codes.length; c++) {
+                if (codes[c][row] != MISSING) {
+                    entry[positions[c]] = values[codes[c][row]];
+                }
+            }
+            rows.add(entry);
+        }
+        return rows;
+    }
+
+    // ✅ Table of rows read whole (row 0 is the header), e.g. from a snapshot or a generated dataset
+    public static ColumnTable of(List<String[]> rows, Schema schema) {
+        Builder builder = schema.builder();
+        rows.forEach(builder);
+        return builder.build();
+    }
+
+    // The columns a phase needs; immutable, so one schema serves every read of an input file
+    public static final class Schema {
+        private final String[] names;
+        private final int[] positions;
+
+        private Schema(String[] names, int[] positions) {
+            this.names = names;
+            this.positions = positions;
+        }
+
+        // ✅ This schema plus one more column
+        public Schema and(String name, int position) {
+            String[] moreNames = Arrays.copyOf(names, names.length + 1);
+            int[] morePositions = Arrays.copyOf(positions, positions.length + 1);
+            moreNames[names.length] = name;
+            morePositions[positions.length] = position;
+            return new Schema(moreNames, morePositions);
+        }
+
+        // ✅ Positions of the schema's columns in a file with this header row
+        public int[] resolve(String[] header) {
+            Map<String, Integer> byName = new HashMap<>();
+            for (int i = header.length - 1; i >= 0; i--) {
+                byName.put(header[i].trim().toUpperCase(Locale.ROOT), i);  // first occurrence wins
+            }
+            int[] resolved = new int[names.length];
+            for (int c = 0; c < names.length; c++) {
+                resolved[c] = byName.getOrDefault(names[c].toUpperCase(Locale.ROOT), positions[c]);
+            }
+            return resolved;
+        }
+
+        public Builder builder() {
+            return new Builder(this);
+        }
+    }
+
+    // Collects rows as a reader produces them; the first row is taken as the header. Not thread-safe.
+    public static final class Builder implements Consumer<String[]> {
+        private final Schema schema;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private String[] header;
+        private int[] positions;
+        private boolean[] kept;
+        private int[][] codes;
+        private int rowCount;
+
+        private Builder(Schema schema) {
+            this.schema = schema;
+            this.codes = new int[schema.names.length][16];
+        }
+
+        // ✅ Whether the cell at `position` is kept; every cell is until the header has been seen,
+        // so readers can skip decoding the others
+        public boolean wants(int position) {
+            return kept == null || (position < kept.length && kept[position]);
+        }
+
+        @Override
+        public void accept(String[] row) {
+            if (header == null) {
+                header = row;
+                positions = schema.resolve(row);
+                kept = new boolean[Arrays.stream(positions).max().orElse(-1) + 1];
+                for (int position : positions) {
+                    kept[position] = true;
+                }
+                return;
+            }
+            if (rowCount == codes[0].length) {
+                for (int c = 0; c < codes.length; c++) {
+                    codes[c] = Arrays.copyOf(codes[c], rowCount * 2);
+                }
+            }
+            for (int c = 0; c < codes.length; c++) {
+                codes[c][rowCount] = positions[c] < row.length ? encode(row[positions[c]]) : MISSING;
+            }
+            rowCount++;
+        }
+
+        private int encode(String value) {
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = values.size();
+                dictionary.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        public ColumnTable build() {
+            if (header == null) {
+                accept(new String[0]);  // no rows at all: every column falls back to its position
+            }
+            int[][] trimmed = new int[codes.length][];
+            for (int c = 0; c < codes.length; c++) {
+                trimmed[c] = Arrays.copyOf(codes[c], rowCount);
+            }
+            return new ColumnTable(header, schema.names, positions, trimmed, values.toArray(new String[0]), rowCount);
+        }
+    }
+
+    // One column of the table; a cell the row was too short to have is null
+    public static final class Column {
+        private final int[] codes;
+        private final String[] values;
+
+        private Column(int[] codes, String[] values) {
+            this.codes = codes;
+            this.values = values;
+        }
+
+        public String get(int row) {
+            int code = codes[row];
+            return code == MISSING ? null : values[code];
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package utils;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Counts rows per conflict type (column 1 unless told otherwise) and passes them on to an optional delegate.
+// Without a delegate it is a dry run that only reports how many violations there are.
+public class CountingViolationSink implements ViolationSink {
+    private final ViolationSink delegate;
+    private final int typeColumn;
+    private final Map<String, Long> countsByType = new LinkedHashMap<>();
+    private long count;
+
+    public CountingViolationSink() {
+        this(null);
+    }
+
+    public CountingViolationSink(ViolationSink delegate) {
+        this(delegate, 1);
+    }
+
+    public CountingViolationSink(ViolationSink delegate, int typeColumn) {
+        this.delegate = delegate;
+        this.typeColumn = typeColumn;
+    }
+
+    @Override
+    public void accept(String[] violation) {
+        count++;
+        if (violation.length > typeColumn) {
+            countsByType.merge(violation[typeColumn], 1L, Long::sum);
+        }
+        if (delegate != null) {
+            delegate.accept(violation);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // ✅ Rows of one conflict type, e.g. "Privilege Conflict"
+    public long getCount(String type) {
+        return countsByType.getOrDefault(type, 0L);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate != null) {
+            delegate.close();
+        }
+    }
+
+    @Override
+    public void abort() {
+        if (delegate != null) {
+            delegate.abort();
+        }
+    }
+}
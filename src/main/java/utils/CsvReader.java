@@ -0,0 +1,335 @@
+package utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// RFC 4180 reader for CSV/TSV exports that parses straight from a memory-mapped file. Fields are
+// split on the raw bytes; only the requested columns are decoded into (trimmed) Strings, the
+// others stay "" so rows keep their width and column positions. Rows come out like
+// ExcelReader's: every record whose fields are all blank is skipped, the header row is kept.
+// Large files are cut into byte ranges at record boundaries and parsed in parallel on a pool.
+public final class CsvReader {
+    // Ranges are never smaller than this, so small files are parsed in one piece
+    private static final long MIN_RANGE_BYTES = 4L << 20;
+    // Nor larger, which also bounds a single mapping well below the 2 GB MappedByteBuffer limit
+    private static final long MAX_RANGE_BYTES = 256L << 20;
+    // Window used to scan for range boundaries
+    private static final long SCAN_WINDOW_BYTES = 1L << 30;
+
+    // Parser states; a quote only opens a quoted field at the start of the field
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;  // a quote inside a quoted field: "" or the closing one
+
+    private CsvReader() {
+    }
+
+    // ✅ Every non-blank record of the file, decoding only `columns` (null: all of them).
+    // With a pool, files larger than one range are parsed in parallel; the row order is the file's.
+    public static List<String[]> read(String path, char delimiter, int[] columns, ForkJoinPool pool)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = hasByteOrderMark(channel, size) ? 3 : 0;
+            boolean[] decoded = decodedColumns(columns);
+            int workers = pool != null ? pool.getParallelism() : 1;
+            long rangeBytes = Math.max(MIN_RANGE_BYTES, Math.min(MAX_RANGE_BYTES, size / (workers * 4L)));
+            long[] bounds = recordBoundaries(channel, start, size, (byte) delimiter, rangeBytes);
+
+            int ranges = bounds.length - 1;
+            if (ranges == 1 || pool == null) {
+                List<String[]> rows = new ArrayList<>();
+                for (int r = 0; r < ranges; r++) {
+                    rows.addAll(parseRange(channel, bounds[r], bounds[r + 1], (byte) delimiter, decoded));
+                }
+                return rows;
+            }
+
+            List<ForkJoinTask<List<String[]>>> tasks = new ArrayList<>(ranges);
+            for (int r = 0; r < ranges; r++) {
+                long from = bounds[r];
+                long to = bounds[r + 1];
+                tasks.add(pool.submit(() -> parseRange(channel, from, to, (byte) delimiter, decoded)));
+            }
+            List<String[]> rows = new ArrayList<>();
+            for (ForkJoinTask<List<String[]>> task : tasks) {
+                rows.addAll(task.join());
+            }
+            return rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ✅ The first non-blank record with every field decoded (an empty array for a blank file);
+    // only the bytes up to its end are parsed
+    public static String[] readHeader(String path, char delimiter) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = hasByteOrderMark(channel, size) ? 3 : 0;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                                                  Math.min(size - start, MAX_RANGE_BYTES));
+            List<String[]> rows = new RangeParser(buffer, (byte) delimiter, null, 1).parse();
+            return rows.isEmpty() ? new String[0] : rows.get(0);
+        }
+    }
+
+    private static boolean hasByteOrderMark(FileChannel channel, long size) throws IOException {
+        if (size < 3) {
+            return false;
+        }
+        MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, 3);
+        return (head.get(0) & 0xFF) == 0xEF && (head.get(1) & 0xFF) == 0xBB && (head.get(2) & 0xFF) == 0xBF;
+    }
+
+    private static boolean[] decodedColumns(int[] columns) {
+        if (columns == null) {
+            return null;
+        }
+        int width = Arrays.stream(columns).max().orElse(-1) + 1;
+        boolean[] decoded = new boolean[width];
+        for (int column : columns) {
+            decoded[column] = true;
+        }
+        return decoded;
+    }
+
+    // Offsets where ranges start, plus the end of the file: after every `rangeBytes`, the range is
+    // cut at the next record end outside a quoted field. Files of one range are not scanned at all.
+    static long[] recordBoundaries(FileChannel channel, long start, long size, byte delimiter,
+                                           long rangeBytes) throws IOException {
+        if (size - start <= rangeBytes) {
+            return new long[]{start, size};
+        }
+        long[] bounds = new long[16];
+        int count = 0;
+        bounds[count++] = start;
+        long nextCut = start + rangeBytes;
+        int state = FIELD_START;
+        for (long window = start; window < size; window += SCAN_WINDOW_BYTES) {
+            long length = Math.min(SCAN_WINDOW_BYTES, size - window);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, window, length);
+            for (int i = 0; i < length; i++) {
+                byte b = buffer.get(i);
+                boolean recordEnd = false;
+                if (state == QUOTED) {
+                    if (b == '"') {
+                        state = QUOTE_IN_QUOTED;
+                    }
+                } else if (state == QUOTE_IN_QUOTED && b == '"') {
+                    state = QUOTED;
+                } else if (b == '\n') {
+                    // After a closing quote the byte is handled as in an unquoted field
+                    recordEnd = true;
+                    state = FIELD_START;
+                } else if (b == delimiter || b == '\r') {
+                    state = FIELD_START;
+                } else if (b == '"' && state == FIELD_START) {
+                    state = QUOTED;
+                } else {
+                    state = UNQUOTED;
+                }
+                long offset = window + i;
+                if (recordEnd && offset + 1 >= nextCut && offset + 1 < size) {
+                    if (count == bounds.length) {
+                        bounds = Arrays.copyOf(bounds, count * 2);
+                    }
+                    bounds[count++] = offset + 1;
+                    nextCut = offset + 1 + rangeBytes;
+                }
+            }
+        }
+        if (count == bounds.length) {
+            bounds = Arrays.copyOf(bounds, count + 1);
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    // Parse the records in [from, to), which starts and ends on record boundaries
+    static List<String[]> parseRange(FileChannel channel, long from, long to, byte delimiter,
+                                             boolean[] decoded) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new RangeParser(buffer, delimiter, decoded, Integer.MAX_VALUE).parse();
+    }
+
+    // Splits one mapped range into records. Field bounds are kept as offsets into the buffer and
+    // only decoded fields are turned into Strings.
+    private static final class RangeParser {
+        private static final byte PLAIN = 0;
+        private static final byte QUOTED_SIMPLE = 1;   // "..." with no "" escapes or trailing text
+        private static final byte QUOTED_COMPLEX = 2;  // needs unescaping, see decode()
+
+        private final MappedByteBuffer buffer;
+        private final byte delimiter;
+        private final boolean[] decoded;
+        private final int maxRows;
+        private final List<String[]> rows = new ArrayList<>();
+
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private byte[] kinds = new byte[16];
+        private int fieldCount;
+        private byte[] scratch = new byte[256];
+
+        RangeParser(MappedByteBuffer buffer, byte delimiter, boolean[] decoded, int maxRows) {
+            this.buffer = buffer;
+            this.delimiter = delimiter;
+            this.decoded = decoded;
+            this.maxRows = maxRows;
+        }
+
+        List<String[]> parse() {
+            int limit = buffer.limit();
+            int state = FIELD_START;
+            int fieldStart = 0;
+            boolean quoted = false;
+            boolean complex = false;
+            boolean pendingRecord = false;  // bytes seen since the last record end
+            for (int i = 0; i < limit; i++) {
+                byte b = buffer.get(i);
+                if (state == QUOTED) {
+                    if (b == '"') {
+                        state = QUOTE_IN_QUOTED;
+                    }
+                    continue;
+                }
+                if (state == QUOTE_IN_QUOTED && b == '"') {
+                    complex = true;
+                    state = QUOTED;
+                    continue;
+                }
+
+                if (b == delimiter || b == '\n' || b == '\r') {
+                    endField(fieldStart, i, quoted ? (complex ? QUOTED_COMPLEX : QUOTED_SIMPLE) : PLAIN);
+                    state = FIELD_START;
+                    quoted = false;
+                    complex = false;
+                    fieldStart = i + 1;
+                    if (b == delimiter) {
+                        pendingRecord = true;
+                    } else {
+                        if (b == '\r' && i + 1 < limit && buffer.get(i + 1) == '\n') {
+                            i++;
+                            fieldStart = i + 1;
+                        }
+                        endRecord();
+                        pendingRecord = false;
+                        if (rows.size() == maxRows) {
+                            return rows;
+                        }
+                    }
+                } else {
+                    pendingRecord = true;
+                    if (state == FIELD_START && b == '"') {
+                        state = QUOTED;
+                        quoted = true;
+                    } else {
+                        // Text after a closing quote is kept, as spreadsheet programs do
+                        complex |= state == QUOTE_IN_QUOTED;
+                        state = UNQUOTED;
+                    }
+                }
+            }
+            if (pendingRecord || state == QUOTED || state == QUOTE_IN_QUOTED) {
+                // An unterminated quote runs to the end of the range
+                boolean simple = state == QUOTE_IN_QUOTED && !complex;
+                endField(fieldStart, limit, quoted ? (simple ? QUOTED_SIMPLE : QUOTED_COMPLEX) : PLAIN);
+                endRecord();
+            }
+            return rows;
+        }
+
+        private void endField(int start, int end, byte kind) {
+            if (fieldCount == starts.length) {
+                starts = Arrays.copyOf(starts, fieldCount * 2);
+                ends = Arrays.copyOf(ends, fieldCount * 2);
+                kinds = Arrays.copyOf(kinds, fieldCount * 2);
+            }
+            // A simple quoted field's content lies between its quotes
+            starts[fieldCount] = kind == PLAIN ? start : start + 1;
+            ends[fieldCount] = kind == QUOTED_SIMPLE ? end - 1 : end;
+            kinds[fieldCount] = kind;
+            fieldCount++;
+        }
+
+        private void endRecord() {
+            int count = fieldCount;
+            fieldCount = 0;
+            if (isBlank(count)) {
+                return;
+            }
+            String[] row = new String[count];
+            for (int f = 0; f < count; f++) {
+                row[f] = decoded == null || (f < decoded.length && decoded[f]) ? decode(f) : "";
+            }
+            rows.add(row);
+        }
+
+        private boolean isBlank(int count) {
+            for (int f = 0; f < count; f++) {
+                if (kinds[f] == QUOTED_COMPLEX) {
+                    // Quotes may be syntax or content here; rare enough to just decode
+                    if (!decode(f).isEmpty()) {
+                        return false;
+                    }
+                    continue;
+                }
+                for (int i = starts[f]; i < ends[f]; i++) {
+                    if ((buffer.get(i) & 0xFF) > ' ') {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private String decode(int field) {
+            int start = starts[field];
+            int end = ends[field];
+            if (scratch.length < end - start) {
+                scratch = new byte[Math.max(end - start, scratch.length * 2)];
+            }
+            int length = 0;
+            if (kinds[field] != QUOTED_COMPLEX) {
+                for (int i = start; i < end; i++) {
+                    scratch[length++] = buffer.get(i);
+                }
+            } else {
+                // Starts just inside the opening quote: "" is one quote, a lone quote closes the
+                // quoted part and anything after it is copied as is
+                boolean inQuotes = true;
+                for (int i = start; i < end; i++) {
+                    byte b = buffer.get(i);
+                    if (inQuotes && b == '"') {
+                        if (i + 1 < end && buffer.get(i + 1) == '"') {
+                            scratch[length++] = b;
+                            i++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else {
+                        scratch[length++] = b;
+                    }
+                }
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8).trim();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.GZIPOutputStream;
+
+// Writes violation rows to a CSV file as they arrive. Fields are quoted per RFC 4180 when they
+// contain a comma, a quote or a line break (role lists are comma-joined), with quotes doubled;
+// lines end in "\n". Rows are encoded as UTF-8 into byte arrays and written to a FileChannel in
+// large blocks, gzip-compressed when the path ends in ".gz". With a pool, rows are collected into
+// chunks that workers encode in parallel while the caller goes on; the chunks are written in
+// order, and only a few are in flight at a time. The file is built next to the output and moved
+// into place by close().
+public class CsvViolationSink implements ViolationSink {
+    private static final Logger log = LoggerFactory.getLogger(CsvViolationSink.class);
+    // Rows per chunk handed to a worker
+    private static final int CHUNK_ROWS = 2048;
+    // Chunks encoded or waiting to be written, per worker
+    private static final int CHUNKS_IN_FLIGHT_PER_WORKER = 2;
+    // Without a pool, encoded rows are written once this many bytes have piled up
+    private static final int WRITE_BYTES = 1 << 18;
+    // Each worker encodes its chunks into the same buffer
+    private static final ThreadLocal<RowEncoder> chunkEncoders = ThreadLocal.withInitial(RowEncoder::new);
+
+    private final String fileName;
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final OutputStream out;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+    private final ArrayDeque<ForkJoinTask<byte[]>> inFlight = new ArrayDeque<>();
+    private final RowEncoder encoder = new RowEncoder();
+    private List<String[]> chunk = new ArrayList<>(CHUNK_ROWS);
+    private boolean empty = true;
+    private boolean closed;
+
+    public CsvViolationSink(String fileName) throws IOException {
+        this(fileName, OutputGenerator.REPORT_HEADERS);
+    }
+
+    public CsvViolationSink(String fileName, String[] headers) throws IOException {
+        this(fileName, headers, null);
+    }
+
+    // ✅ With a pool (null: encode on the calling thread), rows are encoded on its workers
+    public CsvViolationSink(String fileName, String[] headers, ForkJoinPool pool) throws IOException {
+        this.fileName = fileName;
+        this.pool = pool;
+        this.maxInFlight = pool != null ? pool.getParallelism() * CHUNKS_IN_FLIGHT_PER_WORKER : 0;
+        this.target = Paths.get(fileName).toAbsolutePath();
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            OutputStream stream = Channels.newOutputStream(channel);
+            this.out = fileName.toLowerCase(Locale.ROOT).endsWith(".gz") ? new GZIPOutputStream(stream, 1 << 16) : stream;
+            encoder.encode(headers);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    // Throws UncheckedIOException when the file cannot be written
+    @Override
+    public void accept(String[] violation) {
+        empty = false;
+        try {
+            if (pool == null) {
+                encoder.encode(violation);
+                if (encoder.length >= WRITE_BYTES) {
+                    encoder.writeTo(out);
+                }
+                return;
+            }
+            chunk.add(violation);
+            if (chunk.size() == CHUNK_ROWS) {
+                submitChunk();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing CSV to file: " + fileName, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean complete = false;
+        try {
+            // Closing the stream closes the channel under it
+            try (OutputStream stream = out) {
+                if (!chunk.isEmpty()) {
+                    submitChunk();
+                }
+                while (!inFlight.isEmpty()) {
+                    stream.write(inFlight.poll().join());
+                }
+                if (empty) {
+                    encoder.encode(new String[]{"No violations found"});
+                }
+                encoder.writeTo(stream);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        log.info("✅ CSV output successfully written to: " + fileName);
+    }
+
+    @Override
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (ForkJoinTask<byte[]> task : inFlight) {
+            task.cancel(false);
+        }
+        inFlight.clear();
+        try {
+            out.close();
+        } catch (IOException e) {
+            // the file is deleted below either way
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.warn("⚠ Could not delete the unfinished report " + temp + ": " + e.getMessage());
+        }
+        log.warn("⚠ Report not written, " + target + " was left as it was");
+    }
+
+    // Hand the current chunk to a worker; once too many are in flight, write out the oldest first
+    private void submitChunk() throws IOException {
+        if (encoder.length > 0) {
+            encoder.writeTo(out);  // the header row goes first
+        }
+        List<String[]> rows = chunk;
+        chunk = new ArrayList<>(CHUNK_ROWS);
+        inFlight.add(pool.submit(() -> {
+            RowEncoder chunkEncoder = chunkEncoders.get();
+            for (String[] row : rows) {
+                chunkEncoder.encode(row);
+            }
+            return chunkEncoder.takeBytes();
+        }));
+        while (inFlight.size() > maxInFlight) {
+            out.write(inFlight.poll().join());
+        }
+    }
+
+    // Encodes rows as UTF-8 CSV lines into a growing byte array. Fields are checked with
+    // String.indexOf and encoded by String.getBytes, both far faster than a char or byte loop
+    // for the mostly-ASCII report text.
+    private static final class RowEncoder {
+        private byte[] bytes = new byte[1 << 16];
+        private int length;
+
+        void encode(String[] row) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    put((byte) ',');
+                }
+                String value = row[i];
+                if (value == null) {
+                    continue;
+                }
+                if (needsQuotes(value)) {
+                    put((byte) '"');
+                    putBytes(value.replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8));
+                    put((byte) '"');
+                } else {
+                    putBytes(value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            put((byte) '\n');
+        }
+
+        private static boolean needsQuotes(String value) {
+            return value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        }
+
+        private void putBytes(byte[] field) {
+            ensureCapacity(field.length);
+            System.arraycopy(field, 0, bytes, length, field.length);
+            length += field.length;
+        }
+
+        private void put(byte b) {
+            ensureCapacity(1);
+            bytes[length++] = b;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + extra, bytes.length * 2));
+            }
+        }
+
+        // The encoded rows; the encoder starts over empty
+        byte[] takeBytes() {
+            byte[] encoded = Arrays.copyOf(bytes, length);
+            length = 0;
+            return encoded;
+        }
+
+        void writeTo(OutputStream stream) throws IOException {
+            stream.write(bytes, 0, length);
+            length = 0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package utils;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Thread-safe tally of one kind of data problem (e.g. unknown user IDs) that keeps a few
+// distinct example values instead of logging every occurrence. Examples are ranked by row
+// position, not by arrival, so the summary is the same however the rows were split over threads.
+public class DiagnosticCounter {
+    public static final int DEFAULT_SAMPLES = 10;
+
+    private final String description;
+    private final int sampleLimit;
+    private final LongAdder count = new LongAdder();
+    private final long[] samplePositions;
+    private final String[] samples;
+    private int sampleCount;
+
+    public DiagnosticCounter(String description) {
+        this(description, DEFAULT_SAMPLES);
+    }
+
+    public DiagnosticCounter(String description, int sampleLimit) {
+        this.description = description;
+        this.sampleLimit = sampleLimit;
+        this.samplePositions = new long[sampleLimit];
+        this.samples = new String[sampleLimit];
+    }
+
+    // ✅ Count one occurrence found at the given row position
+    public void record(long position, String sample) {
+        count.increment();
+        if (sampleLimit > 0) {
+            keepSample(position, sample);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    // ✅ Distinct examples in row order (at most the sample limit)
+    public synchronized List<String> getSamples() {
+        List<String> result = new ArrayList<>(sampleCount);
+        for (int i = 0; i < sampleCount; i++) {
+            result.add(samples[i]);
+        }
+        return result;
+    }
+
+    // ✅ One info line such as "42 unknown user IDs, first 10: a, b, ..."; silent when nothing was counted
+    public void report(Logger log) {
+        long total = getCount();
+        if (total == 0) {
+            return;
+        }
+        List<String> examples = getSamples();
+        if (examples.isEmpty()) {
+            log.info("{} {}", total, description);
+        } else {
+            log.info("{} {}, first {}: {}", total, description, examples.size(), String.join(", ", examples));
+        }
+    }
+
+    // Keeps the samples sorted by position; a repeated value only keeps its earliest position
+    private synchronized void keepSample(long position, String sample) {
+        for (int i = 0; i < sampleCount; i++) {
+            if (samples[i].equals(sample)) {
+                if (position >= samplePositions[i]) {
+                    return;
+                }
+                removeSample(i);
+                break;
+            }
+        }
+        if (sampleCount == sampleLimit && position >= samplePositions[sampleCount - 1]) {
+            return;
+        }
+
+        int slot = Math.min(sampleCount, sampleLimit - 1);
+        while (slot > 0 && samplePositions[slot - 1] > position) {
+            samplePositions[slot] = samplePositions[slot - 1];
+            samples[slot] = samples[slot - 1];
+            slot--;
+        }
+        samplePositions[slot] = position;
+        samples[slot] = sample;
+        sampleCount = Math.min(sampleCount + 1, sampleLimit);
+    }
+
+    private void removeSample(int index) {
+        for (int i = index; i < sampleCount - 1; i++) {
+            samplePositions[i] = samplePositions[i + 1];
+            samples[i] = samples[i + 1];
+        }
+        sampleCount--;
+    }
+}
@@ -1,10 +1,31 @@
 package utils;
 
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.util.LocaleUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 public class ExcelReader {
     public static List<String[]> readExcelFile(String filePath) {
@@ -32,6 +53,187 @@ public class ExcelReader {
         }
         return dataList;
     }
-    
-    
+
+    // ✅ Streaming variant of readExcelFile: same rows, without loading the workbook DOM
+    public static List<String[]> readExcelFileStreaming(String filePath) {
+        List<String[]> dataList = new ArrayList<>();
+        streamExcelFile(filePath, dataList::add);
+        return dataList;
+    }
+
+    // ✅ Push every non-empty row of the first sheet to the consumer as it is parsed.
+    // Only the shared-strings table and the current row are held in memory. A file that cannot be
+    // opened or parsed to the end throws UncheckedIOException, after the rows read until then.
+    public static void streamExcelFile(String filePath, Consumer<String[]> rowConsumer) {
+        streamSheets(filePath, false, column -> true, rowConsumer);
+    }
+
+    // ✅ Same as streamExcelFile, formatting only the cells whose column position `columns` accepts;
+    // the others come out as "" (a row still counts as non-empty when only such a cell has a value).
+    // The predicate is asked again for every cell, so a consumer may narrow it after the header row.
+    public static void streamExcelFile(String filePath, IntPredicate columns, Consumer<String[]> rowConsumer) {
+        streamSheets(filePath, false, columns, rowConsumer);
+    }
+
+    // ✅ Same as streamExcelFile, continuing through every sheet in workbook order
+    // (e.g. a report that was split over several sheets at Excel's row limit)
+    public static void streamAllSheets(String filePath, Consumer<String[]> rowConsumer) {
+        streamSheets(filePath, true, column -> true, rowConsumer);
+    }
+
+    private static void streamSheets(String filePath, boolean allSheets, IntPredicate columns,
+                                     Consumer<String[]> rowConsumer) {
+        try (OPCPackage pkg = OPCPackage.open(filePath, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new SheetRowHandler(sharedStrings, styles, columns, rowConsumer));
+                    parser.parse(new InputSource(sheet));
+                }
+                if (!allSheets) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading Excel file: " + filePath, e);
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new UncheckedIOException("Error reading Excel file: " + filePath, new IOException(e.getMessage(), e));
+        }
+    }
+
+    // SAX handler producing the same strings as XSSFCell.toString() for each physical cell
+    private static class SheetRowHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final IntPredicate columns;
+        private final Consumer<String[]> rowConsumer;
+
+        private final List<String> rowData = new ArrayList<>();
+        private final StringBuilder value = new StringBuilder();
+        private final StringBuilder formula = new StringBuilder();
+        private boolean isEmptyRow;
+        private String cellType;
+        private String cellStyle;
+        private boolean inValue;
+        private boolean inFormula;
+        private boolean inInlineText;
+        private boolean hasFormula;
+
+        SheetRowHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, IntPredicate columns,
+                        Consumer<String[]> rowConsumer) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.columns = columns;
+            this.rowConsumer = rowConsumer;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    rowData.clear();
+                    isEmptyRow = true;
+                    break;
+                case "c":
+                    cellType = attributes.getValue("t");
+                    cellStyle = attributes.getValue("s");
+                    value.setLength(0);
+                    formula.setLength(0);
+                    hasFormula = false;
+                    break;
+                case "v":
+                    inValue = true;
+                    break;
+                case "f":
+                    inFormula = true;
+                    hasFormula = true;
+                    break;
+                case "t":
+                    inInlineText = "inlineStr".equals(cellType);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue || inInlineText) {
+                value.append(ch, start, length);
+            } else if (inFormula) {
+                formula.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                    inValue = false;
+                    break;
+                case "f":
+                    inFormula = false;
+                    break;
+                case "t":
+                    inInlineText = false;
+                    break;
+                case "c":
+                    if (!columns.test(rowData.size())) {
+                        rowData.add("");
+                        if (value.length() > 0 || hasFormula) isEmptyRow = false;
+                        break;
+                    }
+                    String cellValue = formatCell().trim();
+                    rowData.add(cellValue);
+                    if (!cellValue.isEmpty()) isEmptyRow = false;
+                    break;
+                case "row":
+                    if (!isEmptyRow) {
+                        rowConsumer.accept(rowData.toArray(new String[0]));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private String formatCell() {
+            // XSSFCell.toString() prints the formula itself rather than its cached result
+            if (hasFormula) {
+                return formula.toString();
+            }
+            if (cellType == null || "n".equals(cellType)) {
+                return value.length() == 0 ? "" : formatNumeric(value.toString());
+            }
+            switch (cellType) {
+                case "s":
+                    return sharedStrings.getItemAt(Integer.parseInt(value.toString())).getString();
+                case "b":
+                    return "1".equals(value.toString()) ? "TRUE" : "FALSE";
+                default:
+                    // inlineStr, str and e all carry their text verbatim
+                    return value.toString();
+            }
+        }
+
+        private String formatNumeric(String raw) {
+            double number = Double.parseDouble(raw);
+            if (cellStyle != null && styles != null) {
+                XSSFCellStyle style = styles.getStyleAt(Integer.parseInt(cellStyle));
+                if (style != null
+                        && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString())
+                        && DateUtil.isValidExcelDate(number)) {
+                    SimpleDateFormat sdf = new SimpleDateFormat("dd-MMM-yyyy", LocaleUtil.getUserLocale());
+                    sdf.setTimeZone(LocaleUtil.getUserTimeZone());
+                    return sdf.format(DateUtil.getJavaDate(number));
+                }
+            }
+            return Double.toString(number);
+        }
+    }
 }
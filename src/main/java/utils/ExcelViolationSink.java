@@ -0,0 +1,303 @@
+package utils;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Streams violation rows straight into the xlsx zip as sheet XML, one inline-string cell per
+// value. Each row is encoded into a reused byte buffer and handed to the zip stream, so neither
+// the rows nor per-cell objects stay on the heap and nothing is spooled to a temporary sheet
+// file. A sheet that reaches Excel's row limit is continued on a new one. The workbook parts
+// that list the sheets are written by close(); until then the file is built next to the output
+// and only moved into place once complete.
+public class ExcelViolationSink implements ViolationSink {
+    private static final Logger log = LoggerFactory.getLogger(ExcelViolationSink.class);
+    private static final String SHEET_NAME = "SoD Violations";
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    // Favour speed: the sheet XML is highly repetitive and still compresses well at level 1
+    private static final int COMPRESSION_LEVEL = Deflater.BEST_SPEED;
+
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String PACKAGE_REL_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final byte[] SHEET_START = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<worksheet xmlns=\""
+            + MAIN_NS + "\"><sheetData>\n").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SHEET_END = "</sheetData></worksheet>".getBytes(StandardCharsets.UTF_8);
+
+    private final String outputPath;
+    private final Path target;
+    private final Path temp;
+    private final String[] headers;
+    private final ZipOutputStream zip;
+    private final List<String> sheetNames = new ArrayList<>();
+    private byte[][] columnRefs = new byte[0][];
+    private byte[] row = new byte[1 << 14];
+    private int length;
+    private int nextRow;  // 1-based, as in the sheet XML
+    private boolean closed;
+
+    public ExcelViolationSink(String outputPath) throws IOException {
+        this(outputPath, OutputGenerator.REPORT_HEADERS);
+    }
+
+    public ExcelViolationSink(String outputPath, String[] headers) throws IOException {
+        this.outputPath = outputPath;
+        this.headers = headers;
+        this.target = Paths.get(outputPath).toAbsolutePath();
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16));
+            zip.setLevel(COMPRESSION_LEVEL);
+            startSheet();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    // Throws UncheckedIOException when the file cannot be written
+    @Override
+    public void accept(String[] violation) {
+        try {
+            if (nextRow > MAX_ROWS) {
+                zip.write(SHEET_END);
+                zip.closeEntry();
+                startSheet();
+            }
+            writeRow(violation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing Excel to file: " + outputPath, e);
+        }
+    }
+
+    // ✅ Finish the last sheet, write the workbook parts and move the file into place
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean complete = false;
+        try {
+            try (ZipOutputStream out = zip) {
+                out.write(SHEET_END);
+                out.closeEntry();
+                writeWorkbookParts();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        log.info("✅ Excel output successfully written to: " + outputPath);
+    }
+
+    @Override
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            zip.close();
+        } catch (IOException e) {
+            // the file is deleted below either way
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.warn("⚠ Could not delete the unfinished report " + temp + ": " + e.getMessage());
+        }
+        log.warn("⚠ Report not written, " + target + " was left as it was");
+    }
+
+    private void startSheet() throws IOException {
+        int sheetNumber = sheetNames.size() + 1;
+        sheetNames.add(sheetNumber == 1 ? SHEET_NAME : SHEET_NAME + " (" + sheetNumber + ")");
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetNumber + ".xml"));
+        zip.write(SHEET_START);
+        nextRow = 1;
+        writeRow(headers);
+    }
+
+    // <row r="N"><c r="AN" t="inlineStr"><is><t>value</t></is></c>...</row>, with a null value as an empty cell
+    private void writeRow(String[] values) throws IOException {
+        length = 0;
+        append("<row r=\"");
+        appendNumber(nextRow);
+        append("\">");
+        for (int column = 0; column < values.length; column++) {
+            append("<c r=\"");
+            append(columnRef(column));
+            appendNumber(nextRow);
+            String value = OutputGenerator.fitCell(values[column]);
+            if (value == null) {
+                append("\"/>");
+                continue;
+            }
+            boolean preserve = !value.isEmpty()
+                    && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+            append(preserve ? "\" t=\"inlineStr\"><is><t xml:space=\"preserve\">" : "\" t=\"inlineStr\"><is><t>");
+            appendEscaped(value);
+            append("</t></is></c>");
+        }
+        append("</row>\n");
+        zip.write(row, 0, length);
+        nextRow++;
+    }
+
+    // Column letters: A..Z, AA..ZZ, AAA...
+    private byte[] columnRef(int column) {
+        if (column >= columnRefs.length) {
+            int oldLength = columnRefs.length;
+            columnRefs = Arrays.copyOf(columnRefs, Math.max(column + 1, oldLength * 2));
+            for (int c = oldLength; c < columnRefs.length; c++) {
+                StringBuilder letters = new StringBuilder();
+                for (int n = c + 1; n > 0; n = (n - 1) / 26) {
+                    letters.insert(0, (char) ('A' + (n - 1) % 26));
+                }
+                columnRefs[c] = letters.toString().getBytes(StandardCharsets.US_ASCII);
+            }
+        }
+        return columnRefs[column];
+    }
+
+    private void append(String ascii) {
+        ensureCapacity(ascii.length());
+        for (int i = 0; i < ascii.length(); i++) {
+            row[length++] = (byte) ascii.charAt(i);
+        }
+    }
+
+    private void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, row, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void appendNumber(int number) {
+        ensureCapacity(10);
+        int digits = 1;
+        for (int rest = number / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            row[i] = (byte) ('0' + number % 10);
+            number /= 10;
+        }
+        length += digits;
+    }
+
+    // UTF-8 with the XML text escapes. Characters XML cannot carry at all (most control
+    // characters, unpaired surrogates) become '?', and a carriage return is kept as a reference.
+    private void appendEscaped(String value) {
+        ensureCapacity(value.length() * 6);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                switch (c) {
+                    case '<':
+                        append("&lt;");
+                        break;
+                    case '>':
+                        append("&gt;");
+                        break;
+                    case '&':
+                        append("&amp;");
+                        break;
+                    case '\r':
+                        append("&#13;");
+                        break;
+                    default:
+                        row[length++] = (byte) (c < 0x20 && c != '\t' && c != '\n' ? '?' : c);
+                        break;
+                }
+            } else if (c < 0x800) {
+                row[length++] = (byte) (0xC0 | (c >> 6));
+                row[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                       && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                row[length++] = (byte) (0xF0 | (codePoint >> 18));
+                row[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                row[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                row[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c) || c == 0xFFFE || c == 0xFFFF) {
+                row[length++] = '?';
+            } else {
+                row[length++] = (byte) (0xE0 | (c >> 12));
+                row[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                row[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > row.length) {
+            row = Arrays.copyOf(row, Math.max(length + extra, row.length * 2));
+        }
+    }
+
+    // The package parts that tie the sheets together, plus a minimal stylesheet
+    private void writeWorkbookParts() throws IOException {
+        StringBuilder contentTypes = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                .append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        StringBuilder workbook = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<workbook xmlns=\"").append(MAIN_NS).append("\" xmlns:r=\"").append(REL_NS).append("\">")
+                .append("<bookViews><workbookView activeTab=\"0\"/></bookViews><sheets>");
+        StringBuilder workbookRels = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<Relationships xmlns=\"").append(PACKAGE_REL_NS).append("\">")
+                .append("<Relationship Id=\"rId1\" Type=\"").append(REL_NS).append("/styles\" Target=\"styles.xml\"/>");
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            contentTypes.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+            workbook.append("<sheet name=\"").append(sheetNames.get(i - 1)).append("\" sheetId=\"").append(i)
+                    .append("\" r:id=\"rId").append(i + 1).append("\"/>");
+            workbookRels.append("<Relationship Id=\"rId").append(i + 1).append("\" Type=\"").append(REL_NS)
+                    .append("/worksheet\" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+        writeEntry("[Content_Types].xml", contentTypes.append("</Types>"));
+        writeEntry("_rels/.rels", new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<Relationships xmlns=\"").append(PACKAGE_REL_NS).append("\">")
+                .append("<Relationship Id=\"rId1\" Type=\"").append(REL_NS)
+                .append("/officeDocument\" Target=\"xl/workbook.xml\"/></Relationships>"));
+        writeEntry("xl/workbook.xml", workbook.append("</sheets></workbook>"));
+        writeEntry("xl/_rels/workbook.xml.rels", workbookRels.append("</Relationships>"));
+        writeEntry("xl/styles.xml", new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<styleSheet xmlns=\"").append(MAIN_NS).append("\">")
+                .append("<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/><family val=\"2\"/></font></fonts>")
+                .append("<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>")
+                .append("<fill><patternFill patternType=\"gray125\"/></fill></fills>")
+                .append("<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>")
+                .append("<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>")
+                .append("<cellXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/></cellXfs>")
+                .append("</styleSheet>"));
+    }
+
+    private void writeEntry(String name, CharSequence content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.toString().getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
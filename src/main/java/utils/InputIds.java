@@ -0,0 +1,44 @@
+package utils;
+
+import java.math.BigDecimal;
+
+// IDs as they appear in the input extracts. The same ID is spelled differently depending on
+// where it comes from: numeric workbook cells are read as "1317.0" or "3.00000139140844E14",
+// CSV exports and hand-written files say "1317" and "300000139140844". Joins between tables
+// (and against delta files) compare the canonical form.
+public final class InputIds {
+    private InputIds() {
+    }
+
+    // ✅ Canonical form of an extract ID: integral numbers are written out plainly, anything else
+    // is returned trimmed but otherwise as is
+    public static String normalize(String id) {
+        id = id.trim();
+        if (id.isEmpty() || !(Character.isDigit(id.charAt(0)) || id.charAt(0) == '-')) {
+            return id;
+        }
+        if (isPlainInteger(id)) {
+            return id;  // already canonical; skips the BigDecimal on the common path
+        }
+        try {
+            BigDecimal number = new BigDecimal(id);
+            return number.stripTrailingZeros().scale() <= 0 ? number.toBigInteger().toString() : id;
+        } catch (NumberFormatException e) {
+            return id;
+        }
+    }
+
+    // ASCII digits only, without a leading zero
+    private static boolean isPlainInteger(String id) {
+        if (id.length() > 1 && id.charAt(0) == '0') {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
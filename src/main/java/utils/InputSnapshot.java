@@ -0,0 +1,277 @@
+package utils;
+
+import models.SymbolTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Binary cache of the parsed input tables, so unchanged XLSX files are not parsed again.
+//
+// Layout (big-endian):
+//   int magic, int version, int tableCount
+//   tableCount x 32-byte SHA-256 of the source file the table was read from
+//   int stringCount, then per string: int byteLength + UTF-8 bytes (every distinct cell value once)
+//   per table: int rowCount, int cellCount, int[rowCount] row lengths, int[cellCount] string ids
+//
+// The snapshot is read through a memory-mapped FileChannel. A table is only taken from it when
+// its source file still has the same content hash; the others must be re-read and saved again.
+public class InputSnapshot {
+    private static final Logger log = LoggerFactory.getLogger(InputSnapshot.class);
+    private static final int MAGIC = 0x534F4453; // "SODS"
+    private static final int VERSION = 1;
+    private static final int DIGEST_LENGTH = 32;
+
+    private final Path snapshotPath;
+    private final List<String> sourcePaths;
+    private final byte[][] sourceDigests;
+    private final List<List<String[]>> tables;
+
+    private InputSnapshot(Path snapshotPath, List<String> sourcePaths, byte[][] sourceDigests,
+                          List<List<String[]>> tables) {
+        this.snapshotPath = snapshotPath;
+        this.sourcePaths = sourcePaths;
+        this.sourceDigests = sourceDigests;
+        this.tables = tables;
+    }
+
+    // ✅ Hash the source files and load every table whose source is unchanged. A missing,
+    // unreadable or outdated snapshot is not an error; its tables are simply reported as stale.
+    public static InputSnapshot open(Path snapshotPath, List<String> sourcePaths) throws IOException {
+        byte[][] digests = new byte[sourcePaths.size()][];
+        for (int i = 0; i < digests.length; i++) {
+            digests[i] = digest(Path.of(sourcePaths.get(i)));
+        }
+
+        List<List<String[]>> tables = new ArrayList<>(Collections.nCopies(sourcePaths.size(), null));
+        if (Files.isRegularFile(snapshotPath)) {
+            try {
+                readTables(snapshotPath, digests, tables);
+            } catch (IOException | IllegalStateException | BufferUnderflowException | IndexOutOfBoundsException e) {
+                log.warn("⚠ Ignoring unreadable snapshot {}: {}", snapshotPath, e.getMessage());
+                tables.replaceAll(table -> null);
+            }
+        }
+        return new InputSnapshot(snapshotPath, sourcePaths, digests, tables);
+    }
+
+    // ✅ The table read from source file `index`, or null if that file changed and must be re-read
+    public List<String[]> getTable(int index) {
+        return tables.get(index);
+    }
+
+    // ✅ True when every table came from the snapshot
+    public boolean isCurrent() {
+        return !tables.contains(null);
+    }
+
+    // ✅ Store the given tables (one per source file, in the same order) and use them from now on.
+    // The file is written next to the snapshot and then moved over it, so readers never see half a file.
+    public void save(List<List<String[]>> freshTables) throws IOException {
+        if (freshTables.size() != sourcePaths.size()) {
+            throw new IllegalArgumentException("Expected " + sourcePaths.size() + " tables, got " + freshTables.size());
+        }
+        write(snapshotPath, sourceDigests, freshTables);
+        for (int i = 0; i < freshTables.size(); i++) {
+            tables.set(i, freshTables.get(i));
+        }
+    }
+
+    // ✅ Every table in the snapshot, whatever its source files contain now (incremental runs
+    // start from the previous run's input). Throws IOException if the file is missing or unreadable.
+    public static List<List<String[]>> loadAll(Path snapshotPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = mapHeader(channel);
+            int tableCount = buffer.getInt();
+            byte[][] stored = new byte[tableCount][DIGEST_LENGTH];
+            for (byte[] digest : stored) {
+                buffer.get(digest);
+            }
+            List<List<String[]>> tables = new ArrayList<>(Collections.nCopies(tableCount, null));
+            readTables(buffer, stored, stored, tables);
+            return tables;
+        } catch (IllegalStateException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Unreadable snapshot " + snapshotPath + ": " + e.getMessage(), e);
+        }
+    }
+
+    // ✅ Store tables that no longer match any source file (e.g. after applying an incremental
+    // change). Their digests are left blank, so a later full run re-reads the XLSX files.
+    public static void saveDerived(Path snapshotPath, List<List<String[]>> tables) throws IOException {
+        byte[][] blank = new byte[tables.size()][DIGEST_LENGTH];
+        write(snapshotPath, blank, tables);
+    }
+
+    private static void write(Path snapshotPath, byte[][] digests, List<List<String[]>> tables)
+            throws IOException {
+        SymbolTable strings = new SymbolTable();
+        for (List<String[]> table : tables) {
+            for (String[] row : table) {
+                for (String cell : row) {
+                    strings.intern(cell);
+                }
+            }
+        }
+
+        Path absolute = snapshotPath.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(tables.size());
+                for (byte[] digest : digests) {
+                    out.write(digest);
+                }
+
+                out.writeInt(strings.size());
+                for (String value : strings.names()) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+
+                for (List<String[]> table : tables) {
+                    int cellCount = 0;
+                    for (String[] row : table) {
+                        cellCount += row.length;
+                    }
+                    out.writeInt(table.size());
+                    out.writeInt(cellCount);
+                    for (String[] row : table) {
+                        out.writeInt(row.length);
+                    }
+                    for (String[] row : table) {
+                        for (String cell : row) {
+                            out.writeInt(strings.lookup(cell));
+                        }
+                    }
+                }
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("Saved input snapshot to " + snapshotPath);
+    }
+
+    // Decode the tables whose stored digest matches; leaves the other entries null
+    private static void readTables(Path snapshotPath, byte[][] digests, List<List<String[]>> tables)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = mapHeader(channel);
+            int tableCount = buffer.getInt();
+            byte[][] stored = new byte[tableCount][DIGEST_LENGTH];
+            for (byte[] digest : stored) {
+                buffer.get(digest);
+            }
+            readTables(buffer, stored, digests, tables);
+        }
+    }
+
+    // Map the whole file and check the magic number and version
+    private static MappedByteBuffer mapHeader(FileChannel channel) throws IOException {
+        if (channel.size() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("snapshot is larger than 2 GB");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalStateException("not a snapshot of this version");
+        }
+        return buffer;
+    }
+
+    // Decode the string table and every table whose stored digest equals the wanted one
+    private static void readTables(ByteBuffer buffer, byte[][] stored, byte[][] wanted,
+                                   List<List<String[]>> tables) {
+        boolean[] current = new boolean[stored.length];
+        boolean anyCurrent = false;
+        for (int i = 0; i < stored.length; i++) {
+            current[i] = i < wanted.length && i < tables.size() && Arrays.equals(stored[i], wanted[i]);
+            anyCurrent |= current[i];
+        }
+        if (!anyCurrent) {
+            return;
+        }
+
+        String[] strings = new String[buffer.getInt()];
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt();
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        for (int i = 0; i < stored.length; i++) {
+            int rowCount = buffer.getInt();
+            int cellCount = buffer.getInt();
+            if (rowCount < 0 || cellCount < 0 || 4L * ((long) rowCount + cellCount) > buffer.remaining()) {
+                throw new IllegalStateException("table " + i + " runs past the end of the snapshot");
+            }
+            if (!current[i]) {
+                buffer.position(buffer.position() + 4 * (rowCount + cellCount));
+                continue;
+            }
+            tables.set(i, decodeTable(buffer, rowCount, cellCount, strings));
+        }
+    }
+
+    private static List<String[]> decodeTable(ByteBuffer buffer, int rowCount, int cellCount, String[] strings) {
+        int[] rowLengths = new int[rowCount];
+        int[] cells = new int[cellCount];
+        buffer.asIntBuffer().get(rowLengths);
+        buffer.position(buffer.position() + 4 * rowCount);
+        buffer.asIntBuffer().get(cells);
+        buffer.position(buffer.position() + 4 * cellCount);
+
+        List<String[]> rows = new ArrayList<>(rowCount);
+        int next = 0;
+        for (int length : rowLengths) {
+            String[] row = new String[length];
+            for (int c = 0; c < length; c++) {
+                row[c] = strings[cells[next++]];
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // SHA-256 of a file's content, read through a memory map
+    private static byte[] digest(Path file) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long offset = 0; offset < size; offset += Integer.MAX_VALUE) {
+                long length = Math.min(Integer.MAX_VALUE, size - offset);
+                sha256.update(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+            }
+        }
+        return sha256.digest();
+    }
+}
@@ -0,0 +1,112 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Runs input loads on an executor while keeping the estimated heap of the loads in progress
+// under a budget. Loads are added first and released together by start(); whenever room frees
+// up, the largest waiting load that fits is started next, so the long loads begin early and the
+// small ones fill the gaps. A load larger than the whole budget runs once nothing else does.
+public final class LoadScheduler {
+    private static final Logger log = LoggerFactory.getLogger(LoadScheduler.class);
+
+    private final ExecutorService executor;
+    private final long budgetBytes;
+    private final List<Load<?>> waiting = new ArrayList<>();
+    private long runningBytes;
+    private int running;
+    private boolean started;
+
+    public LoadScheduler(ExecutorService executor, long budgetBytes) {
+        this.executor = executor;
+        this.budgetBytes = budgetBytes;
+    }
+
+    // ✅ Queue a load expected to need about `estimatedBytes` of heap while it runs
+    public synchronized <T> Future<T> add(String name, long estimatedBytes, Callable<T> load) {
+        Load<T> entry = new Load<>(name, Math.max(0, estimatedBytes), load);
+        waiting.add(entry);
+        if (started) {
+            schedule();
+        }
+        return entry.result;
+    }
+
+    // ✅ Start admitting the queued loads; loads added later are admitted as they come
+    public synchronized void start() {
+        if (!started) {
+            started = true;
+            long total = waiting.stream().mapToLong(load -> load.estimatedBytes).sum();
+            log.info("Loading " + waiting.size() + " input files (about " + (total >> 20) + " MB) under a " +
+                     (budgetBytes >> 20) + " MB budget");
+            schedule();
+        }
+    }
+
+    private synchronized void schedule() {
+        while (!waiting.isEmpty()) {
+            Load<?> next = null;
+            for (Load<?> load : waiting) {
+                if (runningBytes + load.estimatedBytes <= budgetBytes
+                        && (next == null || load.estimatedBytes > next.estimatedBytes)) {
+                    next = load;
+                }
+            }
+            if (next == null) {
+                if (running > 0) {
+                    return;  // wait for a running load to finish
+                }
+                next = waiting.get(0);
+                for (Load<?> load : waiting) {
+                    if (load.estimatedBytes > next.estimatedBytes) {
+                        next = load;
+                    }
+                }
+                log.warn("⚠ " + next.name + " needs about " + (next.estimatedBytes >> 20) + " MB, more than the " +
+                         (budgetBytes >> 20) + " MB load budget; loading it on its own");
+            }
+            waiting.remove(next);
+            runningBytes += next.estimatedBytes;
+            running++;
+            log.debug("Loading {} (about {} MB, {} MB in use)", next.name, next.estimatedBytes >> 20, runningBytes >> 20);
+            Load<?> admitted = next;
+            executor.execute(() -> run(admitted));
+        }
+    }
+
+    private <T> void run(Load<T> load) {
+        try {
+            load.result.complete(load.task.call());
+        } catch (Throwable e) {
+            load.result.completeExceptionally(e);
+        } finally {
+            finished(load);
+        }
+    }
+
+    private synchronized void finished(Load<?> load) {
+        runningBytes -= load.estimatedBytes;
+        running--;
+        schedule();
+    }
+
+    private static final class Load<T> {
+        private final String name;
+        private final long estimatedBytes;
+        private final Callable<T> task;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Load(String name, long estimatedBytes, Callable<T> task) {
+            this.name = name;
+            this.estimatedBytes = estimatedBytes;
+            this.task = task;
+        }
+    }
+}
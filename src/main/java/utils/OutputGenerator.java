@@ -1,72 +1,73 @@
 package utils;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class OutputGenerator {
+    private static final Logger log = LoggerFactory.getLogger(OutputGenerator.class);
+
+    // Column headers of the CSV and Excel reports
+    public static final String[] REPORT_HEADERS = {
+            "SoD_Rule_Name", "User_Name", "SoD_Leg_1", "Role(Leg_1)", "Access_Point(Leg_1)",
+            "Incident_Path(Leg_1)", "Conflicting_Role(Leg_2)", "Conflicting_Access_Point(Leg_2)",
+            "Incident_Path(Leg_2)", "Type_of_Conflict", "Department", "User_Full_Name",
+            "Email_ID", "Type_of_User"
+    };
+
+    // ✅ Report writer chosen by file extension: CSV for ".csv" (gzip-compressed for ".csv.gz"), Excel otherwise
+    public static ViolationSink openReport(String path, String[] headers) throws IOException {
+        return openReport(path, headers, null);
+    }
+
+    // ✅ Same, encoding CSV rows on the pool's workers (null: on the calling thread)
+    public static ViolationSink openReport(String path, String[] headers, ForkJoinPool pool) throws IOException {
+        if (isCsv(path)) {
+            return new CsvViolationSink(path, headers, pool);
+        }
+        return new ExcelViolationSink(path, headers);
+    }
+
+    // ✅ True for the paths openReport writes as CSV
+    public static boolean isCsv(String path) {
+        String name = path.toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".csv.gz");
+    }
 
     // Method to generate CSV output
     public static void generateCSV(List<String[]> violations, String fileName) {
-        try (FileWriter writer = new FileWriter(fileName)) {
-            writer.append("SoD_Rule_Name,User_Name,SoD_Leg_1,Role(Leg_1),Access_Point(Leg_1),")
-                  .append("Incident_Path(Leg_1),Conflicting_Role(Leg_2),Conflicting_Access_Point(Leg_2),")
-                  .append("Incident_Path(Leg_2),Type_of_Conflict,Department,User_Full_Name,Email_ID,Type_of_User\n");
-
-            if (violations.isEmpty()) {
-                writer.append("No violations found\n");
-            } else {
-                for (String[] violation : violations) {
-                    writer.append(String.join(",", violation)).append("\n");
-                }
-            }
-
-            System.out.println("✅ CSV output successfully written to: " + fileName);
-        } catch (IOException e) {
-            System.err.println("❌ Error writing CSV to file: " + fileName);
-            e.printStackTrace();
+        try (ViolationSink sink = new CsvViolationSink(fileName)) {
+            violations.forEach(sink::accept);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("❌ Error writing CSV to file: " + fileName, e);
         }
     }
 
     // Method to generate memory-efficient Excel output
     public static void generateExcel(List<String[]> violations, String outputPath) {
-        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) { // Keep 100 rows in memory
-            Sheet sheet = workbook.createSheet("SoD Violations");
-
-            String[] headers = {
-                    "SoD_Rule_Name", "User_Name", "SoD_Leg_1", "Role(Leg_1)", "Access_Point(Leg_1)",
-                    "Incident_Path(Leg_1)", "Conflicting_Role(Leg_2)", "Conflicting_Access_Point(Leg_2)",
-                    "Incident_Path(Leg_2)", "Type_of_Conflict", "Department", "User_Full_Name",
-                    "Email_ID", "Type_of_User"
-            };
-
-            Row headerRow = sheet.createRow(0);
-            for (int i = 0; i < headers.length; i++) {
-                headerRow.createCell(i).setCellValue(headers[i]);
-            }
-
-            int rowNum = 1;
-            for (String[] violation : violations) {
-                Row row = sheet.createRow(rowNum++);
-                for (int i = 0; i < violation.length; i++) {
-                    row.createCell(i).setCellValue(violation[i]);
-                }
-            }
-
-            try (FileOutputStream fileOut = new FileOutputStream(outputPath)) {
-                workbook.write(fileOut);
-            }
-
-            System.out.println("✅ Excel output successfully written to: " + outputPath);
+        try (ViolationSink sink = new ExcelViolationSink(outputPath)) {
+            violations.forEach(sink::accept);
         } catch (IOException e) {
-            System.err.println("❌ Error writing Excel to file: " + outputPath);
-            e.printStackTrace();
+            log.error("❌ Error writing Excel to file: " + outputPath, e);
+        }
+    }
+
+    // Excel rejects cell text longer than 32,767 characters; long overlap lists are cut short
+    public static String fitCell(String value) {
+        int maxLength = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+        if (value == null || value.length() <= maxLength) {
+            return value;
         }
+        String marker = "...";
+        return value.substring(0, maxLength - marker.length()) + marker;
     }
 
     // Method to parse and format raw input data
@@ -0,0 +1,37 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// JFR event for one RunMetrics phase. Only recorded while a flight recording is running
+// (e.g. -XX:StartFlightRecording), so it shows the phases on the recording's timeline next to
+// GC and allocation events; otherwise it costs next to nothing.
+@Name("sodchecker.Phase")
+@Label("SoD Phase")
+@Category("SoD Checker")
+@Description("One timed phase of an SoD run")
+@StackTrace(false)
+final class PhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Scope")
+    @Description("thread: measured on the thread that ran the phase; process: on every thread")
+    String scope;
+
+    @Label("CPU Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    @Label("Counts")
+    String counts;
+}
@@ -0,0 +1,308 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+
+// Thread-safe record of the phases of one run: wall time, CPU time, bytes allocated, GC time and
+// named counts (rows, edges, violations...) per phase, written as a JSON run report. A phase is
+// measured either on the thread that runs it (start: one file read on an executor thread, so
+// concurrent phases don't count each other's work) or across the whole process (startParallel:
+// a phase fanned out over a pool, while nothing else runs). Every phase is also a JFR event.
+//
+//     try (RunMetrics.Phase phase = metrics.startParallel("build role hierarchy")) {
+//         ...
+//         phase.count("rows", rows.size());
+//     }
+public final class RunMetrics {
+    private static final Logger log = LoggerFactory.getLogger(RunMetrics.class);
+
+    // ✅ Records nothing; for callers that are not part of a measured run
+    public static final RunMetrics DISABLED = new RunMetrics(false);
+
+    private static final com.sun.management.ThreadMXBean threads = threadBean();
+    private static final com.sun.management.OperatingSystemMXBean os = osBean();
+
+    private final boolean enabled;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final long startCpuNanos = processCpuNanos();
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private final List<Phase> phases = new ArrayList<>();
+
+    public RunMetrics() {
+        this(true);
+    }
+
+    private RunMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // ✅ Time a phase by the calling thread's CPU time and allocations
+    public Phase start(String name) {
+        return new Phase(this, name, false);
+    }
+
+    // ✅ Time a phase by the whole process's CPU time and allocations; for work spread over a
+    // pool, when no other phase runs at the same time
+    public Phase startParallel(String name) {
+        return new Phase(this, name, true);
+    }
+
+    // ✅ Describe the run in the report (mode, parallelism, input sizes...); value is a String or Number
+    public synchronized void attribute(String name, Object value) {
+        if (enabled) {
+            attributes.put(name, value);
+        }
+    }
+
+    // ✅ The finished phases in the order they ended
+    public synchronized List<Phase> getPhases() {
+        return new ArrayList<>(phases);
+    }
+
+    // ✅ Write the run report: run totals, heap sizing and one entry per finished phase
+    public void writeJson(Path path) throws IOException {
+        Files.writeString(path, toJson(), StandardCharsets.UTF_8);
+    }
+
+    public synchronized String toJson() {
+        Runtime runtime = Runtime.getRuntime();
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"startedAt\": ");
+        appendString(json, startedAt.toString());
+        json.append(",\n  \"wallMillis\": ").append(millis(System.nanoTime() - startNanos));
+        json.append(",\n  \"cpuMillis\": ").append(millis(difference(processCpuNanos(), startCpuNanos)));
+        json.append(",\n  \"availableProcessors\": ").append(runtime.availableProcessors());
+        json.append(",\n  \"maxHeapBytes\": ").append(runtime.maxMemory());
+        json.append(",\n  \"peakHeapBytes\": ").append(peakHeapBytes());
+        json.append(",\n  \"gcMillis\": ").append(gcMillis());
+        for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+            json.append(",\n  ");
+            appendString(json, attribute.getKey());
+            json.append(": ");
+            appendValue(json, attribute.getValue());
+        }
+        json.append(",\n  \"phases\": [");
+        for (int i = 0; i < phases.size(); i++) {
+            json.append(i > 0 ? ",\n    " : "\n    ");
+            phases.get(i).appendJson(json);
+        }
+        return json.append(phases.isEmpty() ? "]\n}\n" : "\n  ]\n}\n").toString();
+    }
+
+    private synchronized void finished(Phase phase) {
+        phases.add(phase);
+    }
+
+    // One timed phase; close() ends it. Counts may be added until then.
+    public static final class Phase implements AutoCloseable {
+        private final RunMetrics metrics;
+        private final String name;
+        private final boolean process;
+        private final PhaseEvent event;
+        private final Map<String, Long> counts = new LinkedHashMap<>();
+        private final long startNanos;
+        private final long startCpuNanos;
+        private final long startAllocated;
+        private final long startGcMillis;
+        private long wallNanos;
+        private long cpuNanos;
+        private long allocatedBytes;
+        private long gcMillis;
+        private long heapUsedBytes;
+        private boolean closed;
+
+        private Phase(RunMetrics metrics, String name, boolean process) {
+            this.metrics = metrics;
+            this.name = name;
+            this.process = process;
+            if (!metrics.enabled) {
+                event = null;
+                startNanos = startCpuNanos = startAllocated = startGcMillis = 0;
+                return;
+            }
+            event = new PhaseEvent();
+            event.begin();
+            startGcMillis = gcMillis();
+            startAllocated = allocatedBytes(process);
+            startCpuNanos = cpuNanos(process);
+            startNanos = System.nanoTime();
+        }
+
+        // ✅ Add to a named count of this phase
+        public Phase count(String counter, long value) {
+            counts.merge(counter, value, Long::sum);
+            return this;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        @Override
+        public void close() {
+            if (closed || !metrics.enabled) {
+                closed = true;
+                return;
+            }
+            closed = true;
+            wallNanos = System.nanoTime() - startNanos;
+            cpuNanos = difference(cpuNanos(process), startCpuNanos);
+            allocatedBytes = difference(allocatedBytes(process), startAllocated);
+            gcMillis = gcMillis() - startGcMillis;
+            Runtime runtime = Runtime.getRuntime();
+            heapUsedBytes = runtime.totalMemory() - runtime.freeMemory();
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = name;
+                event.scope = scope();
+                event.cpuTime = cpuNanos;
+                event.allocated = allocatedBytes;
+                event.counts = counts.toString();
+                event.commit();
+            }
+            metrics.finished(this);
+            if (log.isDebugEnabled()) {
+                log.debug("⏱ {}: {} ms wall, {} ms CPU, {} MB allocated {}", name, millis(wallNanos),
+                          millis(cpuNanos), allocatedBytes >> 20, counts);
+            }
+        }
+
+        private String scope() {
+            return process ? "process" : "thread";
+        }
+
+        private void appendJson(StringBuilder json) {
+            json.append("{\"name\": ");
+            appendString(json, name);
+            json.append(", \"scope\": \"").append(scope()).append('"');
+            json.append(", \"wallMillis\": ").append(millis(wallNanos));
+            json.append(", \"cpuMillis\": ").append(millis(cpuNanos));
+            json.append(", \"allocatedBytes\": ").append(allocatedBytes < 0 ? "null" : String.valueOf(allocatedBytes));
+            json.append(", \"gcMillis\": ").append(gcMillis);
+            json.append(", \"heapUsedBytes\": ").append(heapUsedBytes);
+            for (Map.Entry<String, Long> count : counts.entrySet()) {
+                json.append(", ");
+                appendString(json, count.getKey());
+                json.append(": ").append(count.getValue());
+            }
+            json.append('}');
+        }
+    }
+
+    // Change between two readings; -1 (shown as null) when either could not be taken
+    private static long difference(long end, long start) {
+        return end < 0 || start < 0 ? -1 : end - start;
+    }
+
+    // CPU time of the current thread, or of the process; -1 where the JVM can't measure it
+    private static long cpuNanos(boolean process) {
+        if (process) {
+            return processCpuNanos();
+        }
+        return threads != null && threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long processCpuNanos() {
+        return os != null ? os.getProcessCpuTime() : -1;
+    }
+
+    // Bytes allocated so far by the current thread, or by all live threads. Threads that end
+    // during a process phase take their allocations with them, so pools should outlive the phase.
+    private static long allocatedBytes(boolean process) {
+        if (threads == null || !threads.isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        if (!process) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    // Sum of the heap pools' peak usage since start; what a container has to leave room for
+    private static long peakHeapBytes() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    private static String millis(long nanos) {
+        return nanos < 0 ? "null" : String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static void appendValue(StringBuilder json, Object value) {
+        if (value instanceof Number) {
+            json.append(value);
+        } else {
+            appendString(json, String.valueOf(value));
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    private static com.sun.management.OperatingSystemMXBean osBean() {
+        java.lang.management.OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        return bean instanceof com.sun.management.OperatingSystemMXBean
+                ? (com.sun.management.OperatingSystemMXBean) bean : null;
+    }
+}
@@ -0,0 +1,93 @@
+package utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Reads one input table whatever its format: .csv and .tsv exports go through the memory-mapped
+// CsvReader, anything else is read as an XLSX workbook by ExcelReader. Both give the same row
+// layout (trimmed cells, blank rows dropped, header row kept), collected into a ColumnTable.
+public final class TableReader {
+    private TableReader() {
+    }
+
+    // ✅ The schema's columns of the file, found by the names in its header row. Only those cells
+    // are decoded: a CSV/TSV header is read first to know which fields to decode, a workbook is
+    // narrowed to them as soon as its header row has been parsed.
+    public static ColumnTable read(String path, ColumnTable.Schema schema, ForkJoinPool pool) throws IOException {
+        ColumnTable.Builder builder = schema.builder();
+        char delimiter = delimiterOf(path);
+        if (delimiter == 0) {
+            try {
+                ExcelReader.streamExcelFile(path, builder::wants, builder);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();  // a half-read workbook must not pass for the whole table
+            }
+            return builder.build();
+        }
+        String[] header = CsvReader.readHeader(path, delimiter);
+        List<String[]> rows = CsvReader.read(path, delimiter, schema.resolve(header), pool);
+        if (!rows.isEmpty()) {
+            builder.accept(header);
+            rows.subList(1, rows.size()).forEach(builder);
+        }
+        return builder.build();
+    }
+
+    // ✅ Every row of the file with all its cells, for small files without a fixed schema
+    public static List<String[]> readRows(String path) throws IOException {
+        char delimiter = delimiterOf(path);
+        if (delimiter != 0) {
+            return CsvReader.read(path, delimiter, null, null);
+        }
+        try {
+            return ExcelReader.readExcelFileStreaming(path);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ✅ Rough heap needed to read the file: the decompressed size of a workbook's entries (the
+    // sheet XML and shared strings the parser walks through), or the size of a delimited file
+    public static long estimateBytes(String path) {
+        try {
+            long fileSize = Files.size(Path.of(path));
+            if (delimiterOf(path) != 0) {
+                return fileSize;
+            }
+            long total = 0;
+            try (ZipFile zip = new ZipFile(path)) {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    // Sizes are in the central directory; assume 10x compression if one is missing
+                    total += entry.getSize() >= 0 ? entry.getSize() : entry.getCompressedSize() * 10;
+                }
+            } catch (IOException e) {
+                return fileSize * 10;  // not a zip; the reader will report the problem
+            }
+            return total;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // Field delimiter for the file extension, or 0 for a workbook
+    private static char delimiterOf(String path) {
+        String name = path.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return ',';
+        }
+        if (name.endsWith(".tsv") || name.endsWith(".tab")) {
+            return '\t';
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,22 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Destination for violation rows as the detector finds them, so the report can be written
+// without first collecting every row. Rows arrive in report order from one thread at a time.
+@FunctionalInterface
+public interface ViolationSink extends Closeable {
+
+    void accept(String[] violation);
+
+    // ✅ Finish the output after the last row (a no-op for in-memory sinks such as list::add)
+    @Override
+    default void close() throws IOException {
+    }
+
+    // ✅ Discard the output instead of finishing it, when the rows stopped coming because of a
+    // failure; whatever was at the output path before stays there. close() does nothing afterwards.
+    default void abort() {
+    }
+}
@@ -0,0 +1,65 @@
+package detection;
+
+import models.EmployeeGraph;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class ChangeImpactTest {
+
+    // Parent -> child: Top -> Middle -> Leaf; Other stands alone
+    private static EmployeeGraph graph() {
+        EmployeeGraph graph = new EmployeeGraph();
+        graph.addRole("top.user", "Top");          // employee 0
+        graph.addRole("middle.user", "Middle");    // employee 1
+        graph.addRole("leaf.user", "Leaf");        // employee 2
+        graph.addRole("other.user", "Other");      // employee 3
+        graph.addHierarchy("Middle", "Top");
+        graph.addHierarchy("Leaf", "Middle");
+        return graph;
+    }
+
+    @Test
+    public void ancestorsOfARemovedEdgeAreTakenBeforeTheRemoval() {
+        EmployeeGraph graph = graph();
+        ChangeImpact impact = new ChangeImpact();
+        // Middle loses its child Leaf, and Top loses Middle in the same batch
+        impact.addRolesWithAncestors(graph, Collections.singletonList("Middle"));
+        graph.removeHierarchy("Leaf", "Middle");
+        graph.removeHierarchy("Middle", "Top");
+        assertArrayEquals(new int[]{0, 1}, impact.affectedEmployeeIds(graph));
+
+        // Collected after the removal, Top's holders would be missed
+        ChangeImpact late = new ChangeImpact();
+        late.addRolesWithAncestors(graph, Collections.singletonList("Middle"));
+        assertArrayEquals(new int[]{1}, late.affectedEmployeeIds(graph));
+    }
+
+    @Test
+    public void ancestorsOfAnAddedEdgeAreTakenAfterTheAddition() {
+        EmployeeGraph graph = graph();
+        graph.addRole("new.parent.user", "New Parent");  // employee 4
+        ChangeImpact early = new ChangeImpact();
+        early.addRolesWithAncestors(graph, Collections.singletonList("Other"));
+
+        // Other gains a child and a parent; its new parent's holders are affected too
+        graph.addHierarchy("Leaf", "Other");
+        graph.addHierarchy("Other", "New Parent");
+        ChangeImpact impact = new ChangeImpact();
+        impact.addRolesWithAncestors(graph, Collections.singletonList("Other"));
+        assertArrayEquals(new int[]{3, 4}, impact.affectedEmployeeIds(graph));
+        assertArrayEquals(new int[]{3}, early.affectedEmployeeIds(graph));
+    }
+
+    @Test
+    public void employeesWithChangedAssignmentsAreAffected() {
+        EmployeeGraph graph = graph();
+        ChangeImpact impact = new ChangeImpact();
+        impact.addEmployee(" other.user ");
+        impact.addRolesWithAncestors(graph, Arrays.asList("Leaf", "Unknown Role"));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, impact.affectedEmployeeIds(graph));
+    }
+}
@@ -0,0 +1,75 @@
+package detection;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SoDRuleSetTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Excel's "CSV UTF-8" export: a BOM before the header and CRLF line endings
+    @Test
+    public void excelCsvExportIsRead() throws IOException {
+        SoDRuleSet rules = SoDRuleSet.read(write("rules.csv",
+                "\uFEFFRULE_NAME,LEG,ACCESS_POINT,ACCESS_POINT_TYPE\r\n"
+                + "\"Create and Pay, Suppliers\",Create,Create Supplier,\r\n"
+                + "\"Create and Pay, Suppliers\",Pay,\"Pay Invoice\nAll Business Units\",Privilege\r\n"
+                + "\r\n"
+                + "# comment,,\r\n"
+                + "Approve own PO,1,Approve PO,ENTITLEMENT\r\n"
+                + "Approve own PO,2,\"Create \"\"Standard\"\" PO\",\r\n"));
+
+        assertEquals(2, rules.size());
+        SoDRuleSet.Rule pay = rules.getRules().get(0);
+        assertEquals("Create and Pay, Suppliers", pay.getName());
+        assertEquals("Create", pay.getLeg(0).getLabel());
+        assertEquals(Arrays.asList("Create Supplier"), pay.getLeg(0).getAccessPoints());
+        assertEquals(Arrays.asList("Pay Invoice\nAll Business Units"), pay.getLeg(1).getAccessPoints());
+
+        SoDRuleSet.Rule approve = rules.getRules().get(1);
+        assertEquals(Arrays.asList(SoDRuleSet.AccessPointType.ENTITLEMENT), approve.getLeg(0).getTypes());
+        assertEquals(Arrays.asList("Create \"Standard\" PO"), approve.getLeg(1).getAccessPoints());
+        assertEquals(Arrays.asList(SoDRuleSet.AccessPointType.PRIVILEGE), approve.getLeg(1).getTypes());
+    }
+
+    @Test
+    public void tabSeparatedRulesetIsRead() throws IOException {
+        SoDRuleSet rules = SoDRuleSet.read(write("rules.tsv",
+                "RULE_NAME\tLEG\tACCESS_POINT\nR\tA\tx, y\nR\tB\tz\n"));
+        assertEquals(Arrays.asList("x, y"), rules.getRules().get(0).getLeg(0).getAccessPoints());
+    }
+
+    @Test
+    public void malformedRulesAreRejected() throws IOException {
+        assertRejected("R,1,a\n", "only one leg");
+        assertRejected("R,1,a\nR,2,b\nR,3,c\n", "more than two legs");
+        assertRejected("R,1\n", "expected RULE_NAME");
+        assertRejected("R,1,a,role\nR,2,b\n", "unknown access point type");
+    }
+
+    private void assertRejected(String content, String problem) throws IOException {
+        try {
+            SoDRuleSet.read(write("bad" + content.hashCode() + ".csv", content));
+            fail("accepted: " + content);
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains(problem));
+        }
+    }
+
+    private String write(String name, String content) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file.toString();
+    }
+}
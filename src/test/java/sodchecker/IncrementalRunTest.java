@@ -0,0 +1,248 @@
+package sodchecker;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import utils.CsvReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// The delta path against a full run: a small tenant is checked in full, then updated with one
+// user-role removal, one role-role removal and one role-role addition. The incremental report
+// must be byte-identical to a full run over inputs edited the same way.
+public class IncrementalRunTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void quietLogging() {
+        // SoDChecker.main only sets the log level when none is given
+        System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", "error");
+    }
+
+    // IDs are spelled like numeric cells ("101.0"); the delta file writes them plainly ("101")
+    private static final String USERS =
+            "HCM_EMP_PERSON_ID,USER_DESCRIPTION,USER_DISPLAY_NAME,EFFECTIVE_END_DATE,EFFECTIVE_START_DATE,USER_ID\n" +
+            "1,,ann,,,101.0\n" +
+            "2,,bob,,,102.0\n" +
+            "3,,cat,,,103.0\n" +
+            "4,,dan,,,104.0\n" +
+            "5,,eve,,,105.0\n";
+    private static final String ROLE_MASTER =
+            "ROLE_ID,ROLE_NAME\n" +
+            "11.0,Payables Clerk\n" +
+            "12.0,Payables Manager\n" +
+            "13.0,Buyer\n" +
+            "14.0,Receiver\n" +
+            "15.0,Warehouse Lead\n" +
+            "16.0,Warehouse Worker\n" +
+            "17.0,Auditor\n" +
+            "18.0,Controller\n";
+    private static final String PRIVILEGES =
+            "PRIVILEGE_CODE,NAME,PRIVILEGE_ID\n" +
+            "A,Create Invoice,21.0\n" +
+            "B,Approve Invoice,22.0\n" +
+            "C,Pay Invoice,23.0\n" +
+            "D,Receive Goods,24.0\n" +
+            "E,View Ledger,29.0\n";
+    // MEMBERSHIP_ID, PRIVILEGE_ID, ROLE_ID
+    private static final String PRIVILEGE_ROLES =
+            "MEMBERSHIP_ID,PRIVILEGE_ID,ROLE_ID\n" +
+            "1,21.0,11.0\n" +
+            "2,22.0,11.0\n" +
+            "3,22.0,12.0\n" +
+            "4,23.0,12.0\n" +
+            "5,24.0,13.0\n" +
+            "6,24.0,14.0\n" +
+            "7,24.0,16.0\n" +
+            "8,29.0,17.0\n" +
+            "9,23.0,18.0\n";
+    // ann: Clerk + Manager share Approve; bob: Buyer + Receiver share Receive; cat: Warehouse Lead
+    // inherits Receive from Warehouse Worker and shares it with Receiver; dan and eve have no conflict
+    private static final String[] ASSIGNMENTS = {
+            "11.0,101.0", "12.0,101.0", "13.0,102.0", "14.0,102.0", "15.0,103.0", "14.0,103.0",
+            "11.0,104.0", "17.0,104.0", "17.0,105.0", "18.0,105.0"};
+    // MEMBERSHIP_ID, CHILD_ROLE_ID, PARENT_ROLE_ID
+    private static final String[] HIERARCHY = {"16.0,15.0"};
+
+    // Approve and Pay Invoice are one entitlement
+    private static final String ENTITLEMENTS =
+            "ENTITLEMENT_ID,ENTITLEMENT_NAME,PRIVILEGE_ID\n" +
+            "1,Invoice Processing,22.0\n" +
+            "1,Invoice Processing,23.0\n" +
+            "2,Receiving,24.0\n" +
+            "3,Ledger Inquiry,29.0\n";
+
+    // ann loses Payables Manager, Warehouse Lead loses Warehouse Worker, Auditor gains Payables Manager
+    private static final String DELTA =
+            "CHANGE,RELATION,FROM_ID,TO_ID\n" +
+            "-,user-role,101,12\n" +
+            "-,role-role,16,15\n" +
+            "+,role-role,12,17\n";
+
+    @Test
+    public void deltaRunMatchesFullRunOnEditedInputs() throws IOException {
+        Path before = writeInputs("before", Arrays.asList(ASSIGNMENTS), Arrays.asList(HIERARCHY));
+        Path snapshot = folder.getRoot().toPath().resolve("input.snapshot");
+        Path previous = folder.getRoot().toPath().resolve("previous.csv.gz");
+        runFull(before, previous, "--snapshot", snapshot.toString());
+
+        Path delta = folder.getRoot().toPath().resolve("delta.csv");
+        Files.write(delta, DELTA.getBytes(StandardCharsets.UTF_8));
+        Path incremental = folder.getRoot().toPath().resolve("incremental.csv");
+        Path diff = folder.getRoot().toPath().resolve("diff.csv");
+        SoDChecker.main(new String[]{"--snapshot", snapshot.toString(), "--delta", delta.toString(),
+                                     "--previous-report", previous.toString(), "--diff", diff.toString(),
+                                     "--parallelism", "2", incremental.toString()});
+
+        List<String> editedAssignments = new ArrayList<>(Arrays.asList(ASSIGNMENTS));
+        editedAssignments.remove("12.0,101.0");
+        List<String> editedHierarchy = Arrays.asList("12.0,17.0");
+        Path after = writeInputs("after", editedAssignments, editedHierarchy);
+        Path full = folder.getRoot().toPath().resolve("full.csv");
+        runFull(after, full);
+
+        assertTrue(Files.size(full) > 0);
+        assertArrayEquals(Files.readAllBytes(full), Files.readAllBytes(incremental));
+
+        // ann and cat lose their conflicts, dan and eve gain one through the Auditor role
+        Set<String> changes = new HashSet<>();
+        List<String[]> diffRows = CsvReader.read(diff.toString(), ',', null, null);
+        List<String> headers = Arrays.asList(diffRows.get(0));
+        int user = headers.indexOf("User_Name");
+        int type = headers.indexOf("Type_of_Conflict");
+        for (String[] row : diffRows.subList(1, diffRows.size())) {
+            changes.add(row[0] + " " + row[user] + " " + row[type]);
+        }
+        assertEquals(new HashSet<>(Arrays.asList(
+                "Resolved ann Privilege Conflict", "Resolved cat Privilege Conflict",
+                "New dan Privilege Conflict", "New eve Privilege Conflict")), changes);
+    }
+
+    // The entitlement mapping may be a CSV export in incremental mode too
+    @Test
+    public void csvEntitlementMappingIsReadByTheDeltaRun() throws IOException {
+        Path entitlements = folder.getRoot().toPath().resolve("entitlements.csv");
+        write(entitlements, ENTITLEMENTS);
+        String[] flags = {"--entitlements", entitlements.toString(), "--granularity", "entitlement"};
+
+        Path before = writeInputs("before", Arrays.asList(ASSIGNMENTS), Arrays.asList(HIERARCHY));
+        Path snapshot = folder.getRoot().toPath().resolve("input.snapshot");
+        Path previous = folder.getRoot().toPath().resolve("previous.csv");
+        runFull(before, previous, concat(flags, "--snapshot", snapshot.toString()));
+
+        Path delta = folder.getRoot().toPath().resolve("delta.csv");
+        write(delta, DELTA);
+        Path incremental = folder.getRoot().toPath().resolve("incremental.csv");
+        SoDChecker.main(concat(flags, "--snapshot", snapshot.toString(), "--delta", delta.toString(),
+                               "--previous-report", previous.toString(), "--parallelism", "2",
+                               incremental.toString()));
+
+        List<String> editedAssignments = new ArrayList<>(Arrays.asList(ASSIGNMENTS));
+        editedAssignments.remove("12.0,101.0");
+        Path after = writeInputs("after", editedAssignments, Arrays.asList("12.0,17.0"));
+        Path full = folder.getRoot().toPath().resolve("full.csv");
+        runFull(after, full, flags);
+
+        String report = new String(Files.readAllBytes(full), StandardCharsets.UTF_8);
+        assertTrue(report, report.contains("Entitlement Conflict"));
+        assertArrayEquals(Files.readAllBytes(full), Files.readAllBytes(incremental));
+    }
+
+    @Test
+    public void lastChangeToAnEdgeWinsAndIdsMatchByValue() {
+        List<List<String[]>> tables = new ArrayList<>();
+        tables.add(rows(new String[]{"USER_ID"}, row(5, "101.0"), row(5, "102.0")));
+        tables.add(rows(new String[]{"ROLE_ID", "MEMBERSHIP_ID", "USER_ID"},
+                        new String[]{"11.0", "1", "101.0"}, new String[]{"12.0", "2", "101.0"}));
+        tables.add(rows(new String[]{"ROLE_ID", "ROLE_NAME"},
+                        new String[]{"11.0", "Clerk"}, new String[]{"12.0", "Manager"}));
+        tables.add(rows(new String[]{"MEMBERSHIP_ID", "CHILD_ROLE_ID", "PARENT_ROLE_ID"}));
+        tables.add(rows(new String[]{"PRIVILEGE_CODE", "NAME", "PRIVILEGE_ID"}));
+
+        List<EdgeDelta> deltas = Arrays.asList(
+                new EdgeDelta(false, EdgeDelta.Relation.USER_ROLE, "101", "11"),   // "101"/"11" match "101.0"/"11.0"
+                new EdgeDelta(true, EdgeDelta.Relation.USER_ROLE, "102", "12"),
+                new EdgeDelta(false, EdgeDelta.Relation.USER_ROLE, "102", "12"),   // added, then removed again
+                new EdgeDelta(false, EdgeDelta.Relation.USER_ROLE, "101", "12"),
+                new EdgeDelta(true, EdgeDelta.Relation.USER_ROLE, "101", "12"),    // removed, then kept
+                new EdgeDelta(true, EdgeDelta.Relation.ROLE_ROLE, "11", "12"));
+
+        List<List<String[]>> updated = IncrementalRun.applyToTables(tables, deltas);
+        List<String[]> mapping = updated.get(1);
+        assertEquals(2, mapping.size());
+        assertArrayEquals(new String[]{"12.0", "2", "101.0"}, mapping.get(1));
+        // New rows spell the IDs the way the master tables do
+        List<String[]> hierarchy = updated.get(3);
+        assertEquals(2, hierarchy.size());
+        assertArrayEquals(new String[]{"", "11.0", "12.0"}, hierarchy.get(1));
+        // The input list is not modified
+        assertEquals(3, tables.get(1).size());
+    }
+
+    private void runFull(Path inputs, Path output, String... flags) {
+        List<String> args = new ArrayList<>(Arrays.asList(flags));
+        args.addAll(Arrays.asList("--parallelism", "2"));
+        for (String name : new String[]{"users.csv", "mapping.csv", "roles.csv", "hierarchy.csv", "privileges.csv"}) {
+            args.add(inputs.resolve(name).toString());
+        }
+        args.add(output.toString());
+        args.add(inputs.resolve("relation.csv").toString());
+        SoDChecker.main(args.toArray(new String[0]));
+    }
+
+    private Path writeInputs(String name, List<String> assignments, List<String> hierarchy) throws IOException {
+        Path dir = folder.newFolder(name).toPath();
+        write(dir.resolve("users.csv"), USERS);
+        StringBuilder mapping = new StringBuilder("ROLE_ID,MEMBERSHIP_ID,USER_ID\n");
+        for (String assignment : assignments) {
+            String[] ids = assignment.split(",");
+            mapping.append(ids[0]).append(",m,").append(ids[1]).append('\n');
+        }
+        write(dir.resolve("mapping.csv"), mapping.toString());
+        write(dir.resolve("roles.csv"), ROLE_MASTER);
+        StringBuilder edges = new StringBuilder("MEMBERSHIP_ID,CHILD_ROLE_ID,PARENT_ROLE_ID\n");
+        for (String edge : hierarchy) {
+            edges.append("h,").append(edge).append('\n');
+        }
+        write(dir.resolve("hierarchy.csv"), edges.toString());
+        write(dir.resolve("privileges.csv"), PRIVILEGES);
+        write(dir.resolve("relation.csv"), PRIVILEGE_ROLES);
+        return dir;
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] concat(String[] first, String... rest) {
+        String[] all = Arrays.copyOf(first, first.length + rest.length);
+        System.arraycopy(rest, 0, all, first.length, rest.length);
+        return all;
+    }
+
+    private static List<String[]> rows(String[]... rows) {
+        return new ArrayList<>(Arrays.asList(rows));
+    }
+
+    // A row with `id` in column `column`
+    private static String[] row(int column, String id) {
+        String[] row = new String[column + 1];
+        Arrays.fill(row, "");
+        row[column] = id;
+        return row;
+    }
+}
@@ -0,0 +1,184 @@
+package utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CsvReaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void quotedDelimitersAndLineBreaksStayInTheirField() throws IOException {
+        List<String[]> rows = read("ROLE_ID,ROLE_NAME\n"
+                + "7,\"Accounts Payable Manager, China\"\n"
+                + "8,\"Line one\nline two\r\nline three\"\n");
+        assertRows(rows,
+                new String[]{"ROLE_ID", "ROLE_NAME"},
+                new String[]{"7", "Accounts Payable Manager, China"},
+                new String[]{"8", "Line one\nline two\r\nline three"});
+    }
+
+    @Test
+    public void doubledQuotesAreOneQuote() throws IOException {
+        assertRows(read("\"say \"\"hi\"\"\",\"\"\"\",x\n"),
+                new String[]{"say \"hi\"", "\"", "x"});
+    }
+
+    @Test
+    public void textAfterClosingQuoteIsKept() throws IOException {
+        assertRows(read("\"a,b\"c,\"d\"\"e\"f g,h\n"),
+                new String[]{"a,bc", "d\"ef g", "h"});
+    }
+
+    @Test
+    public void byteOrderMarkIsSkipped() throws IOException {
+        String path = write("\uFEFFUSER_ID,USER_DISPLAY_NAME\n1317,chris.hooper\n");
+        assertRows(CsvReader.read(path, ',', null, null),
+                new String[]{"USER_ID", "USER_DISPLAY_NAME"},
+                new String[]{"1317", "chris.hooper"});
+        assertArrayEquals(new String[]{"USER_ID", "USER_DISPLAY_NAME"}, CsvReader.readHeader(path, ','));
+    }
+
+    @Test
+    public void crlfLineEndings() throws IOException {
+        assertRows(read("a,b\r\nc,\"d\"\r\ne,f"),
+                new String[]{"a", "b"},
+                new String[]{"c", "d"},
+                new String[]{"e", "f"});
+    }
+
+    @Test
+    public void blankRecordsAreSkipped() throws IOException {
+        // "" and "" followed by a space are empty quoted fields; " """"" holds two quotes
+        assertRows(read("a,b\n\n,\n  ,\t\r\n\"\",\"\" \n\" \"\"\"\"\"\n c , d \n"),
+                new String[]{"a", "b"},
+                new String[]{"\"\""},
+                new String[]{"c", "d"});
+    }
+
+    @Test
+    public void onlyRequestedColumnsAreDecoded() throws IOException {
+        String path = write("a\tb\tc\n\"1\"\t\"2\"\t3\n");
+        assertRows(CsvReader.read(path, '\t', new int[]{1}, null),
+                new String[]{"", "b", ""},
+                new String[]{"", "2", ""});
+        assertArrayEquals(new String[]{"a", "b", "c"}, CsvReader.readHeader(path, '\t'));
+    }
+
+    // Quoted line breaks, "" escapes, CRLF and blank records throughout a file large enough to be
+    // split: the ranges must start on record boundaries, so the split parse equals a parse in one piece
+    @Test
+    public void largeFileSplitIntoRangesParsesLikeOneRange() throws IOException {
+        Random random = new Random(42);
+        List<String[]> expected = new ArrayList<>();
+        Path file = folder.newFile("large.csv").toPath();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+            while (Files.size(file) < (9L << 20)) {
+                StringBuilder chunk = new StringBuilder();
+                for (int r = 0; r < 1000; r++) {
+                    appendRecord(chunk, random, expected);
+                }
+                out.write(chunk.toString().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+
+        long size = Files.size(file);
+        List<String[]> single;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = CsvReader.recordBoundaries(channel, 3, size, (byte) ',', 1L << 20);
+            assertTrue("only " + (bounds.length - 1) + " ranges", bounds.length > 4);
+            single = CsvReader.parseRange(channel, 3, size, (byte) ',', null);
+            List<String[]> split = new ArrayList<>();
+            for (int r = 0; r + 1 < bounds.length; r++) {
+                split.addAll(CsvReader.parseRange(channel, bounds[r], bounds[r + 1], (byte) ',', null));
+            }
+            assertRows(split, single.toArray(new String[0][]));
+        }
+        assertRows(single, expected.toArray(new String[0][]));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertRows(CsvReader.read(file.toString(), ',', null, pool), expected.toArray(new String[0][]));
+        } finally {
+            pool.shutdown();
+        }
+        assertRows(CsvReader.read(file.toString(), ',', null, null), expected.toArray(new String[0][]));
+    }
+
+    // One record of 1-4 fields in a random spelling, or a blank record now and then
+    private static void appendRecord(StringBuilder csv, Random random, List<String[]> expected) {
+        String lineEnd = random.nextBoolean() ? "\n" : "\r\n";
+        if (random.nextInt(20) == 0) {
+            csv.append(random.nextBoolean() ? "" : ",\"\", ").append(lineEnd);
+            return;
+        }
+        String[] row = new String[1 + random.nextInt(4)];
+        for (int f = 0; f < row.length; f++) {
+            if (f > 0) {
+                csv.append(',');
+            }
+            String word = "v" + random.nextInt(100000);
+            switch (random.nextInt(6)) {
+                case 0:
+                    row[f] = word + "," + word;
+                    csv.append('"').append(row[f]).append('"');
+                    break;
+                case 1:
+                    row[f] = word + "\"\n" + word + "\r\n,\"" + word;
+                    csv.append('"').append(row[f].replace("\"", "\"\"")).append('"');
+                    break;
+                case 2:
+                    row[f] = "\"" + word + "\"";
+                    csv.append("\"\"\"").append(word).append("\"\"\"");
+                    break;
+                case 3:
+                    row[f] = word + "\n," + word;
+                    csv.append('"').append(word).append("\n,\"").append(word);
+                    break;
+                default:
+                    row[f] = word;
+                    csv.append(word);
+                    break;
+            }
+        }
+        csv.append(lineEnd);
+        expected.add(row);
+    }
+
+    private List<String[]> read(String content) throws IOException {
+        return CsvReader.read(write(content), ',', null, null);
+    }
+
+    private String write(String content) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file.toString();
+    }
+
+    private static void assertRows(List<String[]> actual, String[]... expected) {
+        assertEquals(expected.length, actual.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals("row " + i + ": " + Arrays.toString(actual.get(i)), expected[i], actual.get(i));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+// What the sink writes, CsvReader reads back field for field
+public class CsvViolationSinkTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String[] HEADERS = {"User_Name", "Type_of_Conflict", "Roles", "Note"};
+
+    @Test
+    public void rowsReadBackUnchanged() throws IOException {
+        List<String[]> rows = rows(10);
+        Path file = folder.getRoot().toPath().resolve("report.csv");
+        write(new CsvViolationSink(file.toString(), HEADERS), rows);
+        assertReadBack(file, rows);
+    }
+
+    @Test
+    public void rowsEncodedOnAPoolKeepTheirOrder() throws IOException {
+        List<String[]> rows = rows(10_000);  // several chunks
+        Path file = folder.getRoot().toPath().resolve("report.csv");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            write(new CsvViolationSink(file.toString(), HEADERS, pool), rows);
+        } finally {
+            pool.shutdown();
+        }
+        assertReadBack(file, rows);
+    }
+
+    @Test
+    public void gzipReportReadsBackAfterDecompressing() throws IOException {
+        List<String[]> rows = rows(3000);
+        Path file = folder.getRoot().toPath().resolve("report.csv.gz");
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            write(new CsvViolationSink(file.toString(), HEADERS, pool), rows);
+        } finally {
+            pool.shutdown();
+        }
+        Path plain = folder.getRoot().toPath().resolve("unzipped.csv");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            Files.copy(in, plain);
+        }
+        assertReadBack(plain, rows);
+    }
+
+    @Test
+    public void emptyReportSaysSo() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("report.csv");
+        write(new CsvViolationSink(file.toString(), HEADERS), new ArrayList<>());
+        List<String[]> read = CsvReader.read(file.toString(), ',', null, null);
+        assertEquals(2, read.size());
+        assertArrayEquals(new String[]{"No violations found"}, read.get(1));
+        assertFalse(Files.exists(file.resolveSibling("report.csv.tmp")));
+    }
+
+    @Test
+    public void abortedReportLeavesThePreviousOneInPlace() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            for (String name : new String[]{"report.csv", "report.csv.gz", "report.xlsx"}) {
+                Path file = folder.getRoot().toPath().resolve(name);
+                Files.write(file, new byte[]{1, 2, 3});
+                ViolationSink sink = OutputGenerator.openReport(file.toString(), HEADERS, pool);
+                for (String[] row : rows(5000)) {
+                    sink.accept(row);
+                }
+                sink.abort();
+                sink.close();
+                assertArrayEquals(name, new byte[]{1, 2, 3}, Files.readAllBytes(file));
+                assertFalse(name, Files.exists(file.resolveSibling(name + ".tmp")));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Fields with commas, quotes, line breaks and non-ASCII text, and plain ones
+    private static List<String[]> rows(int count) {
+        List<String[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new String[]{
+                    "user." + i,
+                    i % 2 == 0 ? "Privilege Conflict" : "Cycle Detected",
+                    "Payables Manager, China,Buyer " + i,
+                    i % 3 == 0 ? "says \"approve\"\nthen\r\npays" : i % 3 == 1 ? "\"" : "Zoë Ünal"
+            });
+        }
+        return rows;
+    }
+
+    private static void write(CsvViolationSink sink, List<String[]> rows) throws IOException {
+        try (CsvViolationSink report = sink) {
+            for (String[] row : rows) {
+                report.accept(row);
+            }
+        }
+    }
+
+    private static void assertReadBack(Path file, List<String[]> rows) throws IOException {
+        List<String[]> read = CsvReader.read(file.toString(), ',', null, null);
+        assertEquals(rows.size() + 1, read.size());
+        assertArrayEquals(HEADERS, read.get(0));
+        for (int i = 0; i < rows.size(); i++) {
+            assertArrayEquals("row " + i, rows.get(i), read.get(i + 1));
+        }
+        assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+    }
+}
@@ -0,0 +1,152 @@
+package utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InputSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final List<String[]> USERS = Arrays.asList(
+            new String[]{"USER_ID", "USER_DISPLAY_NAME"},
+            new String[]{"1317", "chris.hooper"},
+            new String[]{"1318", "Zoë Ünal", ""},
+            new String[]{"1319"});
+    private static final List<String[]> ROLES = Arrays.asList(
+            new String[]{"ROLE_ID", "ROLE_NAME"},
+            new String[]{"7", "Accounts Payable Manager, China"},
+            new String[]{"1317", "chris.hooper"});
+
+    @Test
+    public void savedTablesReadBackUnchanged() throws IOException {
+        List<String> sources = sources("users v1", "roles v1");
+        Path snapshotPath = folder.getRoot().toPath().resolve("snap.bin");
+
+        InputSnapshot first = InputSnapshot.open(snapshotPath, sources);
+        assertNull(first.getTable(0));
+        assertFalse(first.isCurrent());
+        first.save(Arrays.asList(USERS, ROLES));
+
+        InputSnapshot reopened = InputSnapshot.open(snapshotPath, sources);
+        assertTrue(reopened.isCurrent());
+        assertRows(USERS, reopened.getTable(0));
+        assertRows(ROLES, reopened.getTable(1));
+
+        List<List<String[]>> all = InputSnapshot.loadAll(snapshotPath);
+        assertEquals(2, all.size());
+        assertRows(USERS, all.get(0));
+        assertRows(ROLES, all.get(1));
+    }
+
+    @Test
+    public void changedSourceFileIsReadAgain() throws IOException {
+        List<String> sources = sources("users v1", "roles v1");
+        Path snapshotPath = folder.getRoot().toPath().resolve("snap.bin");
+        InputSnapshot.open(snapshotPath, sources).save(Arrays.asList(USERS, ROLES));
+
+        Files.write(Path.of(sources.get(1)), "roles v2".getBytes(StandardCharsets.UTF_8));
+        InputSnapshot reopened = InputSnapshot.open(snapshotPath, sources);
+        assertRows(USERS, reopened.getTable(0));
+        assertNull(reopened.getTable(1));
+        assertFalse(reopened.isCurrent());
+    }
+
+    @Test
+    public void derivedSnapshotIsNeverCurrent() throws IOException {
+        List<String> sources = sources("users v1", "roles v1");
+        Path snapshotPath = folder.getRoot().toPath().resolve("snap.bin");
+        InputSnapshot.saveDerived(snapshotPath, Arrays.asList(USERS, ROLES));
+
+        InputSnapshot reopened = InputSnapshot.open(snapshotPath, sources);
+        assertNull(reopened.getTable(0));
+        assertNull(reopened.getTable(1));
+        assertRows(ROLES, InputSnapshot.loadAll(snapshotPath).get(1));
+    }
+
+    @Test
+    public void truncatedSnapshotIsRejected() throws IOException {
+        List<String> sources = sources("users v1", "roles v1");
+        Path snapshotPath = folder.getRoot().toPath().resolve("snap.bin");
+        InputSnapshot.open(snapshotPath, sources).save(Arrays.asList(USERS, ROLES));
+        byte[] whole = Files.readAllBytes(snapshotPath);
+
+        Path cutPath = folder.getRoot().toPath().resolve("cut.bin");
+        for (int length = 0; length < whole.length; length++) {
+            Files.write(cutPath, Arrays.copyOf(whole, length));
+            assertRejected(cutPath, sources, "cut at " + length + " of " + whole.length + " bytes");
+        }
+
+        // With the first source changed its table is skipped over rather than decoded
+        Files.write(Path.of(sources.get(0)), "users v2".getBytes(StandardCharsets.UTF_8));
+        for (int length = 0; length < whole.length; length++) {
+            Files.write(cutPath, Arrays.copyOf(whole, length));
+            assertRejected(cutPath, sources, "cut at " + length + " of " + whole.length + " bytes, first table stale");
+        }
+    }
+
+    @Test
+    public void otherVersionOrMagicIsRejected() throws IOException {
+        List<String> sources = sources("users v1", "roles v1");
+        Path snapshotPath = folder.getRoot().toPath().resolve("snap.bin");
+        InputSnapshot.open(snapshotPath, sources).save(Arrays.asList(USERS, ROLES));
+        byte[] whole = Files.readAllBytes(snapshotPath);
+
+        byte[] otherVersion = whole.clone();
+        ByteBuffer.wrap(otherVersion).putInt(4, ByteBuffer.wrap(whole).getInt(4) + 1);
+        Files.write(snapshotPath, otherVersion);
+        assertRejected(snapshotPath, sources, "other version");
+
+        byte[] otherMagic = whole.clone();
+        otherMagic[0] ^= 0x7F;
+        Files.write(snapshotPath, otherMagic);
+        assertRejected(snapshotPath, sources, "other magic number");
+    }
+
+    // Neither table is taken from the file, and loading it whole fails
+    private static void assertRejected(Path snapshotPath, List<String> sources, String what) throws IOException {
+        InputSnapshot snapshot = InputSnapshot.open(snapshotPath, sources);
+        assertNull(what, snapshot.getTable(0));
+        assertNull(what, snapshot.getTable(1));
+        try {
+            InputSnapshot.loadAll(snapshotPath);
+            fail(what + ": loadAll accepted the file");
+        } catch (IOException expected) {
+            assertNotNull(expected.getMessage());
+        }
+    }
+
+    private List<String> sources(String... contents) throws IOException {
+        String[] paths = new String[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            Path source = folder.newFile("source" + i + ".csv").toPath();
+            Files.write(source, contents[i].getBytes(StandardCharsets.UTF_8));
+            paths[i] = source.toString();
+        }
+        return Arrays.asList(paths);
+    }
+
+    private static void assertRows(List<String[]> expected, List<String[]> actual) {
+        assertNotNull(actual);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals("row " + i, expected.get(i), actual.get(i));
+        }
+    }
+}